@@ -2,6 +2,13 @@ plugins {
     id("java")
     id("org.springframework.boot") version "3.3.3"
     id("io.spring.dependency-management") version "1.1.6"
+    id("org.graalvm.buildtools.native") version "0.10.2" apply false
+}
+
+// -Paot runs Spring AOT processing (processAot) and packs its output into the boot jar;
+// start that jar with -Dspring.aot.enabled=true. No native image is built.
+if (project.hasProperty("aot")) {
+    apply(plugin = "org.graalvm.buildtools.native")
 }
 
 group = "com.example"
@@ -19,13 +26,22 @@ repositories {
     mavenCentral()
 }
 
+// Offline load harness: stub upstreams plus a load driver, kept out of the application jar
+val loadtest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-quartz")
-    implementation("org.jsoup:jsoup:1.17.2")
+    implementation("org.jsoup:jsoup:1.18.3")
     implementation("com.fasterxml.jackson.core:jackson-databind")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
     implementation("org.apache.httpcomponents.client5:httpclient5:5.3.1")
@@ -37,3 +53,44 @@ dependencies {
 tasks.test {
     useJUnitPlatform()
 }
+
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs the load harness against local stub servers, e.g. -Pargs=\"--rate=20 --duration=30\""
+    group = "verification"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.example.stockanalyzer.loadtest.LoadHarness")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+tasks.register<JavaExec>("alertBenchmark") {
+    description = "Benchmarks the price alert engine, e.g. -Pargs=\"--symbols=500 --levelsPerSymbol=2000\""
+    group = "verification"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.example.stockanalyzer.loadtest.AlertBenchmark")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+tasks.register<JavaExec>("extractionBenchmark") {
+    description = "Benchmarks document vs streaming news extraction, e.g. -Pargs=\"--articles=200 --matchEvery=4\""
+    group = "verification"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.example.stockanalyzer.loadtest.ExtractionBenchmark")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+tasks.register<JavaExec>("backtestBenchmark") {
+    description = "Times the backtest engine on synthetic bars, e.g. -Pargs=\"--symbols=5000 --years=10 --barsPath=build/bars\""
+    group = "verification"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.example.stockanalyzer.loadtest.BacktestBenchmark")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
+
+tasks.register<JavaExec>("articleFootprint") {
+    description = "Measures heap per scraped article for NewsItem lists vs ArticleBatch, e.g. -Pargs=\"--symbols=5000 --articles=20\""
+    group = "verification"
+    classpath = loadtest.runtimeClasspath
+    mainClass.set("com.example.stockanalyzer.loadtest.ArticleFootprint")
+    jvmArgs("-Xms1g", "-Xmx1g")
+    args = (project.findProperty("args") as String? ?: "").split(" ").filter { it.isNotBlank() }
+}
@@ -0,0 +1,64 @@
+#!/bin/bash
+
+# Measures time from process start to the first successfully served request.
+# Usage: ./measure_startup.sh [runs] -- <command that starts the app>
+#   ./measure_startup.sh 5 -- java -jar build/libs/stock-analyzer-spring-0.0.1-SNAPSHOT.jar
+#   ./measure_startup.sh 5 -- docker run --rm -p 8085:8085 stock-analyzer:fast
+# URL defaults to an application endpoint (not just health) so lazily created beans are included.
+# With RESULTS=<file> the summary is also appended as a Markdown table row labelled LABEL, so the
+# before and after runs end up side by side:
+#   RESULTS=docs/startup.md LABEL=plain ./measure_startup.sh 5 -- docker run --rm -p 8085:8085 stock-analyzer:plain
+
+RUNS=${1:-5}
+shift
+[ "$1" = "--" ] && shift
+URL=${URL:-http://localhost:8085/api/automation/status}
+TIMEOUT_S=${TIMEOUT_S:-120}
+
+if [ $# -eq 0 ]; then
+  echo "usage: $0 [runs] -- <command>" >&2
+  exit 1
+fi
+
+now_ms() { date +%s%3N; }
+
+results=()
+for run in $(seq 1 "$RUNS"); do
+  start=$(now_ms)
+  "$@" > /tmp/measure_startup.log 2>&1 &
+  pid=$!
+  elapsed=""
+  while [ $(( $(now_ms) - start )) -lt $(( TIMEOUT_S * 1000 )) ]; do
+    if curl -sf -o /dev/null "$URL"; then
+      elapsed=$(( $(now_ms) - start ))
+      break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+      break
+    fi
+    sleep 0.05
+  done
+  kill "$pid" 2>/dev/null
+  wait "$pid" 2>/dev/null
+  # docker run --rm needs a moment to release the port
+  sleep 1
+  if [ -z "$elapsed" ]; then
+    echo "run $run: no response from $URL (see /tmp/measure_startup.log)" >&2
+    exit 1
+  fi
+  echo "run $run: ${elapsed} ms"
+  results+=("$elapsed")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+median=${sorted[$(( ${#sorted[@]} / 2 ))]}
+echo "median: ${median} ms, min: ${sorted[0]} ms, max: ${sorted[-1]} ms"
+
+if [ -n "$RESULTS" ]; then
+  if [ ! -s "$RESULTS" ]; then
+    mkdir -p "$(dirname "$RESULTS")"
+    printf '| Date | Label | Runs | Median (ms) | Min (ms) | Max (ms) | CPUs | Command |\n|---|---|---|---|---|---|---|---|\n' > "$RESULTS"
+  fi
+  printf '| %s | %s | %s | %s | %s | %s | %s | `%s` |\n' "$(date +%F)" "${LABEL:-run}" "$RUNS" "$median" \
+    "${sorted[0]}" "${sorted[-1]}" "$(nproc 2>/dev/null || echo ?)" "$*" >> "$RESULTS"
+fi
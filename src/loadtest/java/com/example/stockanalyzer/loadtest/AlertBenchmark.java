@@ -0,0 +1,120 @@
+package com.example.stockanalyzer.loadtest;
+
+import com.example.stockanalyzer.service.PriceAlertEngine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Drives random-walk quotes through a {@link PriceAlertEngine} on one thread and reports update
+ * throughput, next to a linear scan over the same levels as a baseline (run for a twentieth of the
+ * updates). Open recommendations are replaced as they close, so the number of watched levels stays
+ * roughly constant.
+ *
+ * Options ({@code --key=value}): symbols, levelsPerSymbol, updates, volatility (per-update stdev
+ * as a fraction of price), seed.
+ */
+public class AlertBenchmark {
+
+    public static void main(String[] args) {
+        int symbols = intOption(args, "symbols", 500);
+        int levelsPerSymbol = intOption(args, "levelsPerSymbol", 2000);
+        int updates = intOption(args, "updates", 5_000_000);
+        double volatility = Double.parseDouble(option(args, "volatility", "0.0005"));
+        long seed = Long.parseLong(option(args, "seed", "42"));
+
+        String[] names = new String[symbols];
+        for (int s = 0; s < symbols; s++) {
+            names[s] = "SYM" + s;
+        }
+
+        for (int round = 0; round < 2; round++) {
+            String label = round == 0 ? "warmup" : "measured";
+            Result engine = runEngine(names, levelsPerSymbol, updates, volatility, seed);
+            Result scan = runScan(names, levelsPerSymbol, updates / 20, volatility, seed);
+            System.out.printf("%-8s engine: %,.0f updates/s, %,d alerts, %,d levels watched at end%n",
+                label, engine.rate(), engine.alerts(), engine.watched());
+            System.out.printf("%-8s scan:   %,.0f updates/s, %,d alerts%n", label, scan.rate(), scan.alerts());
+        }
+    }
+
+    private record Result(double rate, long alerts, int watched) {}
+
+    private static Result runEngine(String[] names, int levelsPerSymbol, int updates, double volatility, long seed) {
+        Random random = new Random(seed);
+        PriceAlertEngine engine = new PriceAlertEngine();
+        double[] prices = new double[names.length];
+        long nextId = 1;
+        for (int s = 0; s < names.length; s++) {
+            prices[s] = 50 + random.nextDouble() * 150;
+            for (int l = 0; l < levelsPerSymbol / 2; l++) {
+                track(engine, random, nextId++, names[s], prices[s]);
+            }
+        }
+        long alerts = 0;
+        long start = System.nanoTime();
+        for (int u = 0; u < updates; u++) {
+            int s = random.nextInt(names.length);
+            prices[s] *= 1 + random.nextGaussian() * volatility;
+            int fired = engine.onPrice(names[s], prices[s]).size();
+            alerts += fired;
+            for (int i = 0; i < fired; i++) {
+                track(engine, random, nextId++, names[s], prices[s]);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(updates / seconds, alerts, engine.size());
+    }
+
+    // Each recommendation gets a target 2-15% above and a stop 2-10% below the entry
+    private static void track(PriceAlertEngine engine, Random random, long id, String symbol, double entry) {
+        engine.track(id, symbol, entry, entry * (1.02 + random.nextDouble() * 0.13), entry * (0.98 - random.nextDouble() * 0.08));
+    }
+
+    private static Result runScan(String[] names, int levelsPerSymbol, int updates, double volatility, long seed) {
+        Random random = new Random(seed);
+        double[] prices = new double[names.length];
+        double[][] targets = new double[names.length][levelsPerSymbol / 2];
+        double[][] stops = new double[names.length][levelsPerSymbol / 2];
+        boolean[][] open = new boolean[names.length][levelsPerSymbol / 2];
+        for (int s = 0; s < names.length; s++) {
+            prices[s] = 50 + random.nextDouble() * 150;
+            for (int l = 0; l < levelsPerSymbol / 2; l++) {
+                targets[s][l] = prices[s] * (1.02 + random.nextDouble() * 0.13);
+                stops[s][l] = prices[s] * (0.98 - random.nextDouble() * 0.08);
+            }
+            Arrays.fill(open[s], true);
+        }
+        long alerts = 0;
+        long start = System.nanoTime();
+        for (int u = 0; u < updates; u++) {
+            int s = random.nextInt(names.length);
+            double price = prices[s] *= 1 + random.nextGaussian() * volatility;
+            double[] t = targets[s];
+            double[] d = stops[s];
+            boolean[] o = open[s];
+            for (int l = 0; l < t.length; l++) {
+                if (o[l] && (price >= t[l] || price <= d[l])) {
+                    alerts++;
+                    t[l] = price * (1.02 + random.nextDouble() * 0.13);
+                    d[l] = price * (0.98 - random.nextDouble() * 0.08);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(updates / seconds, alerts, 0);
+    }
+
+    private static String option(String[] args, String key, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + key + "=")) {
+                return arg.substring(key.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int intOption(String[] args, String key, int defaultValue) {
+        return Integer.parseInt(option(args, key, String.valueOf(defaultValue)));
+    }
+}
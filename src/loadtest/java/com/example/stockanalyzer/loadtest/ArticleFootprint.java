@@ -0,0 +1,112 @@
+package com.example.stockanalyzer.loadtest;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+import com.example.stockanalyzer.model.NewsAnalysis;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Heap retained per scraped article, held as {@link NewsAnalysis.NewsItem} lists and as
+ * {@link ArticleBatch}es. Builds {@code symbols} analyses of {@code articles} scored articles each,
+ * with ASCII bodies of {@code bodyChars} characters and sources as fresh strings the way they come
+ * back from checkpoints, then reports the used heap after a full GC divided by the article count.
+ * Run with a fixed heap (-Xms equal to -Xmx) so the numbers are stable.
+ *
+ * Options ({@code --key=value}): symbols, articles, bodyChars, seed.
+ */
+public class ArticleFootprint {
+
+    private static final String[] SOURCES = {"Yahoo Finance", "MarketWatch", "Reuters", "CNBC"};
+
+    // Keeps the measured data reachable until the measurement is taken
+    private static volatile Object retained;
+
+    public static void main(String[] args) {
+        int symbols = intOption(args, "symbols", 5000);
+        int articles = intOption(args, "articles", 20);
+        int bodyChars = intOption(args, "bodyChars", 400);
+        long seed = Long.parseLong(option(args, "seed", "42"));
+        long count = (long) symbols * articles;
+
+        List<List<NewsAnalysis.NewsItem>> lists = new ArrayList<>(symbols);
+        long listBytes = measure(() -> {
+            Random random = new Random(seed);
+            for (int s = 0; s < symbols; s++) {
+                lists.add(items(random, articles, bodyChars));
+            }
+            return lists;
+        });
+        lists.clear();
+
+        List<ArticleBatch> batches = new ArrayList<>(symbols);
+        long batchBytes = measure(() -> {
+            Random random = new Random(seed);
+            for (int s = 0; s < symbols; s++) {
+                batches.add(ArticleBatch.of(items(random, articles, bodyChars)));
+            }
+            return batches;
+        });
+
+        System.out.printf("%,d symbols x %d articles, %d-char bodies%n", symbols, articles, bodyChars);
+        System.out.printf("NewsItem lists: %,d bytes/article%n", listBytes / count);
+        System.out.printf("ArticleBatch:   %,d bytes/article%n", batchBytes / count);
+    }
+
+    private interface Build {
+        Object run();
+    }
+
+    private static long measure(Build build) {
+        retained = null;
+        long before = usedAfterGc();
+        retained = build.run();
+        long used = usedAfterGc() - before;
+        retained = null;
+        return used;
+    }
+
+    private static long usedAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static List<NewsAnalysis.NewsItem> items(Random random, int articles, int bodyChars) {
+        List<NewsAnalysis.NewsItem> items = new ArrayList<>(articles);
+        LocalDateTime now = LocalDateTime.now();
+        for (int a = 0; a < articles; a++) {
+            NewsAnalysis.NewsItem item = new NewsAnalysis.NewsItem(text(random, 60), text(random, bodyChars),
+                new String(SOURCES[random.nextInt(SOURCES.length)]), "https://news.example.com/" + random.nextLong(),
+                now.minusMinutes(random.nextInt(10_000)), random.nextDouble(),
+                NewsAnalysis.SentimentType.values()[random.nextInt(NewsAnalysis.SentimentType.values().length)]);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static String text(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = i % 7 == 6 ? ' ' : (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static String option(String[] args, String key, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + key + "=")) {
+                return arg.substring(key.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int intOption(String[] args, String key, int defaultValue) {
+        return Integer.parseInt(option(args, key, String.valueOf(defaultValue)));
+    }
+}
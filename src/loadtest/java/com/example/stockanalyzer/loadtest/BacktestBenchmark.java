@@ -0,0 +1,150 @@
+package com.example.stockanalyzer.loadtest;
+
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.service.BacktestEngine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Times {@link BacktestEngine} over a synthetic universe: random-walk daily bars for every symbol,
+ * written once as CSV files in the Yahoo export layout, and recommendation signals on random
+ * trading days. Bars are generated into {@code barsPath} unless it already holds them, so later
+ * runs only measure the replay. Reports signals replayed per second and wall time per round.
+ *
+ * Options ({@code --key=value}): symbols, years, signalsPerYear, parallelism (0 = all cores),
+ * barsPath (default: a temporary directory, deleted afterwards), seed.
+ */
+public class BacktestBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int symbols = intOption(args, "symbols", 5000);
+        int years = intOption(args, "years", 10);
+        int signalsPerYear = intOption(args, "signalsPerYear", 180);
+        int parallelism = intOption(args, "parallelism", 0);
+        long seed = Long.parseLong(option(args, "seed", "42"));
+        String barsOption = option(args, "barsPath", "");
+
+        Path bars = barsOption.isEmpty() ? Files.createTempDirectory("backtest-bars") : Path.of(barsOption);
+        LocalDate from = LocalDate.of(2015, 1, 2);
+        LocalDate to = from.plusYears(years);
+        try {
+            long started = System.nanoTime();
+            int written = writeBars(bars, symbols, from, to, seed);
+            if (written > 0) {
+                System.out.printf("wrote bars for %,d symbols in %.1fs%n", written, (System.nanoTime() - started) / 1e9);
+            }
+
+            List<BacktestEngine.SymbolSignals> universe = signals(symbols, from, to, signalsPerYear, seed);
+            long signalCount = universe.stream().mapToLong(BacktestEngine.SymbolSignals::size).sum();
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            System.out.printf("%,d symbols x %d years, %,d signals, %d threads%n", symbols, years, signalCount, threads);
+
+            int baseDay = (int) from.toEpochDay();
+            int spanDays = (int) (to.toEpochDay() - from.toEpochDay()) + 60 * 2 + 7;
+            for (int round = 0; round < 3; round++) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                long start = System.nanoTime();
+                BacktestEngine.Stats stats = new BacktestEngine(bars, 60).run(universe, baseDay, spanDays, pool);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                pool.shutdown();
+                System.out.printf("%-8s %.2fs, %,.0f signals/s, %,d trades%n",
+                    round == 0 ? "cold" : "round " + round, seconds, signalCount / seconds, stats.totalTrades());
+            }
+        } finally {
+            if (barsOption.isEmpty()) {
+                try (var files = Files.list(bars)) {
+                    for (Path file : files.toList()) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(bars);
+            }
+        }
+    }
+
+    // Random-walk OHLC on weekdays; files that already exist are kept
+    private static int writeBars(Path directory, int symbols, LocalDate from, LocalDate to, long seed) throws IOException {
+        Files.createDirectories(directory);
+        int written = 0;
+        for (int s = 0; s < symbols; s++) {
+            Path file = directory.resolve(symbol(s) + ".csv");
+            if (Files.exists(file)) {
+                continue;
+            }
+            Random random = new Random(seed + s);
+            double close = 20 + random.nextDouble() * 200;
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+                out.write("Date,Open,High,Low,Close,Adj Close,Volume\n");
+                for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                    if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+                        continue;
+                    }
+                    double open = close * (1 + random.nextGaussian() * 0.005);
+                    close = Math.max(1, open * (1 + random.nextGaussian() * 0.015));
+                    double high = Math.max(open, close) * (1 + random.nextDouble() * 0.01);
+                    double low = Math.min(open, close) * (1 - random.nextDouble() * 0.01);
+                    out.write(String.format(Locale.ROOT, "%s,%.4f,%.4f,%.4f,%.4f,%.4f,%d%n", day, open, high, low, close, close, 1_000_000));
+                }
+            }
+            written++;
+        }
+        return written;
+    }
+
+    // Buy and sell calls with 2-15% targets and 2-10% stops on random days, sorted per symbol
+    private static List<BacktestEngine.SymbolSignals> signals(int symbols, LocalDate from, LocalDate to,
+                                                              int signalsPerYear, long seed) {
+        Random random = new Random(seed);
+        StockRecommendation.RecommendationType[] types = StockRecommendation.RecommendationType.values();
+        int firstDay = (int) from.toEpochDay();
+        int span = (int) (to.toEpochDay() - from.toEpochDay());
+        int count = (int) Math.max(1, (long) signalsPerYear * span / 365);
+        List<BacktestEngine.SymbolSignals> universe = new ArrayList<>(symbols);
+        for (int s = 0; s < symbols; s++) {
+            int[] days = new int[count];
+            for (int i = 0; i < count; i++) {
+                days[i] = firstDay + random.nextInt(span);
+            }
+            Arrays.sort(days);
+            byte[] kinds = new byte[count];
+            double[] targets = new double[count];
+            double[] stops = new double[count];
+            for (int i = 0; i < count; i++) {
+                kinds[i] = (byte) types[random.nextInt(types.length)].ordinal();
+                targets[i] = 0.02 + random.nextDouble() * 0.13;
+                stops[i] = 0.02 + random.nextDouble() * 0.08;
+            }
+            universe.add(new BacktestEngine.SymbolSignals(symbol(s), days, kinds, targets, stops, count));
+        }
+        return universe;
+    }
+
+    private static String symbol(int index) {
+        return "SYM" + index;
+    }
+
+    private static String option(String[] args, String key, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + key + "=")) {
+                return arg.substring(key.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int intOption(String[] args, String key, int defaultValue) {
+        return Integer.parseInt(option(args, key, String.valueOf(defaultValue)));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.stockanalyzer.loadtest;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+import com.example.stockanalyzer.service.ArticleExtractor;
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Extracts articles from the same listing page with a full Jsoup document and with the streaming
+ * parser on one thread, and reports pages per second and bytes allocated per page for each. The
+ * page is the recorded listing filled with {@code articles} recorded articles, one in
+ * {@code matchEvery} of them about the benchmarked symbol, or a saved page given with {@code page}.
+ * Both modes must return the same articles; the benchmark fails if they differ.
+ *
+ * Options ({@code --key=value}): articles, matchEvery, maxArticles, pages, symbol, page.
+ */
+public class ExtractionBenchmark {
+
+    private static final String SOURCE = "https://news.example.com/latest";
+
+    // Keeps the extracted articles observable so the JIT cannot drop the work
+    private static volatile long extractedTotal;
+
+    public static void main(String[] args) throws IOException {
+        int articles = intOption(args, "articles", 200);
+        int matchEvery = intOption(args, "matchEvery", 4);
+        int maxArticles = intOption(args, "maxArticles", 25);
+        int pages = intOption(args, "pages", 2000);
+        String symbol = option(args, "symbol", "AAPL");
+        String pagePath = option(args, "page", "");
+
+        String html = pagePath.isEmpty()
+            ? listingPage(articles, matchEvery, symbol)
+            : Files.readString(Path.of(pagePath), StandardCharsets.UTF_8);
+        System.out.printf("page: %,d bytes, symbol %s, maxArticles %d%n",
+            html.getBytes(StandardCharsets.UTF_8).length, symbol, maxArticles);
+
+        ArticleBatch fromDocument = ArticleExtractor.extract(Jsoup.parse(html, SOURCE), SOURCE, symbol, maxArticles);
+        ArticleBatch fromStream = stream(html, symbol, maxArticles);
+        if (!sameArticles(fromDocument, fromStream)) {
+            throw new IllegalStateException("document and streaming extraction disagree: "
+                + fromDocument.size() + " vs " + fromStream.size() + " articles");
+        }
+        System.out.printf("both modes extract %d articles%n", fromStream.size());
+
+        for (int round = 0; round < 2; round++) {
+            String label = round == 0 ? "warmup" : "measured";
+            Result document = run(pages, () -> ArticleExtractor.extract(Jsoup.parse(html, SOURCE), SOURCE, symbol, maxArticles));
+            Result streaming = run(pages, () -> stream(html, symbol, maxArticles));
+            System.out.printf("%-8s document:  %,.0f pages/s, %,d bytes allocated/page%n", label, document.rate(), document.bytesPerPage());
+            System.out.printf("%-8s streaming: %,.0f pages/s, %,d bytes allocated/page%n", label, streaming.rate(), streaming.bytesPerPage());
+        }
+    }
+
+    private interface Extraction {
+        ArticleBatch run() throws IOException;
+    }
+
+    private record Result(double rate, long bytesPerPage) {}
+
+    private static Result run(int pages, Extraction extraction) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long extracted = 0;
+        long start = System.nanoTime();
+        for (int p = 0; p < pages; p++) {
+            extracted += extraction.run().size();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        extractedTotal += extracted;
+        return new Result(pages / seconds, allocated / Math.max(1, pages));
+    }
+
+    private static ArticleBatch stream(String html, String symbol, int maxArticles) throws IOException {
+        StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, SOURCE);
+        return ArticleExtractor.extractStreaming(streamer, SOURCE, symbol, maxArticles);
+    }
+
+    private static boolean sameArticles(ArticleBatch a, ArticleBatch b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.title(i).equals(b.title(i)) || !a.content(i).equals(b.content(i)) || !a.url(i).equals(b.url(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The recorded listing with the recorded article repeated, about other tickers except one in matchEvery
+    private static String listingPage(int articles, int matchEvery, String symbol) {
+        String page = StubServer.resource("/recordings/news-page.html");
+        String article = StubServer.resource("/recordings/news-article.html");
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < articles; i++) {
+            String ticker = i % Math.max(1, matchEvery) == 0 ? symbol : "OTHER" + i;
+            body.append(article.replace("{{SYMBOL}}", ticker));
+        }
+        return page.replace("{{ARTICLES}}", body).replace("{{SOURCE}}", "benchmark");
+    }
+
+    private static String option(String[] args, String key, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + key + "=")) {
+                return arg.substring(key.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static int intOption(String[] args, String key, int defaultValue) {
+        return Integer.parseInt(option(args, key, String.valueOf(defaultValue)));
+    }
+}
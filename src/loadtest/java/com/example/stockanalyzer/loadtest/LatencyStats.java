@@ -0,0 +1,62 @@
+package com.example.stockanalyzer.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies of one scenario. Requests are timed from their scheduled start rather than the moment
+ * they were sent, so a stalled server shows up as queueing delay instead of fewer samples.
+ */
+public class LatencyStats {
+
+    private final String name;
+    private long[] latenciesNanos = new long[1024];
+    private int count;
+    private long errors;
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+    private long elapsedNanos;
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long latencyNanos, int status) {
+        if (count == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, count * 2);
+        }
+        latenciesNanos[count++] = latencyNanos;
+        statuses.merge(status, 1L, Long::sum);
+        if (status == 0 || status >= 400) {
+            errors++;
+        }
+    }
+
+    public synchronized void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+        Arrays.sort(latenciesNanos, 0, count);
+    }
+
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return latenciesNanos[Math.max(0, Math.min(count - 1, index))] / 1e6;
+    }
+
+    public synchronized double throughput() {
+        return elapsedNanos > 0 ? (count - errors) / (elapsedNanos / 1e9) : 0;
+    }
+
+    public static String header() {
+        return String.format("%-12s %9s %8s %10s %9s %9s %9s %9s %9s  %s",
+            "scenario", "requests", "errors", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+    }
+
+    public synchronized String row() {
+        return String.format("%-12s %9d %8d %10.1f %9.1f %9.1f %9.1f %9.1f %9.1f  %s",
+            name, count, errors, throughput(), percentileMillis(50), percentileMillis(90),
+            percentileMillis(99), percentileMillis(99.9), percentileMillis(100), statuses);
+    }
+}
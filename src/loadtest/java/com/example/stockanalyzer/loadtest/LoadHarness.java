@@ -0,0 +1,242 @@
+package com.example.stockanalyzer.loadtest;
+
+import com.example.stockanalyzer.StockAnalyzerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Offline load harness. Starts stub Yahoo, news and Ollama servers, boots the application against
+ * them (or targets a running instance with {@code --target=http://host:port}), drives the REST
+ * endpoints open-loop at fixed request rates and runs the nightly pipeline end to end, then prints
+ * latency percentiles and throughput per scenario.
+ *
+ * Options ({@code --key=value}): rate, duration (seconds), warmup (seconds), scenarios
+ * (analyze,dashboard,bulk,nightly), symbols, bulkRate, bulkSize, nightlyTimeout (seconds), stub
+ * settings latencyMs, jitterMs, errorRate, tokensPerSecond (prefix with yahoo., news. or ollama.
+ * to set one stub), and app.* which is passed to the application as a property.
+ */
+public class LoadHarness {
+
+    private static final int NEWS_SOURCES = 5;
+    private static final Pattern JOB_STATUS = Pattern.compile("\"status\"\\s*:\\s*\"(\\w+)\"");
+    private static final Pattern JOB_ID = Pattern.compile("\"jobId\"\\s*:\\s*\"([^\"]+)\"");
+
+    private final Map<String, String> options;
+    private final HttpClient client = HttpClient.newBuilder()
+        .executor(Executors.newVirtualThreadPerTaskExecutor())
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private String target;
+
+    private LoadHarness(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = option.indexOf('=');
+            options.put(eq > 0 ? option.substring(0, eq) : option, eq > 0 ? option.substring(eq + 1) : "true");
+        }
+        int exitCode = new LoadHarness(options).run();
+        System.exit(exitCode);
+    }
+
+    private int run() throws Exception {
+        List<String> symbols = universe(intOption("symbols", 20));
+
+        StubServer yahoo = StubServer.yahoo(options);
+        StubServer news = StubServer.news(options, symbols, NEWS_SOURCES);
+        StubServer ollama = StubServer.ollama(options);
+        List<StubServer> stubs = List.of(yahoo, news, ollama);
+        stubs.forEach(StubServer::start);
+
+        ConfigurableApplicationContext app = null;
+        try {
+            target = options.get("target");
+            if (target == null) {
+                app = SpringApplication.run(StockAnalyzerApplication.class, appArguments(yahoo, news, ollama, symbols.size()));
+                target = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+            }
+            System.out.println("Target " + target + ", stubs: " +
+                stubs.stream().map(s -> s.getName() + "=" + s.baseUrl()).collect(Collectors.joining(", ")));
+
+            List<String> scenarios = Arrays.asList(options.getOrDefault("scenarios", "analyze,dashboard,bulk,nightly").split(","));
+            double rate = doubleOption("rate", 10);
+            int duration = intOption("duration", 30);
+            List<LatencyStats> results = new ArrayList<>();
+            List<String> notes = new ArrayList<>();
+
+            if (scenarios.contains("analyze")) {
+                AtomicInteger next = new AtomicInteger();
+                IntFunction<HttpRequest> analyze = i -> get("/analyze?symbol=" + symbols.get(next.getAndIncrement() % symbols.size()));
+                warmUp(analyze, rate);
+                results.add(drive("analyze", rate, duration, analyze));
+            }
+            if (scenarios.contains("dashboard")) {
+                IntFunction<HttpRequest> dashboard = i -> get("/api/automation/dashboard");
+                warmUp(dashboard, rate);
+                results.add(drive("dashboard", rate, duration, dashboard));
+            }
+            if (scenarios.contains("bulk")) {
+                int bulkSize = Math.min(intOption("bulkSize", 10), symbols.size());
+                String body = symbols.subList(0, bulkSize).stream()
+                    .map(s -> "\"" + s + "\"").collect(Collectors.joining(",", "[", "]"));
+                results.add(drive("bulk", doubleOption("bulkRate", 1), duration, i -> post("/analyze/bulk", body)));
+            }
+            if (scenarios.contains("nightly")) {
+                notes.add(runNightly(symbols.size()));
+            }
+
+            System.out.println();
+            System.out.println(LatencyStats.header());
+            results.forEach(r -> System.out.println(r.row()));
+            notes.forEach(System.out::println);
+            for (StubServer stub : stubs) {
+                System.out.printf("stub %-7s %8d requests, %d injected errors%n", stub.getName(), stub.getRequests(), stub.getInjectedErrors());
+            }
+            return 0;
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            stubs.forEach(StubServer::stop);
+        }
+    }
+
+    private String[] appArguments(StubServer yahoo, StubServer news, StubServer ollama, int symbols) throws IOException {
+        Path data = Files.createTempDirectory("stock-analyzer-loadtest");
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < NEWS_SOURCES; i++) {
+            sources.add(news.baseUrl() + "/source/" + i + "/");
+        }
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--marketdata.baseUrl=" + yahoo.baseUrl(),
+            "--ollama.baseUrl=" + ollama.baseUrl(),
+            "--news.sources=" + String.join(",", sources),
+            "--news.seenFilter.path=" + data.resolve("seen-articles.bloom"),
+            "--automation.maxSymbolsPerRun=" + symbols,
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN"
+        ));
+        options.forEach((key, value) -> {
+            if (key.startsWith("app.")) {
+                args.add("--" + key.substring(4) + "=" + value);
+            }
+        });
+        return args.toArray(new String[0]);
+    }
+
+    // First symbols of the bundled symbol master, the same universe the nightly run uses
+    private static List<String> universe(int limit) {
+        return StubServer.resource("/symbols.csv").lines()
+            .skip(1)
+            .map(line -> line.split(",", 2)[0].trim())
+            .filter(s -> !s.isEmpty())
+            .limit(Math.max(1, limit))
+            .collect(Collectors.toList());
+    }
+
+    private void warmUp(IntFunction<HttpRequest> requests, double rate) {
+        int seconds = intOption("warmup", 5);
+        if (seconds > 0) {
+            drive("warmup", rate, seconds, requests);
+        }
+    }
+
+    /** Sends requests on a fixed schedule regardless of how quickly earlier ones complete. */
+    private LatencyStats drive(String name, double rate, int seconds, IntFunction<HttpRequest> requests) {
+        LatencyStats stats = new LatencyStats(name);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        int total = (int) Math.max(1, rate * seconds);
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait;
+            while ((wait = scheduled - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) ->
+                    stats.record(System.nanoTime() - scheduled, error == null ? response.statusCode() : 0)));
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0]))
+            .exceptionally(e -> null)
+            .join();
+        stats.finish(System.nanoTime() - start);
+        return stats;
+    }
+
+    /** Triggers a manual run and polls its job until it completes. */
+    private String runNightly(int symbols) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> triggered = client.send(post("/api/automation/trigger-analysis", ""), HttpResponse.BodyHandlers.ofString());
+        Matcher id = JOB_ID.matcher(triggered.body());
+        if (!id.find()) {
+            return "nightly      trigger failed: HTTP " + triggered.statusCode() + " " + triggered.body();
+        }
+        String jobId = id.group(1);
+
+        long deadline = started + TimeUnit.SECONDS.toNanos(intOption("nightlyTimeout", 600));
+        String status = "UNKNOWN";
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> job = client.send(get("/api/automation/jobs/" + jobId), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = JOB_STATUS.matcher(job.body());
+            status = matcher.find() ? matcher.group(1) : "UNKNOWN";
+            if ("COMPLETED".equals(status)) {
+                break;
+            }
+            Thread.sleep(250);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return String.format("nightly      job %s %s: %d symbols in %.1fs (%.2f symbols/s)",
+            jobId, status, symbols, seconds, symbols / seconds);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(target + path)).timeout(Duration.ofSeconds(120)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+            .timeout(Duration.ofSeconds(900))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private int intOption(String key, int defaultValue) {
+        return options.containsKey(key) ? Integer.parseInt(options.get(key)) : defaultValue;
+    }
+
+    private double doubleOption(String key, double defaultValue) {
+        return options.containsKey(key) ? Double.parseDouble(options.get(key)) : defaultValue;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.stockanalyzer.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local stand-in for one upstream (Yahoo chart API, a news listing site or Ollama). Replays recorded
+ * responses from {@code recordings/} with a configurable latency, jitter and error rate; the Ollama
+ * stub additionally holds each reply for as long as generating its tokens would take.
+ */
+public class StubServer {
+
+    private final String name;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final double tokensPerSecond;
+    private final HttpServer server;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+
+    private StubServer(String name, Map<String, String> options) throws IOException {
+        this.name = name;
+        this.latencyMs = Long.parseLong(option(options, name, "latencyMs", "50"));
+        this.jitterMs = Long.parseLong(option(options, name, "jitterMs", "25"));
+        this.errorRate = Double.parseDouble(option(options, name, "errorRate", "0"));
+        this.tokensPerSecond = Double.parseDouble(option(options, name, "tokensPerSecond", "40"));
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // Per-stub setting ("news.latencyMs") falling back to the shared one ("latencyMs")
+    private static String option(Map<String, String> options, String name, String key, String defaultValue) {
+        return options.getOrDefault(name + "." + key, options.getOrDefault(key, defaultValue));
+    }
+
+    /** Serves the recorded chart JSON for any {@code /v8/finance/chart/{symbol}}. */
+    public static StubServer yahoo(Map<String, String> options) throws IOException {
+        StubServer stub = new StubServer("yahoo", options);
+        String chart = recording("yahoo-chart.json");
+        stub.handle("/v8/finance/chart/", path -> {
+            String symbol = path.substring("/v8/finance/chart/".length());
+            return chart.replace("{{SYMBOL}}", symbol);
+        }, "application/json", 0);
+        return stub;
+    }
+
+    /**
+     * Serves {@code sources} listing pages at {@code /source/{n}/}, each holding one recorded article
+     * per symbol so relevance filtering finds news for every symbol under test.
+     */
+    public static StubServer news(Map<String, String> options, List<String> symbols, int sources) throws IOException {
+        StubServer stub = new StubServer("news", options);
+        String page = recording("news-page.html");
+        String article = recording("news-article.html");
+        StringBuilder articles = new StringBuilder();
+        for (String symbol : symbols) {
+            articles.append(article.replace("{{SYMBOL}}", symbol));
+        }
+        String body = page.replace("{{ARTICLES}}", articles);
+        for (int i = 0; i < sources; i++) {
+            String source = "source " + i;
+            stub.handle("/source/" + i + "/", path -> body.replace("{{SOURCE}}", source), "text/html", 0);
+        }
+        return stub;
+    }
+
+    /** Answers {@code /api/generate} with the recorded completion at the configured token rate. */
+    public static StubServer ollama(Map<String, String> options) throws IOException {
+        StubServer stub = new StubServer("ollama", options);
+        String completion = recording("ollama-response.txt").trim();
+        // Roughly four characters per token, as for English text
+        int tokens = Math.max(1, completion.length() / 4);
+        String json = "{\"model\":\"stub\",\"response\":" + jsonString(completion) +
+                      ",\"done\":true,\"eval_count\":" + tokens + "}";
+        stub.handle("/api/generate", path -> json, "application/json", tokens);
+        return stub;
+    }
+
+    private void handle(String context, Function<String, String> responder, String contentType, int tokens) {
+        server.createContext(context, exchange -> {
+            try (exchange) {
+                requests.incrementAndGet();
+                drain(exchange);
+                long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+                if (tokens > 0 && tokensPerSecond > 0) {
+                    delay += (long) (tokens * 1000 / tokensPerSecond);
+                }
+                sleep(delay);
+                if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    injectedErrors.incrementAndGet();
+                    respond(exchange, 503, "text/plain", "injected failure");
+                    return;
+                }
+                respond(exchange, 200, contentType, responder.apply(exchange.getRequestURI().getPath()));
+            }
+        });
+    }
+
+    private static void drain(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String recording(String file) {
+        return resource("/recordings/" + file);
+    }
+
+    static String resource(String path) {
+        try (InputStream in = StubServer.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing classpath resource " + path);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public String getName() { return name; }
+
+    public long getRequests() { return requests.get(); }
+
+    public long getInjectedErrors() { return injectedErrors.get(); }
+}
@@ -0,0 +1,43 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.model.PriceAlert;
+import com.example.stockanalyzer.service.PriceAlertService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+    
+    @Autowired
+    private PriceAlertService priceAlertService;
+    
+    @GetMapping
+    public ResponseEntity<List<PriceAlert>> getAlerts(@RequestParam(required = false) String symbol) {
+        return ResponseEntity.ok(priceAlertService.getRecentAlerts(symbol != null ? symbol.toUpperCase() : null));
+    }
+    
+    @GetMapping("/stream")
+    public SseEmitter stream() {
+        return priceAlertService.subscribe();
+    }
+    
+    // Pushes externally sourced quotes through the engine, e.g. from a streaming feed
+    @PostMapping("/quotes")
+    public ResponseEntity<Map<String, Object>> onQuotes(@RequestBody Map<String, Double> prices) {
+        Map<String, Double> normalized = new LinkedHashMap<>();
+        prices.forEach((symbol, price) -> normalized.put(symbol.toUpperCase(), price));
+        Map<String, Object> response = new HashMap<>();
+        response.put("quotes", normalized.size());
+        response.put("alerts", priceAlertService.onPrices(normalized));
+        response.put("watchedLevels", priceAlertService.getWatchedLevels());
+        return ResponseEntity.ok(response);
+    }
+}
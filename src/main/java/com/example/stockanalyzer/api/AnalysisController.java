@@ -1,24 +1,94 @@
 package com.example.stockanalyzer.api;
 
 import com.example.stockanalyzer.core.AnalysisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 public class AnalysisController {
 
     private final AnalysisService analysisService;
+    private final ObjectMapper objectMapper;
 
-    public AnalysisController(AnalysisService analysisService) {
+    @Value("${analysis.bulk.maxSymbols:500}")
+    private int bulkMaxSymbols;
+
+    // Added to the worst case of a bulk request for the response to be flushed and completed
+    @Value("${analysis.bulk.timeoutMarginMs:60000}")
+    private long bulkTimeoutMarginMs;
+
+    public AnalysisController(AnalysisService analysisService, ObjectMapper objectMapper) {
         this.analysisService = analysisService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/analyze")
-    public ResponseEntity<Map<String, Object>> analyze(@RequestParam String symbol) {
-        return ResponseEntity.ok(analysisService.analyzeSymbol(symbol));
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> analyze(@RequestParam String symbol) {
+        return analysisService.analyzeSymbolAsync(symbol)
+            .thenApply(ResponseEntity::ok)
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                Map<String, Object> error = new HashMap<>();
+                error.put("symbol", symbol);
+                if (cause instanceof TimeoutException) {
+                    error.put("error", AnalysisService.DEADLINE_EXCEEDED);
+                    return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+                }
+                error.put("error", "Analysis failed: " + cause.getMessage());
+                return ResponseEntity.internalServerError().body(error);
+            });
+    }
+
+    /**
+     * Accepts a JSON array of symbols and streams one JSON object per line as each symbol finishes,
+     * in completion order. Symbols that fail carry an {@code error} field instead of an analysis.
+     */
+    @PostMapping(value = "/analyze/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> analyzeBulk(@RequestBody List<String> symbols) {
+        List<String> normalized = symbols.stream()
+            .filter(symbol -> symbol != null && !symbol.isBlank())
+            .map(symbol -> symbol.trim().toUpperCase())
+            .distinct()
+            .toList();
+        if (normalized.size() > bulkMaxSymbols) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(analysisService.bulkWorstCaseMs(normalized.size()) + bulkTimeoutMarginMs);
+        AtomicBoolean aborted = new AtomicBoolean();
+        emitter.onTimeout(() -> aborted.set(true));
+        emitter.onError(e -> aborted.set(true));
+
+        analysisService.analyzeBulk(normalized, result -> {
+            if (aborted.get()) {
+                return;
+            }
+            try {
+                emitter.send(objectMapper.writeValueAsString(result) + "\n", MediaType.APPLICATION_NDJSON);
+            } catch (IOException e) {
+                // Client went away; stop starting new symbols
+                aborted.set(true);
+            }
+        }, aborted::get).whenComplete((ignored, error) -> emitter.complete());
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
     }
 }
@@ -1,11 +1,26 @@
 package com.example.stockanalyzer.api;
 
+import com.example.stockanalyzer.core.MarketDataClient;
+import com.example.stockanalyzer.model.AnalysisRun;
+import com.example.stockanalyzer.model.RecommendationRollup;
 import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.service.AnalysisRunService;
+import com.example.stockanalyzer.service.AnalysisShardCoordinator;
 import com.example.stockanalyzer.service.AutomationService;
+import com.example.stockanalyzer.service.IntradayRescoringService;
+import com.example.stockanalyzer.service.NewsScrapingService;
+import com.example.stockanalyzer.service.RecommendationRollupService;
+import com.example.stockanalyzer.service.RecommendationWriteBehind;
+import com.example.stockanalyzer.service.RiskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,40 +35,132 @@ public class AutomationController {
     @Autowired
     private AutomationService automationService;
     
+    @Autowired
+    private NewsScrapingService newsScrapingService;
+    
+    @Autowired
+    private AnalysisShardCoordinator shardCoordinator;
+    
+    @Autowired
+    private AnalysisRunService analysisRunService;
+    
+    @Autowired
+    private RiskService riskService;
+    
+    @Autowired
+    private RecommendationRollupService rollupService;
+    
+    @Autowired
+    private IntradayRescoringService intradayRescoringService;
+    
+    @Autowired
+    private RecommendationWriteBehind recommendationWriteBehind;
+    
+    @Autowired
+    private MarketDataClient marketDataClient;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // ?fields=symbol,currentPrice,recommendation limits the output; ?format=columns writes one array per field
     @GetMapping("/recommendations")
-    public ResponseEntity<List<StockRecommendation>> getLatestRecommendations() {
+    public ResponseEntity<StreamingResponseBody> getLatestRecommendations(@RequestParam(required = false) String fields,
+                                                                          @RequestParam(defaultValue = "rows") String format) {
         try {
-            List<StockRecommendation> recommendations = automationService.getLatestRecommendations();
-            return ResponseEntity.ok(recommendations);
+            return recommendationsResponse(automationService.getLatestRecommendations(), fields, format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
     
     @GetMapping("/recommendations/{symbol}")
-    public ResponseEntity<List<StockRecommendation>> getRecommendationsBySymbol(@PathVariable String symbol) {
+    public ResponseEntity<StreamingResponseBody> getRecommendationsBySymbol(@PathVariable String symbol,
+                                                                            @RequestParam(defaultValue = "false") boolean full,
+                                                                            @RequestParam(required = false) String fields,
+                                                                            @RequestParam(defaultValue = "rows") String format) {
         try {
-            List<StockRecommendation> recommendations = automationService.getRecommendationsBySymbol(symbol.toUpperCase());
-            return ResponseEntity.ok(recommendations);
+            List<StockRecommendation> recommendations = full ?
+                automationService.getFullHistory(symbol.toUpperCase()) :
+                automationService.getRecommendationsBySymbol(symbol.toUpperCase());
+            return recommendationsResponse(recommendations, fields, format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
     
+    // Fields and format are checked before anything is written, so a bad parameter is still a clean 400
+    private ResponseEntity<StreamingResponseBody> recommendationsResponse(List<StockRecommendation> recommendations,
+                                                                          String fields, String format) {
+        List<String> selected = RecommendationJson.parseFields(fields);
+        RecommendationJson.Format parsedFormat = RecommendationJson.parseFormat(format);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> RecommendationJson.write(objectMapper.getFactory(), out, recommendations, selected, parsedFormat));
+    }
+    
+    @GetMapping("/recommendations/{symbol}/latest")
+    public ResponseEntity<StockRecommendation> getLatestRecommendation(@PathVariable String symbol) {
+        try {
+            StockRecommendation recommendation = automationService.getLatestRecommendation(symbol.toUpperCase());
+            return recommendation != null ? ResponseEntity.ok(recommendation) : ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    // Rollups of closed days; the current day appears once the retention job has run after midnight
+    @GetMapping("/history")
+    public ResponseEntity<List<Map<String, Object>>> getHistory(
+            @RequestParam(defaultValue = "WEEKLY") RecommendationRollup.Period period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
+        try {
+            return ResponseEntity.ok(rollupService.getHistory(period, from != null ? from : defaultHistoryStart(period)));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    @GetMapping("/history/{symbol}")
+    public ResponseEntity<List<RecommendationRollup>> getSymbolHistory(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "WEEKLY") RecommendationRollup.Period period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from) {
+        try {
+            return ResponseEntity.ok(rollupService.getSymbolHistory(symbol.toUpperCase(), period,
+                from != null ? from : defaultHistoryStart(period)));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    private static LocalDate defaultHistoryStart(RecommendationRollup.Period period) {
+        return period == RecommendationRollup.Period.DAILY ? LocalDate.now().minusDays(90) : LocalDate.now().minusWeeks(52);
+    }
+    
     @PostMapping("/trigger-analysis")
-    public ResponseEntity<Map<String, String>> triggerManualAnalysis() {
+    public ResponseEntity<Map<String, Object>> triggerManualAnalysis() {
         try {
-            automationService.triggerManualAnalysis();
+            AnalysisShardCoordinator.RunTicket ticket = shardCoordinator.triggerManualRun();
             
-            Map<String, String> response = new HashMap<>();
+            Map<String, Object> response = new HashMap<>();
             response.put("status", "success");
-            response.put("message", "Manual analysis triggered successfully");
+            response.put("message", ticket.attached() ?
+                "Analysis already in progress" :
+                "Manual analysis triggered successfully");
+            response.put("jobId", ticket.runId());
+            response.put("attached", ticket.attached());
+            response.put("statusUrl", "/api/automation/jobs/" + ticket.runId());
             response.put("timestamp", java.time.LocalDateTime.now().toString());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.accepted().body(response);
         } catch (Exception e) {
+            log.warning("Failed to trigger analysis: " + e.getMessage());
             
-            Map<String, String> response = new HashMap<>();
+            Map<String, Object> response = new HashMap<>();
             response.put("status", "error");
             response.put("message", "Failed to trigger analysis: " + e.getMessage());
             
@@ -61,6 +168,64 @@ public class AutomationController {
         }
     }
     
+    @GetMapping("/jobs")
+    public ResponseEntity<List<Map<String, Object>>> getJobs() {
+        List<Map<String, Object>> jobs = analysisRunService.findRecentRuns().stream()
+            .map(this::jobSummary)
+            .collect(java.util.stream.Collectors.toList());
+        return ResponseEntity.ok(jobs);
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
+        AnalysisRun run = analysisRunService.findRun(jobId).orElse(null);
+        if (run == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Map<String, Object> job = jobSummary(run);
+        Map<String, Long> progress = analysisRunService.getProgress(jobId);
+        long done = progress.getOrDefault("PERSISTED", 0L) + progress.getOrDefault("FAILED", 0L);
+        job.put("progress", progress);
+        job.put("processedSymbols", done);
+        
+        List<Map<String, Object>> shards = shardCoordinator.getShards(jobId).stream()
+            .map(shard -> {
+                Map<String, Object> shardData = new HashMap<>();
+                shardData.put("index", shard.getShardIndex());
+                shardData.put("status", shard.getStatus());
+                shardData.put("owner", shard.getOwner());
+                shardData.put("attempts", shard.getAttempts());
+                return shardData;
+            })
+            .collect(java.util.stream.Collectors.toList());
+        job.put("shards", shards);
+        
+        // Runs are worked one at a time, so anything behind the oldest active run is queued
+        List<AnalysisRun> active = analysisRunService.findActiveRuns();
+        if (run.getStatus() == AnalysisRun.RunStatus.RUNNING) {
+            job.put("queuePosition", active.stream().map(AnalysisRun::getId).toList().indexOf(jobId));
+        }
+        
+        return ResponseEntity.ok(job);
+    }
+    
+    private Map<String, Object> jobSummary(AnalysisRun run) {
+        Map<String, Object> job = new HashMap<>();
+        job.put("jobId", run.getId());
+        job.put("trigger", run.getTriggeredBy());
+        job.put("status", run.getStatus());
+        job.put("totalSymbols", run.getTotalSymbols());
+        job.put("startedAt", run.getStartedAt());
+        job.put("finishedAt", run.getFinishedAt());
+        return job;
+    }
+    
+    @GetMapping("/intraday")
+    public ResponseEntity<Map<String, Object>> getIntradayStatus() {
+        return ResponseEntity.ok(intradayRescoringService.getStatus());
+    }
+    
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getAutomationStatus() {
         try {
@@ -81,6 +246,9 @@ public class AutomationController {
                     java.util.stream.Collectors.counting()
                 ));
             status.put("recommendationBreakdown", recommendationCounts);
+            status.put("newsSourceBreakers", newsScrapingService.getCircuitBreakerStates());
+            status.put("recommendationWriter", recommendationWriteBehind.getStats());
+            status.put("marketDataCache", marketDataClient.getCacheStats());
             
             return ResponseEntity.ok(status);
         } catch (Exception e) {
@@ -129,6 +297,9 @@ public class AutomationController {
                     java.util.stream.Collectors.counting()
                 ));
             dashboard.put("riskDistribution", riskDistribution);
+            dashboard.put("portfolioRisk", riskService.portfolioRisk(recommendations));
+            dashboard.put("recommendationTrend",
+                rollupService.getHistory(RecommendationRollup.Period.WEEKLY, LocalDate.now().minusWeeks(12)));
             
             return ResponseEntity.ok(dashboard);
         } catch (Exception e) {
@@ -0,0 +1,41 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.model.BacktestReport;
+import com.example.stockanalyzer.service.BacktestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.logging.Logger;
+
+@RestController
+@RequestMapping("/api/backtest")
+public class BacktestController {
+    
+    private static final Logger log = Logger.getLogger(BacktestController.class.getName());
+    
+    @Autowired
+    private BacktestService backtestService;
+    
+    @GetMapping
+    public ResponseEntity<BacktestReport> backtest(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Double targetPct,
+            @RequestParam(required = false) Double stopPct,
+            @RequestParam(required = false) Integer maxHoldingBars) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusYears(10);
+        if (!start.isBefore(end) || (targetPct != null && targetPct <= 0) || (stopPct != null && stopPct <= 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(backtestService.run(start, end, targetPct, stopPct, maxHoldingBars));
+        } catch (Exception e) {
+            log.warning("Backtest failed: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
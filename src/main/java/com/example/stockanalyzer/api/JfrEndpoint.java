@@ -0,0 +1,81 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.service.ProfilingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/jfr}: start a Flight Recorder recording of an analysis run or a time window,
+ * list recordings, stop one, read its summary or download the {@code .jfr} file.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    @Autowired
+    private ProfilingService profilingService;
+
+    @ReadOperation
+    public List<Map<String, Object>> recordings() {
+        return profilingService.list().stream().map(profilingService::describe).toList();
+    }
+
+    // POST with {"seconds": 300} for a window, otherwise a run: {"runId": "..."}, {"trigger": true} or {}
+    @WriteOperation
+    public WebEndpointResponse<Map<String, Object>> start(@Nullable String runId, @Nullable Boolean trigger,
+                                                          @Nullable Integer seconds) throws IOException, ParseException {
+        try {
+            ProfilingService.Profile profile = seconds != null
+                ? profilingService.startWindow(Duration.ofSeconds(seconds))
+                : profilingService.startForRun(runId, Boolean.TRUE.equals(trigger));
+            return new WebEndpointResponse<>(profilingService.describe(profile));
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> summary(@Selector long id) {
+        return profilingService.get(id)
+            .map(profile -> {
+                try {
+                    return new WebEndpointResponse<>(profilingService.summarize(profile));
+                } catch (IOException e) {
+                    return new WebEndpointResponse<Map<String, Object>>(Map.of("error", e.getMessage()), WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+                }
+            })
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+
+    // GET /actuator/jfr/{id}/analysis-{id}.jfr
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> download(@Selector long id, @Selector String file) throws IOException {
+        ProfilingService.Profile profile = profilingService.get(id).orElse(null);
+        if (profile == null || !profile.getFileName().equals(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(profilingService.file(profile)));
+    }
+
+    @DeleteOperation
+    public WebEndpointResponse<Map<String, Object>> stop(@Selector long id) {
+        return profilingService.stop(id)
+            .map(profile -> new WebEndpointResponse<>(profilingService.describe(profile)))
+            .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes recommendation lists straight to the response through a streaming generator, limited to
+ * the requested fields. {@code rows} is the usual array of objects; {@code columns} writes one
+ * array per field, so field names appear once instead of once per recommendation. Values are
+ * written the way the entity serializes them.
+ */
+public final class RecommendationJson {
+
+    public enum Format {
+        ROWS, COLUMNS
+    }
+
+    private static final Map<String, Function<StockRecommendation, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("id", StockRecommendation::getId);
+        FIELDS.put("symbol", StockRecommendation::getSymbol);
+        FIELDS.put("companyName", StockRecommendation::getCompanyName);
+        FIELDS.put("currentPrice", StockRecommendation::getCurrentPrice);
+        FIELDS.put("previousClose", StockRecommendation::getPreviousClose);
+        FIELDS.put("recommendation", StockRecommendation::getRecommendation);
+        FIELDS.put("reasoning", StockRecommendation::getReasoning);
+        FIELDS.put("targetPrice", StockRecommendation::getTargetPrice);
+        FIELDS.put("stopLoss", StockRecommendation::getStopLoss);
+        FIELDS.put("riskLevel", StockRecommendation::getRiskLevel);
+        FIELDS.put("keyKeywords", StockRecommendation::getKeyKeywords);
+        FIELDS.put("newsSources", StockRecommendation::getNewsSources);
+        FIELDS.put("generatedAt", StockRecommendation::getGeneratedAt);
+        FIELDS.put("analysisDate", StockRecommendation::getAnalysisDate);
+        FIELDS.put("runId", StockRecommendation::getRunId);
+    }
+
+    private RecommendationJson() {}
+
+    /** The fields named in a comma-separated list, in the order given; all fields for null or blank. */
+    public static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return new ArrayList<>(FIELDS.keySet());
+        }
+        List<String> selected = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty() || selected.contains(name)) {
+                continue;
+            }
+            if (!FIELDS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'; known fields are " + FIELDS.keySet());
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    public static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format '" + format + "'; use one of " + Arrays.toString(Format.values()));
+        }
+    }
+
+    public static void write(JsonFactory factory, OutputStream out, List<StockRecommendation> recommendations,
+                             List<String> fields, Format format) throws IOException {
+        List<Function<StockRecommendation, Object>> getters = fields.stream().map(FIELDS::get).toList();
+        try (JsonGenerator generator = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            // The response stream belongs to the container
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (format == Format.COLUMNS) {
+                generator.writeStartObject();
+                generator.writeNumberField("count", recommendations.size());
+                generator.writeObjectFieldStart("columns");
+                for (int f = 0; f < fields.size(); f++) {
+                    generator.writeArrayFieldStart(fields.get(f));
+                    for (StockRecommendation recommendation : recommendations) {
+                        writeValue(generator, getters.get(f).apply(recommendation));
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            } else {
+                generator.writeStartArray();
+                for (StockRecommendation recommendation : recommendations) {
+                    generator.writeStartObject();
+                    for (int f = 0; f < fields.size(); f++) {
+                        generator.writeFieldName(fields.get(f));
+                        writeValue(generator, getters.get(f).apply(recommendation));
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String text) {
+            generator.writeString(text);
+        } else if (value instanceof Double number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Enum<?> constant) {
+            generator.writeString(constant.name());
+        } else if (value instanceof LocalDateTime time) {
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time));
+        } else if (value instanceof List<?> list) {
+            generator.writeStartArray();
+            for (Object item : list) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
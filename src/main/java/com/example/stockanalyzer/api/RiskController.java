@@ -0,0 +1,55 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.model.PortfolioRisk;
+import com.example.stockanalyzer.service.AutomationService;
+import com.example.stockanalyzer.service.RiskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/risk")
+public class RiskController {
+    
+    private static final int MAX_MATRIX_SYMBOLS = 200;
+    
+    @Autowired
+    private RiskService riskService;
+    
+    @Autowired
+    private AutomationService automationService;
+    
+    @GetMapping("/portfolio")
+    public ResponseEntity<PortfolioRisk> getPortfolioRisk(@RequestParam(required = false) String runId) {
+        PortfolioRisk risk = runId != null ?
+            riskService.portfolioRiskForRun(runId) :
+            riskService.portfolioRisk(automationService.getLatestRecommendations());
+        return ResponseEntity.ok(risk);
+    }
+    
+    @GetMapping("/correlation")
+    public ResponseEntity<Map<String, Object>> getCorrelation(@RequestParam String symbols) {
+        List<String> requested = Arrays.stream(symbols.split(","))
+            .map(s -> s.trim().toUpperCase())
+            .filter(s -> !s.isEmpty())
+            .distinct()
+            .toList();
+        if (requested.isEmpty() || requested.size() > MAX_MATRIX_SYMBOLS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(riskService.correlationMatrix(requested));
+    }
+    
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionsAdded", riskService.refresh());
+        response.put("timestamp", java.time.LocalDateTime.now().toString());
+        return ResponseEntity.ok(response);
+    }
+}
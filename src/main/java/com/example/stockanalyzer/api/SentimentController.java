@@ -0,0 +1,32 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.model.SentimentPoint;
+import com.example.stockanalyzer.service.SymbolSentimentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/sentiment")
+public class SentimentController {
+    
+    @Autowired
+    private SymbolSentimentService symbolSentimentService;
+    
+    @GetMapping("/{symbol}")
+    public ResponseEntity<Map<String, Object>> getSentiment(@PathVariable String symbol) {
+        Map<String, Object> sentiment = symbolSentimentService.describe(symbol.toUpperCase());
+        return sentiment != null ? ResponseEntity.ok(sentiment) : ResponseEntity.notFound().build();
+    }
+    
+    // One point per day with ingested news, oldest first
+    @GetMapping("/{symbol}/history")
+    public ResponseEntity<List<SentimentPoint>> getHistory(@PathVariable String symbol,
+                                                           @RequestParam(defaultValue = "30") int days) {
+        return ResponseEntity.ok(symbolSentimentService.getHistory(symbol.toUpperCase(), LocalDate.now().minusDays(days)));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.stockanalyzer.api;
+
+import com.example.stockanalyzer.model.SymbolListing;
+import com.example.stockanalyzer.service.SymbolMasterService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/symbols")
+public class SymbolController {
+    
+    @Autowired
+    private SymbolMasterService symbolMasterService;
+    
+    @GetMapping("/{symbol}")
+    public ResponseEntity<SymbolListing> getSymbol(@PathVariable String symbol) {
+        SymbolListing listing = symbolMasterService.findBySymbol(symbol);
+        return listing != null ? ResponseEntity.ok(listing) : ResponseEntity.notFound().build();
+    }
+    
+    @GetMapping
+    public ResponseEntity<List<SymbolListing>> search(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(symbolMasterService.getIndex().search(q, Math.max(1, Math.min(limit, 100))));
+    }
+    
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("listings", symbolMasterService.reload());
+        response.put("timestamp", java.time.LocalDateTime.now().toString());
+        return ResponseEntity.ok(response);
+    }
+}
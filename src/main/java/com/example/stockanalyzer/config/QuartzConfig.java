@@ -0,0 +1,64 @@
+package com.example.stockanalyzer.config;
+
+import com.example.stockanalyzer.service.DailyAnalysisJob;
+import com.example.stockanalyzer.service.RecommendationRetentionJob;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.TimeZone;
+
+@Configuration
+public class QuartzConfig {
+
+    @Bean
+    public JobDetail dailyAnalysisJobDetail() {
+        return JobBuilder.newJob(DailyAnalysisJob.class)
+                .withIdentity("dailyAnalysis")
+                .withDescription("Plans the nightly sharded analysis run")
+                .storeDurably()
+                .build();
+    }
+
+    // Run daily at 9 PM EST; a run missed while the cluster was down fires on startup
+    @Bean
+    public Trigger dailyAnalysisTrigger(JobDetail dailyAnalysisJobDetail,
+                                        @Value("${automation.cron:0 0 21 * * ?}") String cron,
+                                        @Value("${automation.zone:America/New_York}") String zone) {
+        return TriggerBuilder.newTrigger()
+                .forJob(dailyAnalysisJobDetail)
+                .withIdentity("dailyAnalysisTrigger")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron)
+                        .inTimeZone(TimeZone.getTimeZone(zone))
+                        .withMisfireHandlingInstructionFireAndProceed())
+                .build();
+    }
+
+    @Bean
+    public JobDetail recommendationRetentionJobDetail() {
+        return JobBuilder.newJob(RecommendationRetentionJob.class)
+                .withIdentity("recommendationRetention")
+                .withDescription("Rolls up and prunes recommendation history")
+                .storeDurably()
+                .build();
+    }
+
+    // Hourly by default, so a closed day shows up in the rollups soon after midnight
+    @Bean
+    public Trigger recommendationRetentionTrigger(JobDetail recommendationRetentionJobDetail,
+                                                  @Value("${retention.cron:0 15 * * * ?}") String cron,
+                                                  @Value("${automation.zone:America/New_York}") String zone) {
+        return TriggerBuilder.newTrigger()
+                .forJob(recommendationRetentionJobDetail)
+                .withIdentity("recommendationRetentionTrigger")
+                .withSchedule(CronScheduleBuilder.cronSchedule(cron)
+                        .inTimeZone(TimeZone.getTimeZone(zone))
+                        .withMisfireHandlingInstructionDoNothing())
+                .build();
+    }
+}
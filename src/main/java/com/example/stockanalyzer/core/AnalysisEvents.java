@@ -0,0 +1,122 @@
+package com.example.stockanalyzer.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Custom Flight Recorder events for the analysis paths. They cost next to nothing while no
+ * recording is running; {@code /actuator/jfr} starts one and summarizes them.
+ */
+public final class AnalysisEvents {
+
+    private AnalysisEvents() {}
+
+    public static final String STAGE = "stockanalyzer.Stage";
+    public static final String SOURCE_FETCH = "stockanalyzer.SourceFetch";
+    public static final String SLM_CALL = "stockanalyzer.SlmCall";
+    public static final String PERSIST_BATCH = "stockanalyzer.PersistBatch";
+
+    @Name(STAGE)
+    @Label("Analysis Stage")
+    @Description("One symbol going through one stage of an analysis run")
+    @Category({"Stock Analyzer", "Analysis"})
+    @StackTrace(false)
+    public static class StageEvent extends Event {
+        @Label("Run")
+        public String runId;
+
+        @Label("Symbol")
+        public String symbol;
+
+        @Label("Stage")
+        public String stage;
+
+        @Label("Error")
+        public String error;
+    }
+
+    @Name(SOURCE_FETCH)
+    @Label("News Source Fetch")
+    @Category({"Stock Analyzer", "Upstream"})
+    @StackTrace(false)
+    public static class SourceFetchEvent extends Event {
+        @Label("Source")
+        public String source;
+
+        @Label("Symbol")
+        public String symbol;
+
+        @Label("Articles")
+        public int articles;
+
+        @Label("Error")
+        public String error;
+    }
+
+    @Name(SLM_CALL)
+    @Label("SLM Call")
+    @Category({"Stock Analyzer", "Upstream"})
+    @StackTrace(false)
+    public static class SlmCallEvent extends Event {
+        @Label("Symbol")
+        public String symbol;
+
+        @Label("Model")
+        public String model;
+
+        @Label("Prompt Characters")
+        public int promptChars;
+
+        @Label("Response Characters")
+        public int responseChars;
+
+        @Label("Error")
+        public String error;
+    }
+
+    @Name(PERSIST_BATCH)
+    @Label("Persistence Batch")
+    @Description("One transaction writing recommendations or compacting their history")
+    @Category({"Stock Analyzer", "Database"})
+    @StackTrace(false)
+    public static class PersistBatchEvent extends Event {
+        @Label("Kind")
+        public String kind;
+
+        @Label("Rows")
+        public int rows;
+
+        @Label("Error")
+        public String error;
+    }
+
+    /** Runs one persistence batch inside a {@link PersistBatchEvent}; {@code batch} returns its row count. */
+    public static int persistBatch(String kind, IntSupplier batch) {
+        PersistBatchEvent event = new PersistBatchEvent();
+        event.begin();
+        try {
+            event.rows = batch.getAsInt();
+            return event.rows;
+        } catch (RuntimeException e) {
+            event.error = describe(e);
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.kind = kind;
+                event.commit();
+            }
+        }
+    }
+
+    // Keeps error strings in events short enough to read in a summary
+    public static String describe(Throwable error) {
+        String text = error.toString();
+        return text.length() <= 300 ? text : text.substring(0, 300);
+    }
+}
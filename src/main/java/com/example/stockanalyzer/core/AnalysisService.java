@@ -1,29 +1,171 @@
 package com.example.stockanalyzer.core;
 
+import com.example.stockanalyzer.model.NewsAnalysis;
+import com.example.stockanalyzer.service.NewsScrapingService;
+import com.example.stockanalyzer.service.SymbolMasterService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 @Service
 public class AnalysisService {
 
+    private static final Logger log = Logger.getLogger(AnalysisService.class.getName());
+
+    public static final String DEADLINE_EXCEEDED = "Analysis did not complete before the request deadline";
+
     private final MarketDataClient marketDataClient;
     private final SlmClient slmClient;
+    private final NewsScrapingService newsScrapingService;
+    private final SymbolMasterService symbolMasterService;
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+    // Per-request budget for the whole analyze flow (prices + news + SLM)
+    @Value("${analysis.deadlineMs:30000}")
+    private long analysisDeadlineMs;
+
+    // Number of symbols a bulk request analyzes at the same time
+    @Value("${analysis.bulk.maxConcurrency:4}")
+    private int bulkMaxConcurrency;
 
-    public AnalysisService(MarketDataClient marketDataClient, SlmClient slmClient) {
+    public AnalysisService(MarketDataClient marketDataClient, SlmClient slmClient,
+                           NewsScrapingService newsScrapingService, SymbolMasterService symbolMasterService) {
         this.marketDataClient = marketDataClient;
         this.slmClient = slmClient;
+        this.newsScrapingService = newsScrapingService;
+        this.symbolMasterService = symbolMasterService;
     }
 
     public Map<String, Object> analyzeSymbol(String symbol) {
-        List<Double> closes = marketDataClient.fetchRecentCloses(symbol);
-        String summary = slmClient.analyze(symbol, closes);
+        return analyzeSymbolAsync(symbol).join();
+    }
+
+    /**
+     * Fetches prices and news concurrently and starts the SLM as soon as both are in, so latency
+     * is bounded by the slowest dependency rather than their sum. Completes exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} when the request deadline passes.
+     */
+    public CompletableFuture<Map<String, Object>> analyzeSymbolAsync(String symbol) {
+        CompletableFuture<List<Double>> closesFuture =
+            CompletableFuture.supplyAsync(() -> marketDataClient.fetchRecentCloses(symbol), executorService);
+
+        // News is best-effort: its own scrape deadline bounds it, and a failure must not fail the analysis
+        CompletableFuture<NewsAnalysis> newsFuture =
+            CompletableFuture.supplyAsync(() -> newsScrapingService.analyzeStockNews(symbol, symbolMasterService.getCompanyName(symbol)), executorService)
+                .exceptionally(e -> {
+                    log.warning("News analysis failed for " + symbol + ": " + e.getMessage());
+                    return null;
+                });
+
+        return closesFuture
+            .thenCombineAsync(newsFuture, (closes, news) -> buildResponse(symbol, closes, news), executorService)
+            .orTimeout(analysisDeadlineMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Analyzes many symbols with at most {@code analysis.bulk.maxConcurrency} in flight, handing each
+     * result to {@code onResult} as soon as it is ready. Failed symbols are reported as an error entry
+     * instead of failing the batch. No new symbols are started once {@code cancelled} returns true.
+     */
+    public CompletableFuture<Void> analyzeBulk(List<String> symbols, Consumer<Map<String, Object>> onResult,
+                                               BooleanSupplier cancelled) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (symbols.isEmpty()) {
+            done.complete(null);
+            return done;
+        }
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(symbols.size());
+        int lanes = Math.max(1, Math.min(bulkMaxConcurrency, symbols.size()));
+        for (int i = 0; i < lanes; i++) {
+            startNextBulkSymbol(symbols, next, remaining, onResult, cancelled, done);
+        }
+        return done;
+    }
+
+    /**
+     * How long a bulk request of {@code symbols} symbols can take when every one of them runs into
+     * the per-symbol deadline: one deadline per round of {@code analysis.bulk.maxConcurrency}.
+     */
+    public long bulkWorstCaseMs(int symbols) {
+        int lanes = Math.max(1, bulkMaxConcurrency);
+        long rounds = Math.max(1, (symbols + lanes - 1) / lanes);
+        return rounds * analysisDeadlineMs;
+    }
+
+    private void startNextBulkSymbol(List<String> symbols, AtomicInteger next, AtomicInteger remaining,
+                                     Consumer<Map<String, Object>> onResult, BooleanSupplier cancelled,
+                                     CompletableFuture<Void> done) {
+        int index = next.getAndIncrement();
+        if (index >= symbols.size()) {
+            return;
+        }
+        if (cancelled.getAsBoolean()) {
+            done.complete(null);
+            return;
+        }
+        String symbol = symbols.get(index);
+        analyzeSymbolAsync(symbol).handle((result, error) -> {
+            try {
+                onResult.accept(error == null ? result : errorResult(symbol, error));
+            } catch (Exception e) {
+                log.warning("Failed to deliver bulk result for " + symbol + ": " + e.getMessage());
+            }
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(null);
+            } else {
+                // Each finished symbol frees its lane for the next one
+                startNextBulkSymbol(symbols, next, remaining, onResult, cancelled, done);
+            }
+            return null;
+        });
+    }
+
+    private Map<String, Object> errorResult(String symbol, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        Map<String, Object> result = new HashMap<>();
+        result.put("symbol", symbol);
+        result.put("error", cause instanceof TimeoutException
+            ? DEADLINE_EXCEEDED
+            : "Analysis failed: " + cause.getMessage());
+        return result;
+    }
+
+    private Map<String, Object> buildResponse(String symbol, List<Double> closes, NewsAnalysis news) {
+        List<String> headlines = new ArrayList<>();
+        if (news != null) {
+            for (int i = 0; i < news.getArticles().size(); i++) {
+                headlines.add(news.getArticles().title(i));
+            }
+        }
+        String summary = slmClient.analyze(symbol, closes, headlines);
+
         Map<String, Object> response = new HashMap<>();
         response.put("symbol", symbol);
         response.put("closes", closes);
         response.put("analysis", summary);
+        if (news != null) {
+            Map<String, Object> newsSummary = new HashMap<>();
+            newsSummary.put("sentiment", news.getSentiment().getOverall());
+            newsSummary.put("headlines", headlines);
+            newsSummary.put("missingSources", news.getMissingSources());
+            response.put("news", newsSummary);
+        }
         return response;
     }
 }
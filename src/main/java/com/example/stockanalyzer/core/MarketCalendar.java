@@ -0,0 +1,121 @@
+package com.example.stockanalyzer.core;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Regular trading sessions of the exchange: weekdays from {@code market.open} to
+ * {@code market.close} in {@code automation.zone}, except the dates in {@code market.holidays}.
+ * Sessions on the dates in {@code market.earlyCloses} end at {@code market.earlyCloseTime} instead.
+ */
+@Component
+public class MarketCalendar {
+
+    private static final Logger log = Logger.getLogger(MarketCalendar.class.getName());
+
+    private final ZoneId zone;
+    private final LocalTime open;
+    private final LocalTime close;
+    private final Set<LocalDate> holidays;
+    private final Set<LocalDate> earlyCloses;
+    private final LocalTime earlyClose;
+
+    public MarketCalendar(@Value("${automation.zone:America/New_York}") String zone,
+                          @Value("${market.open:${intraday.marketOpen:09:30}}") String open,
+                          @Value("${market.close:${intraday.marketClose:16:00}}") String close,
+                          @Value("${market.holidays:}") String holidays,
+                          @Value("${market.earlyCloses:}") String earlyCloses,
+                          @Value("${market.earlyCloseTime:13:00}") String earlyCloseTime) {
+        this.zone = ZoneId.of(zone);
+        this.open = LocalTime.parse(open);
+        this.close = LocalTime.parse(close);
+        this.holidays = dates(holidays);
+        this.earlyCloses = dates(earlyCloses);
+        this.earlyClose = LocalTime.parse(earlyCloseTime);
+    }
+
+    @PostConstruct
+    void warnAboutMissingHolidays() {
+        List<Integer> missing = yearsWithoutHolidays(now().getYear());
+        if (!missing.isEmpty()) {
+            log.warning("No market.holidays configured for " + missing + "; those exchange holidays count as trading days");
+        }
+    }
+
+    /** Of {@code year} and the year after, those without a single configured holiday. */
+    List<Integer> yearsWithoutHolidays(int year) {
+        return IntStream.of(year, year + 1)
+            .filter(y -> holidays.stream().noneMatch(date -> date.getYear() == y))
+            .boxed()
+            .toList();
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public ZonedDateTime now() {
+        return ZonedDateTime.now(zone);
+    }
+
+    public boolean isTradingDay(LocalDate date) {
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY
+            && date.getDayOfWeek() != DayOfWeek.SUNDAY
+            && !holidays.contains(date);
+    }
+
+    public boolean isOpen(ZonedDateTime time) {
+        ZonedDateTime local = time.withZoneSameInstant(zone);
+        LocalTime clock = local.toLocalTime();
+        return isTradingDay(local.toLocalDate()) && !clock.isBefore(open) && clock.isBefore(closeOn(local.toLocalDate()));
+    }
+
+    /** When the session on {@code date} ends; only meaningful for trading days. */
+    public LocalTime closeOn(LocalDate date) {
+        return earlyCloses.contains(date) ? earlyClose : close;
+    }
+
+    /** The start of the next session after {@code time}, or {@code time} itself while a session is running. */
+    public ZonedDateTime nextOpen(ZonedDateTime time) {
+        ZonedDateTime local = time.withZoneSameInstant(zone);
+        if (isOpen(local)) {
+            return local;
+        }
+        LocalDate day = local.toLocalTime().isBefore(open) ? local.toLocalDate() : local.toLocalDate().plusDays(1);
+        while (!isTradingDay(day)) {
+            day = day.plusDays(1);
+        }
+        return day.atTime(open).atZone(zone);
+    }
+
+    /** The end of the latest session that closed at or before {@code time}. */
+    public ZonedDateTime lastClose(ZonedDateTime time) {
+        ZonedDateTime local = time.withZoneSameInstant(zone);
+        LocalDate day = local.toLocalTime().isBefore(closeOn(local.toLocalDate())) ? local.toLocalDate().minusDays(1) : local.toLocalDate();
+        while (!isTradingDay(day)) {
+            day = day.minusDays(1);
+        }
+        return day.atTime(closeOn(day)).atZone(zone);
+    }
+
+    private static Set<LocalDate> dates(String csv) {
+        return Arrays.stream(csv.split(","))
+            .map(String::trim)
+            .filter(date -> !date.isEmpty())
+            .map(LocalDate::parse)
+            .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -1,63 +1,216 @@
 package com.example.stockanalyzer.core;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
 
+/**
+ * Yahoo chart API client. Quotes and daily closes are cached per symbol for
+ * {@code marketdata.cache.openTtlMs} while the market is open, and until the next open once it has
+ * closed and the closing prices have settled. An expired history is brought up to date by fetching
+ * only the bars since the last cached one; if that refresh fails, the cached bars are served and
+ * retried after {@code marketdata.cache.retryTtlMs}.
+ */
 @Component
 public class MarketDataClient {
 
+    private static final Logger log = Logger.getLogger(MarketDataClient.class.getName());
+
     private final RestClient http = RestClient.create();
 
+    @Autowired
+    private MarketCalendar marketCalendar;
+
+    @Value("${marketdata.baseUrl:https://query1.finance.yahoo.com}")
+    private String baseUrl;
+
+    @Value("${marketdata.cache.openTtlMs:30000}")
+    private long openTtlMs;
+
+    // Closing prices are still being adjusted for a while after the bell
+    @Value("${marketdata.cache.settleMs:900000}")
+    private long settleMs;
+
+    @Value("${marketdata.cache.retryTtlMs:60000}")
+    private long retryTtlMs;
+
+    private record Bar(LocalDate day, double close) {}
+
+    private record CachedHistory(List<Bar> bars, Instant expiresAt) {}
+
+    private record CachedQuote(Quote quote, Instant expiresAt) {}
+
+    private final Map<String, CachedHistory> histories = new ConcurrentHashMap<>();
+    private final Map<String, CachedQuote> quotes = new ConcurrentHashMap<>();
+
+    private final AtomicLong historyHits = new AtomicLong();
+    private final AtomicLong historyFullFetches = new AtomicLong();
+    private final AtomicLong historyIncrementalFetches = new AtomicLong();
+    private final AtomicLong historyRefreshFailures = new AtomicLong();
+    private final AtomicLong quoteHits = new AtomicLong();
+    private final AtomicLong quoteFetches = new AtomicLong();
+
+    /** Daily closes over the last month, oldest first. */
     public List<Double> fetchRecentCloses(String symbol) {
-        String url = "https://query1.finance.yahoo.com/v8/finance/chart/" + symbol + "?interval=1d&range=1mo";
-        ResponseEntity<Map> res = http.get().uri(url).retrieve().toEntity(Map.class);
-        Map body = res.getBody();
-        if (body == null) return List.of();
+        Instant now = Instant.now();
+        CachedHistory cached = histories.get(symbol);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            historyHits.incrementAndGet();
+            return closes(cached.bars());
+        }
+
+        List<Bar> bars;
+        if (cached == null) {
+            historyFullFetches.incrementAndGet();
+            bars = fetchBars(symbol, "range=1mo");
+            if (bars == null) {
+                return List.of();
+            }
+        } else {
+            // The last cached bar may have been a partial session; fetch it again with everything after it
+            historyIncrementalFetches.incrementAndGet();
+            LocalDate from = cached.bars().get(cached.bars().size() - 1).day();
+            long period1 = from.atStartOfDay(marketCalendar.getZone()).toEpochSecond();
+            List<Bar> fetched = fetchBars(symbol, "period1=" + period1 + "&period2=" + now.getEpochSecond());
+            if (fetched == null) {
+                historyRefreshFailures.incrementAndGet();
+                histories.put(symbol, new CachedHistory(cached.bars(), now.plusMillis(retryTtlMs)));
+                return closes(cached.bars());
+            }
+            bars = merge(cached.bars(), fetched, from);
+        }
+        if (bars.isEmpty()) {
+            return List.of();
+        }
+        histories.put(symbol, new CachedHistory(bars, expiry(now)));
+        return closes(bars);
+    }
+
+    public record Quote(String symbol, double price, double previousClose) {}
+
+    /** Latest regular-market price and previous close, or null if the quote is unavailable. */
+    public Quote fetchQuote(String symbol) {
+        Instant now = Instant.now();
+        CachedQuote cached = quotes.get(symbol);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            quoteHits.incrementAndGet();
+            return cached.quote();
+        }
+        quoteFetches.incrementAndGet();
+        String url = baseUrl + "/v8/finance/chart/" + symbol + "?interval=1d&range=1d";
+        try {
+            Map first = chartResult(http.get().uri(url).retrieve().toEntity(Map.class));
+            if (first == null) return null;
+            Map meta = (Map) first.get("meta");
+            if (meta.get("regularMarketPrice") instanceof Number price && price.doubleValue() > 0) {
+                double previousClose = meta.get("previousClose") instanceof Number close ? close.doubleValue() : price.doubleValue();
+                Quote quote = new Quote(symbol, price.doubleValue(), previousClose);
+                quotes.put(symbol, new CachedQuote(quote, expiry(now)));
+                return quote;
+            }
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public String getMarketData(String symbol) {
+        Quote quote = fetchQuote(symbol);
+        if (quote == null) {
+            return "{\"currentPrice\":150.0,\"previousClose\":150.0}";
+        }
+        return String.format("{\"currentPrice\":%.2f,\"previousClose\":%.2f}", quote.price(), quote.previousClose());
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("marketOpen", marketCalendar.isOpen(marketCalendar.now()));
+        stats.put("quotesCached", quotes.size());
+        stats.put("quoteHits", quoteHits.get());
+        stats.put("quoteFetches", quoteFetches.get());
+        stats.put("historiesCached", histories.size());
+        stats.put("historyHits", historyHits.get());
+        stats.put("historyFullFetches", historyFullFetches.get());
+        stats.put("historyIncrementalFetches", historyIncrementalFetches.get());
+        stats.put("historyRefreshFailures", historyRefreshFailures.get());
+        return stats;
+    }
+
+    // Short-lived during a session and while the close settles, otherwise good until the next open
+    private Instant expiry(Instant now) {
+        ZonedDateTime time = now.atZone(marketCalendar.getZone());
+        if (marketCalendar.isOpen(time) || Duration.between(marketCalendar.lastClose(time), time).toMillis() < settleMs) {
+            return now.plusMillis(openTtlMs);
+        }
+        return marketCalendar.nextOpen(time).toInstant();
+    }
+
+    // Null when the request or the payload failed, empty when the response carried no result
+    private List<Bar> fetchBars(String symbol, String range) {
+        String url = baseUrl + "/v8/finance/chart/" + symbol + "?interval=1d&" + range;
         try {
-            Map chart = (Map) body.get("chart");
-            List result = (List) chart.get("result");
-            Map first = (Map) result.get(0);
+            Map first = chartResult(http.get().uri(url).retrieve().toEntity(Map.class));
+            if (first == null) return List.of();
+            List timestamps = (List) first.get("timestamp");
             Map indicators = (Map) first.get("indicators");
             List quotes = (List) indicators.get("quote");
             Map quote0 = (Map) quotes.get(0);
             List closes = (List) quote0.get("close");
-            List<Double> out = new ArrayList<>();
-            for (Object o : closes) {
-                if (o instanceof Number n) out.add(n.doubleValue());
+            List<Bar> out = new ArrayList<>();
+            for (int i = 0; i < Math.min(timestamps.size(), closes.size()); i++) {
+                if (timestamps.get(i) instanceof Number ts && closes.get(i) instanceof Number n) {
+                    LocalDate day = Instant.ofEpochSecond(ts.longValue()).atZone(marketCalendar.getZone()).toLocalDate();
+                    out.add(new Bar(day, n.doubleValue()));
+                }
             }
             return out;
         } catch (Exception e) {
-            return List.of();
+            log.warning("Chart fetch failed for " + symbol + " (" + range + "): " + e.getMessage());
+            return null;
         }
     }
-    
-    public String getMarketData(String symbol) {
-        String url = "https://query1.finance.yahoo.com/v8/finance/chart/" + symbol + "?interval=1d&range=1d";
-        try {
-            ResponseEntity<Map> res = http.get().uri(url).retrieve().toEntity(Map.class);
-            Map body = res.getBody();
-            if (body == null) return "{}";
-            
-            // Extract current price and previous close
-            Map chart = (Map) body.get("chart");
-            List result = (List) chart.get("result");
-            Map first = (Map) result.get(0);
-            Map meta = (Map) first.get("meta");
-            
-            Double currentPrice = (Double) meta.get("regularMarketPrice");
-            Double previousClose = (Double) meta.get("previousClose");
-            
-            return String.format("{\"currentPrice\":%.2f,\"previousClose\":%.2f}", 
-                currentPrice != null ? currentPrice : 0.0,
-                previousClose != null ? previousClose : 0.0);
-                
-        } catch (Exception e) {
-            return "{\"currentPrice\":150.0,\"previousClose\":150.0}";
+
+    // The single result of a chart response, which carries both the quote meta and the bars
+    private static Map chartResult(ResponseEntity<Map> res) {
+        Map body = res.getBody();
+        if (body == null) return null;
+        Map chart = (Map) body.get("chart");
+        List result = (List) chart.get("result");
+        return (Map) result.get(0);
+    }
+
+    // Cached bars before the refetched day, fetched bars from it on, trimmed to the month before the newest bar
+    private static List<Bar> merge(List<Bar> cached, List<Bar> fetched, LocalDate from) {
+        List<Bar> fresh = fetched.stream().filter(bar -> !bar.day().isBefore(from)).toList();
+        if (fresh.isEmpty()) {
+            return cached;
+        }
+        List<Bar> merged = new ArrayList<>();
+        for (Bar bar : cached) {
+            if (bar.day().isBefore(from)) {
+                merged.add(bar);
+            }
         }
+        merged.addAll(fresh);
+        LocalDate oldest = merged.get(merged.size() - 1).day().minusMonths(1);
+        return merged.stream().filter(bar -> !bar.day().isBefore(oldest)).toList();
+    }
+
+    private static List<Double> closes(List<Bar> bars) {
+        return bars.stream().map(Bar::close).toList();
     }
 }
@@ -21,12 +21,18 @@ public class SlmClient {
     private String ollamaModel;
 
     public String analyze(String symbol, List<Double> closes) {
-        String prompt = buildPrompt(symbol, closes);
+        return analyze(symbol, closes, List.of());
+    }
+
+    public String analyze(String symbol, List<Double> closes, List<String> headlines) {
+        String prompt = buildPrompt(symbol, closes, headlines);
         Map<String, Object> body = new HashMap<>();
         body.put("model", ollamaModel);
         body.put("prompt", prompt);
         body.put("stream", false);
 
+        AnalysisEvents.SlmCallEvent event = new AnalysisEvents.SlmCallEvent();
+        event.begin();
         try {
             Map res = http.post()
                     .uri(ollamaBaseUrl + "/api/generate")
@@ -35,17 +41,37 @@ public class SlmClient {
                     .retrieve()
                     .body(Map.class);
             Object out = res != null ? res.get("response") : null;
-            return out != null ? out.toString() : "No response from SLM";
+            if (out == null) {
+                event.error = "No response from SLM";
+                return "No response from SLM";
+            }
+            event.responseChars = out.toString().length();
+            return out.toString();
         } catch (Exception e) {
+            event.error = AnalysisEvents.describe(e);
             return "SLM call failed: " + e.getMessage();
+        } finally {
+            if (event.shouldCommit()) {
+                event.symbol = symbol;
+                event.model = ollamaModel;
+                event.promptChars = prompt.length();
+                event.commit();
+            }
         }
     }
 
-    private String buildPrompt(String symbol, List<Double> closes) {
+    private String buildPrompt(String symbol, List<Double> closes, List<String> headlines) {
         StringBuilder sb = new StringBuilder();
         sb.append("You are a financial assistant.\n");
         sb.append("Given the last month of daily closing prices for symbol ").append(symbol).append(":\\n");
         sb.append(closes.toString()).append("\n\n");
+        if (!headlines.isEmpty()) {
+            sb.append("Recent news headlines:\n");
+            for (String headline : headlines) {
+                sb.append("- ").append(headline).append("\n");
+            }
+            sb.append("\n");
+        }
         sb.append("Analyze short-term trend, volatility, and notable patterns in 5-8 sentences.\n");
         sb.append("Avoid giving financial advice; focus on descriptive analysis only.");
         return sb.toString();
@@ -0,0 +1,66 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "analysis_runs")
+public class AnalysisRun {
+    
+    @Id
+    private String id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunTrigger triggeredBy;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunStatus status;
+    
+    @Column(nullable = false)
+    private Integer totalSymbols;
+    
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column
+    private LocalDateTime finishedAt;
+    
+    public enum RunTrigger {
+        SCHEDULED, MANUAL
+    }
+    
+    public enum RunStatus {
+        RUNNING, COMPLETED
+    }
+    
+    public AnalysisRun() {}
+    
+    public AnalysisRun(String id, RunTrigger triggeredBy, Integer totalSymbols) {
+        this.id = id;
+        this.triggeredBy = triggeredBy;
+        this.status = RunStatus.RUNNING;
+        this.totalSymbols = totalSymbols;
+        this.startedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public RunTrigger getTriggeredBy() { return triggeredBy; }
+    public void setTriggeredBy(RunTrigger triggeredBy) { this.triggeredBy = triggeredBy; }
+    
+    public RunStatus getStatus() { return status; }
+    public void setStatus(RunStatus status) { this.status = status; }
+    
+    public Integer getTotalSymbols() { return totalSymbols; }
+    public void setTotalSymbols(Integer totalSymbols) { this.totalSymbols = totalSymbols; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
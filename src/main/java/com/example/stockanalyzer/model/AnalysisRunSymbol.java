@@ -0,0 +1,92 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-symbol checkpoint of an analysis run. Each stage's output is stored with the status, so a
+ * resumed run continues from the last completed stage instead of scraping and scoring again.
+ */
+@Entity
+@Table(name = "analysis_run_symbols",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"runId", "symbol"}))
+public class AnalysisRunSymbol {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String runId;
+    
+    @Column(nullable = false)
+    private String symbol;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SymbolStatus status;
+    
+    @Lob
+    @Column
+    private String newsAnalysisJson; // set once SCRAPED
+    
+    @Lob
+    @Column
+    private String recommendationJson; // set once SCORED
+    
+    @Column
+    private Long recommendationId; // set once PERSISTED
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(length = 1000)
+    private String lastError;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public enum SymbolStatus {
+        PENDING, SCRAPED, SCORED, PERSISTED, FAILED
+    }
+    
+    public AnalysisRunSymbol() {}
+    
+    public AnalysisRunSymbol(String runId, String symbol) {
+        this.runId = runId;
+        this.symbol = symbol;
+        this.status = SymbolStatus.PENDING;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public SymbolStatus getStatus() { return status; }
+    public void setStatus(SymbolStatus status) { this.status = status; }
+    
+    public String getNewsAnalysisJson() { return newsAnalysisJson; }
+    public void setNewsAnalysisJson(String newsAnalysisJson) { this.newsAnalysisJson = newsAnalysisJson; }
+    
+    public String getRecommendationJson() { return recommendationJson; }
+    public void setRecommendationJson(String recommendationJson) { this.recommendationJson = recommendationJson; }
+    
+    public Long getRecommendationId() { return recommendationId; }
+    public void setRecommendationId(Long recommendationId) { this.recommendationId = recommendationId; }
+    
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
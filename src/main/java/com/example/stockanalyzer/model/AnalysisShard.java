@@ -0,0 +1,97 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A slice of one analysis run's universe. Nodes claim pending shards by taking a time-limited
+ * lease; a shard whose lease expired without completing (its node died) can be claimed again.
+ */
+@Entity
+@Table(name = "analysis_shards",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"runId", "shardIndex"}))
+public class AnalysisShard {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String runId;
+    
+    @Column(nullable = false)
+    private Integer shardIndex;
+    
+    @Column(nullable = false, length = 8000)
+    private String symbols; // comma-separated
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ShardStatus status;
+    
+    @Column
+    private String owner;
+    
+    @Column
+    private LocalDateTime leaseExpiresAt;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime completedAt;
+    
+    public enum ShardStatus {
+        PENDING, RUNNING, COMPLETED
+    }
+    
+    public AnalysisShard() {}
+    
+    public AnalysisShard(String runId, Integer shardIndex, List<String> symbols) {
+        this.runId = runId;
+        this.shardIndex = shardIndex;
+        this.symbols = String.join(",", symbols);
+        this.status = ShardStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public List<String> getSymbolList() {
+        return symbols.isEmpty() ? List.of() : Arrays.asList(symbols.split(","));
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
+    
+    public Integer getShardIndex() { return shardIndex; }
+    public void setShardIndex(Integer shardIndex) { this.shardIndex = shardIndex; }
+    
+    public String getSymbols() { return symbols; }
+    public void setSymbols(String symbols) { this.symbols = symbols; }
+    
+    public ShardStatus getStatus() { return status; }
+    public void setStatus(ShardStatus status) { this.status = status; }
+    
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
+    
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -0,0 +1,215 @@
+package com.example.stockanalyzer.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scraped articles of one symbol, stored column by column instead of one {@link NewsAnalysis.NewsItem}
+ * per article. Sources are kept once per batch and referenced by index, scores and sentiment are
+ * primitive columns and publish times are epoch seconds. Titles and bodies stay Strings, which the
+ * JVM already stores one byte per character when they are Latin-1, so reading them costs nothing.
+ */
+public final class ArticleBatch {
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final NewsAnalysis.SentimentType[] SENTIMENTS = NewsAnalysis.SentimentType.values();
+
+    private final List<String> sources = new ArrayList<>(8);
+    private short[] sourceIds;
+    private String[] titles;
+    private String[] urls;
+    private String[] contents;
+    private long[] publishedAt;
+    private double[] relevance;
+    private byte[] sentiments;
+    private int[] sourceCounts;
+    private int size;
+
+    public ArticleBatch() {
+        this(16);
+    }
+
+    public ArticleBatch(int capacity) {
+        int initial = Math.max(1, capacity);
+        sourceIds = new short[initial];
+        titles = new String[initial];
+        urls = new String[initial];
+        contents = new String[initial];
+        publishedAt = new long[initial];
+        relevance = new double[initial];
+        sentiments = new byte[initial];
+        sourceCounts = new int[initial];
+    }
+
+    public static ArticleBatch of(List<NewsAnalysis.NewsItem> items) {
+        ArticleBatch batch = new ArticleBatch(items.size());
+        for (NewsAnalysis.NewsItem item : items) {
+            int i = batch.add(item.getTitle(), item.getContent(), item.getSource(), item.getUrl(), item.getPublishedAt());
+            if (item.getRelevanceScore() != null) {
+                batch.relevance[i] = item.getRelevanceScore();
+            }
+            batch.sentiments[i] = item.getSentiment() != null ? (byte) item.getSentiment().ordinal() : -1;
+            batch.sourceCounts[i] = item.getSourceCount();
+        }
+        return batch;
+    }
+
+    /** Appends an unscored article and returns its index. */
+    public int add(String title, String content, String source, String url, LocalDateTime published) {
+        if (size == titles.length) {
+            grow(size * 2);
+        }
+        int i = size++;
+        sourceIds[i] = sourceId(source);
+        titles[i] = title;
+        urls[i] = url;
+        contents[i] = content;
+        publishedAt[i] = published != null ? published.toEpochSecond(ZoneOffset.UTC) : NO_TIMESTAMP;
+        relevance[i] = 0;
+        sentiments[i] = -1;
+        sourceCounts[i] = 1;
+        return i;
+    }
+
+    /** Appends every article of {@code other}, scores included. */
+    public void addAll(ArticleBatch other) {
+        if (size + other.size > titles.length) {
+            grow(Math.max(size + other.size, size * 2));
+        }
+        for (int j = 0; j < other.size; j++) {
+            int i = size++;
+            sourceIds[i] = sourceId(other.source(j));
+            titles[i] = other.titles[j];
+            urls[i] = other.urls[j];
+            contents[i] = other.contents[j];
+            publishedAt[i] = other.publishedAt[j];
+            relevance[i] = other.relevance[j];
+            sentiments[i] = other.sentiments[j];
+            sourceCounts[i] = other.sourceCounts[j];
+        }
+    }
+
+    /** A new batch holding the given articles in the given order, sized exactly. */
+    public ArticleBatch select(int[] indices) {
+        ArticleBatch selected = new ArticleBatch(indices.length);
+        for (int j : indices) {
+            int i = selected.size++;
+            selected.sourceIds[i] = selected.sourceId(source(j));
+            selected.titles[i] = titles[j];
+            selected.urls[i] = urls[j];
+            selected.contents[i] = contents[j];
+            selected.publishedAt[i] = publishedAt[j];
+            selected.relevance[i] = relevance[j];
+            selected.sentiments[i] = sentiments[j];
+            selected.sourceCounts[i] = sourceCounts[j];
+        }
+        return selected;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String title(int i) {
+        return titles[i];
+    }
+
+    public String content(int i) {
+        return contents[i];
+    }
+
+    /** Title plus body, the text scoring and deduplication look at. */
+    public String text(int i) {
+        return contents[i] != null ? titles[i] + " " + contents[i] : titles[i];
+    }
+
+    /** Characters of title plus body, without building the combined text. */
+    public int textLength(int i) {
+        return titles[i].length() + (contents[i] != null ? contents[i].length() : 0);
+    }
+
+    public String url(int i) {
+        return urls[i];
+    }
+
+    public String source(int i) {
+        return sources.get(sourceIds[i]);
+    }
+
+    public LocalDateTime publishedAt(int i) {
+        return publishedAt[i] != NO_TIMESTAMP ? LocalDateTime.ofEpochSecond(publishedAt[i], 0, ZoneOffset.UTC) : null;
+    }
+
+    public double relevance(int i) {
+        return relevance[i];
+    }
+
+    public NewsAnalysis.SentimentType sentiment(int i) {
+        return sentiments[i] >= 0 ? SENTIMENTS[sentiments[i]] : null;
+    }
+
+    public int sourceCount(int i) {
+        return sourceCounts[i];
+    }
+
+    public void setScore(int i, double relevanceScore, NewsAnalysis.SentimentType sentiment) {
+        relevance[i] = relevanceScore;
+        sentiments[i] = sentiment != null ? (byte) sentiment.ordinal() : -1;
+    }
+
+    public void setSourceCount(int i, int sourceCount) {
+        sourceCounts[i] = sourceCount;
+    }
+
+    /** Distinct sources, in the order they were first seen. */
+    public List<String> getSources() {
+        return new ArrayList<>(sources);
+    }
+
+    public NewsAnalysis.NewsItem toNewsItem(int i) {
+        NewsAnalysis.NewsItem item = new NewsAnalysis.NewsItem(titles[i], contents[i], source(i), urls[i],
+            publishedAt(i), relevance[i], sentiment(i));
+        item.setSourceCount(sourceCounts[i]);
+        return item;
+    }
+
+    public List<NewsAnalysis.NewsItem> toNewsItems() {
+        List<NewsAnalysis.NewsItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(toNewsItem(i));
+        }
+        return items;
+    }
+
+    // A handful of sources per batch, so a linear scan beats hashing; interning shares the strings
+    // across batches, including ones read back from checkpoints
+    private short sourceId(String source) {
+        if (source == null) {
+            source = "";
+        }
+        for (int id = 0; id < sources.size(); id++) {
+            if (sources.get(id).equals(source)) {
+                return (short) id;
+            }
+        }
+        if (sources.size() == Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct sources in one batch");
+        }
+        sources.add(source.intern());
+        return (short) (sources.size() - 1);
+    }
+
+    private void grow(int capacity) {
+        sourceIds = Arrays.copyOf(sourceIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        urls = Arrays.copyOf(urls, capacity);
+        contents = Arrays.copyOf(contents, capacity);
+        publishedAt = Arrays.copyOf(publishedAt, capacity);
+        relevance = Arrays.copyOf(relevance, capacity);
+        sentiments = Arrays.copyOf(sentiments, capacity);
+        sourceCounts = Arrays.copyOf(sourceCounts, capacity);
+    }
+}
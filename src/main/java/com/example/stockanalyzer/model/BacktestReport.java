@@ -0,0 +1,97 @@
+package com.example.stockanalyzer.model;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BacktestReport {
+    
+    private LocalDate from;
+    private LocalDate to;
+    private Double targetPct; // null when the stored target of each recommendation was used
+    private Double stopPct; // null when the stored stop-loss of each recommendation was used
+    private int maxHoldingBars;
+    private int symbols;
+    private long signals;
+    private long trades;
+    private long skippedSignals;
+    private long missingSymbols;
+    private double hitRate; // share of trades that reached their target
+    private double stopRate;
+    private double winRate; // share of trades with a positive return
+    private double averageReturn;
+    private double totalReturn; // sum of trade returns, one unit of notional per trade
+    private double bestTrade;
+    private double worstTrade;
+    private double averageHoldingBars;
+    private double maxDrawdown; // deepest fall of the cumulative return curve, same units as totalReturn
+    private Map<String, Map<String, Object>> byRecommendation = new LinkedHashMap<>();
+    private long elapsedMs;
+    private LocalDate retainedFrom; // set when the range starts before the oldest raw rows retention keeps
+    
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    
+    public LocalDate getRetainedFrom() { return retainedFrom; }
+    public void setRetainedFrom(LocalDate retainedFrom) { this.retainedFrom = retainedFrom; }
+    
+    public Double getTargetPct() { return targetPct; }
+    public void setTargetPct(Double targetPct) { this.targetPct = targetPct; }
+    
+    public Double getStopPct() { return stopPct; }
+    public void setStopPct(Double stopPct) { this.stopPct = stopPct; }
+    
+    public int getMaxHoldingBars() { return maxHoldingBars; }
+    public void setMaxHoldingBars(int maxHoldingBars) { this.maxHoldingBars = maxHoldingBars; }
+    
+    public int getSymbols() { return symbols; }
+    public void setSymbols(int symbols) { this.symbols = symbols; }
+    
+    public long getSignals() { return signals; }
+    public void setSignals(long signals) { this.signals = signals; }
+    
+    public long getTrades() { return trades; }
+    public void setTrades(long trades) { this.trades = trades; }
+    
+    public long getSkippedSignals() { return skippedSignals; }
+    public void setSkippedSignals(long skippedSignals) { this.skippedSignals = skippedSignals; }
+    
+    public long getMissingSymbols() { return missingSymbols; }
+    public void setMissingSymbols(long missingSymbols) { this.missingSymbols = missingSymbols; }
+    
+    public double getHitRate() { return hitRate; }
+    public void setHitRate(double hitRate) { this.hitRate = hitRate; }
+    
+    public double getStopRate() { return stopRate; }
+    public void setStopRate(double stopRate) { this.stopRate = stopRate; }
+    
+    public double getWinRate() { return winRate; }
+    public void setWinRate(double winRate) { this.winRate = winRate; }
+    
+    public double getAverageReturn() { return averageReturn; }
+    public void setAverageReturn(double averageReturn) { this.averageReturn = averageReturn; }
+    
+    public double getTotalReturn() { return totalReturn; }
+    public void setTotalReturn(double totalReturn) { this.totalReturn = totalReturn; }
+    
+    public double getBestTrade() { return bestTrade; }
+    public void setBestTrade(double bestTrade) { this.bestTrade = bestTrade; }
+    
+    public double getWorstTrade() { return worstTrade; }
+    public void setWorstTrade(double worstTrade) { this.worstTrade = worstTrade; }
+    
+    public double getAverageHoldingBars() { return averageHoldingBars; }
+    public void setAverageHoldingBars(double averageHoldingBars) { this.averageHoldingBars = averageHoldingBars; }
+    
+    public double getMaxDrawdown() { return maxDrawdown; }
+    public void setMaxDrawdown(double maxDrawdown) { this.maxDrawdown = maxDrawdown; }
+    
+    public Map<String, Map<String, Object>> getByRecommendation() { return byRecommendation; }
+    public void setByRecommendation(Map<String, Map<String, Object>> byRecommendation) { this.byRecommendation = byRecommendation; }
+    
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+}
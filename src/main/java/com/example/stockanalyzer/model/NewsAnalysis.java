@@ -1,16 +1,20 @@
 package com.example.stockanalyzer.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class NewsAnalysis {
     
     private String symbol;
     private String companyName;
-    private List<NewsItem> newsItems;
+    private ArticleBatch articles; // JSON keeps the per-item newsItems shape
     private List<String> keyKeywords;
     private SentimentScore sentiment;
     private LocalDateTime analyzedAt;
+    private List<String> missingSources = new ArrayList<>(); // sources that failed, timed out or were skipped by a breaker
     
     public NewsAnalysis() {}
     
@@ -18,7 +22,7 @@ public class NewsAnalysis {
                        List<String> keyKeywords, SentimentScore sentiment, LocalDateTime analyzedAt) {
         this.symbol = symbol;
         this.companyName = companyName;
-        this.newsItems = newsItems;
+        this.articles = newsItems != null ? ArticleBatch.of(newsItems) : null;
         this.keyKeywords = keyKeywords;
         this.sentiment = sentiment;
         this.analyzedAt = analyzedAt;
@@ -31,8 +35,13 @@ public class NewsAnalysis {
     public String getCompanyName() { return companyName; }
     public void setCompanyName(String companyName) { this.companyName = companyName; }
     
-    public List<NewsItem> getNewsItems() { return newsItems; }
-    public void setNewsItems(List<NewsItem> newsItems) { this.newsItems = newsItems; }
+    public List<NewsItem> getNewsItems() { return articles != null ? articles.toNewsItems() : null; }
+    public void setNewsItems(List<NewsItem> newsItems) { this.articles = newsItems != null ? ArticleBatch.of(newsItems) : null; }
+    
+    @JsonIgnore
+    public ArticleBatch getArticles() { return articles; }
+    @JsonIgnore
+    public void setArticles(ArticleBatch articles) { this.articles = articles; }
     
     public List<String> getKeyKeywords() { return keyKeywords; }
     public void setKeyKeywords(List<String> keyKeywords) { this.keyKeywords = keyKeywords; }
@@ -43,6 +52,9 @@ public class NewsAnalysis {
     public LocalDateTime getAnalyzedAt() { return analyzedAt; }
     public void setAnalyzedAt(LocalDateTime analyzedAt) { this.analyzedAt = analyzedAt; }
     
+    public List<String> getMissingSources() { return missingSources; }
+    public void setMissingSources(List<String> missingSources) { this.missingSources = missingSources; }
+    
     public static class NewsItem {
         private String title;
         private String content;
@@ -51,6 +63,7 @@ public class NewsAnalysis {
         private LocalDateTime publishedAt;
         private Double relevanceScore;
         private SentimentType sentiment;
+        private int sourceCount = 1; // distinct sources that carried this story (near-duplicates collapsed)
         
         public NewsItem() {}
         
@@ -86,6 +99,9 @@ public class NewsAnalysis {
         
         public SentimentType getSentiment() { return sentiment; }
         public void setSentiment(SentimentType sentiment) { this.sentiment = sentiment; }
+        
+        public int getSourceCount() { return sourceCount; }
+        public void setSourceCount(int sourceCount) { this.sourceCount = sourceCount; }
     }
     
     public static class SentimentScore {
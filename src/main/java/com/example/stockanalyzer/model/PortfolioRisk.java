@@ -0,0 +1,59 @@
+package com.example.stockanalyzer.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PortfolioRisk {
+    
+    private LocalDate asOf; // last session in the covariance window
+    private int sessions;
+    private int positions;
+    private int longs;
+    private int shorts;
+    private Double annualizedVolatility; // equal-weight portfolio of the current calls
+    private Double averageCorrelation; // mean pairwise correlation of the positions' P&L
+    private Double diversificationRatio; // weighted stand-alone volatility over portfolio volatility
+    private Double effectiveBets; // inverse Herfindahl of the risk contributions
+    private Map<String, Double> riskContributions = new LinkedHashMap<>(); // share of portfolio variance, largest first
+    private List<Map<String, Object>> correlatedPairs = new ArrayList<>();
+    private List<String> missingSymbols = new ArrayList<>(); // calls without enough price history
+    
+    public LocalDate getAsOf() { return asOf; }
+    public void setAsOf(LocalDate asOf) { this.asOf = asOf; }
+    
+    public int getSessions() { return sessions; }
+    public void setSessions(int sessions) { this.sessions = sessions; }
+    
+    public int getPositions() { return positions; }
+    public void setPositions(int positions) { this.positions = positions; }
+    
+    public int getLongs() { return longs; }
+    public void setLongs(int longs) { this.longs = longs; }
+    
+    public int getShorts() { return shorts; }
+    public void setShorts(int shorts) { this.shorts = shorts; }
+    
+    public Double getAnnualizedVolatility() { return annualizedVolatility; }
+    public void setAnnualizedVolatility(Double annualizedVolatility) { this.annualizedVolatility = annualizedVolatility; }
+    
+    public Double getAverageCorrelation() { return averageCorrelation; }
+    public void setAverageCorrelation(Double averageCorrelation) { this.averageCorrelation = averageCorrelation; }
+    
+    public Double getDiversificationRatio() { return diversificationRatio; }
+    public void setDiversificationRatio(Double diversificationRatio) { this.diversificationRatio = diversificationRatio; }
+    
+    public Double getEffectiveBets() { return effectiveBets; }
+    public void setEffectiveBets(Double effectiveBets) { this.effectiveBets = effectiveBets; }
+    
+    public Map<String, Double> getRiskContributions() { return riskContributions; }
+    public void setRiskContributions(Map<String, Double> riskContributions) { this.riskContributions = riskContributions; }
+    
+    public List<Map<String, Object>> getCorrelatedPairs() { return correlatedPairs; }
+    public void setCorrelatedPairs(List<Map<String, Object>> correlatedPairs) { this.correlatedPairs = correlatedPairs; }
+    
+    public List<String> getMissingSymbols() { return missingSymbols; }
+    public void setMissingSymbols(List<String> missingSymbols) { this.missingSymbols = missingSymbols; }
+}
@@ -0,0 +1,83 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A recommendation's target or stop-loss being reached. At most one per recommendation: whichever
+ * level is crossed first closes it.
+ */
+@Entity
+@Table(name = "price_alerts",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"recommendationId"}))
+public class PriceAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long recommendationId;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AlertType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private StockRecommendation.RecommendationType recommendation;
+
+    @Column(nullable = false)
+    private Double level;
+
+    @Column(nullable = false)
+    private Double price; // price that crossed the level
+
+    @Column(nullable = false)
+    private LocalDateTime triggeredAt;
+
+    public enum AlertType {
+        TARGET, STOP_LOSS
+    }
+
+    public PriceAlert() {}
+
+    public PriceAlert(Long recommendationId, String symbol, AlertType type,
+                      StockRecommendation.RecommendationType recommendation, Double level, Double price) {
+        this.recommendationId = recommendationId;
+        this.symbol = symbol;
+        this.type = type;
+        this.recommendation = recommendation;
+        this.level = level;
+        this.price = price;
+        this.triggeredAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getRecommendationId() { return recommendationId; }
+    public void setRecommendationId(Long recommendationId) { this.recommendationId = recommendationId; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public AlertType getType() { return type; }
+    public void setType(AlertType type) { this.type = type; }
+
+    public StockRecommendation.RecommendationType getRecommendation() { return recommendation; }
+    public void setRecommendation(StockRecommendation.RecommendationType recommendation) { this.recommendation = recommendation; }
+
+    public Double getLevel() { return level; }
+    public void setLevel(Double level) { this.level = level; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+
+    public LocalDateTime getTriggeredAt() { return triggeredAt; }
+    public void setTriggeredAt(LocalDateTime triggeredAt) { this.triggeredAt = triggeredAt; }
+}
@@ -0,0 +1,155 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-symbol summary of the recommendations generated in one day or one week (starting Monday).
+ * Raw recommendation rows are folded in by the retention job and can be pruned afterwards.
+ */
+@Entity
+@Table(name = "recommendation_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "period", "bucketStart"}))
+public class RecommendationRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Period period;
+
+    @Column(nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(nullable = false)
+    private int strongBuyCount;
+
+    @Column(nullable = false)
+    private int buyCount;
+
+    @Column(nullable = false)
+    private int holdCount;
+
+    @Column(nullable = false)
+    private int sellCount;
+
+    @Column(nullable = false)
+    private int strongSellCount;
+
+    @Column(nullable = false)
+    private double riskSum;
+
+    @Column(nullable = false)
+    private int riskCount;
+
+    @Column(nullable = false)
+    private double priceSum;
+
+    @Column
+    private Double lastPrice; // price at the bucket's latest call
+
+    @Column
+    private LocalDateTime lastCallAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Period {
+        DAILY, WEEKLY
+    }
+
+    public RecommendationRollup() {}
+
+    public RecommendationRollup(String symbol, Period period, LocalDate bucketStart) {
+        this.symbol = symbol;
+        this.period = period;
+        this.bucketStart = bucketStart;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void add(StockRecommendation.RecommendationType type, Double price, Double riskLevel, LocalDateTime generatedAt) {
+        switch (type) {
+            case STRONG_BUY -> strongBuyCount++;
+            case BUY -> buyCount++;
+            case HOLD -> holdCount++;
+            case SELL -> sellCount++;
+            case STRONG_SELL -> strongSellCount++;
+        }
+        if (riskLevel != null) {
+            riskSum += riskLevel;
+            riskCount++;
+        }
+        if (price != null) {
+            priceSum += price;
+        }
+        if (lastCallAt == null || !generatedAt.isBefore(lastCallAt)) {
+            lastCallAt = generatedAt;
+            lastPrice = price;
+        }
+        updatedAt = LocalDateTime.now();
+    }
+
+    public int getTotal() {
+        return strongBuyCount + buyCount + holdCount + sellCount + strongSellCount;
+    }
+
+    public Double getAverageRisk() {
+        return riskCount > 0 ? riskSum / riskCount : null;
+    }
+
+    public Double getAveragePrice() {
+        return getTotal() > 0 ? priceSum / getTotal() : null;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public Period getPeriod() { return period; }
+    public void setPeriod(Period period) { this.period = period; }
+
+    public LocalDate getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDate bucketStart) { this.bucketStart = bucketStart; }
+
+    public int getStrongBuyCount() { return strongBuyCount; }
+    public void setStrongBuyCount(int strongBuyCount) { this.strongBuyCount = strongBuyCount; }
+
+    public int getBuyCount() { return buyCount; }
+    public void setBuyCount(int buyCount) { this.buyCount = buyCount; }
+
+    public int getHoldCount() { return holdCount; }
+    public void setHoldCount(int holdCount) { this.holdCount = holdCount; }
+
+    public int getSellCount() { return sellCount; }
+    public void setSellCount(int sellCount) { this.sellCount = sellCount; }
+
+    public int getStrongSellCount() { return strongSellCount; }
+    public void setStrongSellCount(int strongSellCount) { this.strongSellCount = strongSellCount; }
+
+    public double getRiskSum() { return riskSum; }
+    public void setRiskSum(double riskSum) { this.riskSum = riskSum; }
+
+    public int getRiskCount() { return riskCount; }
+    public void setRiskCount(int riskCount) { this.riskCount = riskCount; }
+
+    public double getPriceSum() { return priceSum; }
+    public void setPriceSum(double priceSum) { this.priceSum = priceSum; }
+
+    public Double getLastPrice() { return lastPrice; }
+    public void setLastPrice(Double lastPrice) { this.lastPrice = lastPrice; }
+
+    public LocalDateTime getLastCallAt() { return lastCallAt; }
+    public void setLastCallAt(LocalDateTime lastCallAt) { this.lastCallAt = lastCallAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
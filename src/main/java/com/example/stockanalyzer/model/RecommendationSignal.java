@@ -0,0 +1,11 @@
+package com.example.stockanalyzer.model;
+
+import java.time.LocalDateTime;
+
+/** The columns of a stored recommendation that a backtest replays. Prices are null where never set. */
+public record RecommendationSignal(String symbol,
+                                   LocalDateTime generatedAt,
+                                   StockRecommendation.RecommendationType recommendation,
+                                   Double currentPrice,
+                                   Double targetPrice,
+                                   Double stopLoss) {}
@@ -0,0 +1,78 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A symbol's decayed sentiment weights as of its last update on one day, with the number of new
+ * articles scored that day. One row per symbol and day, for charting the sentiment over time.
+ */
+@Entity
+@Table(name = "sentiment_points",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "day"}))
+public class SentimentPoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String symbol;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private double positiveWeight;
+
+    @Column(nullable = false)
+    private double negativeWeight;
+
+    @Column(nullable = false)
+    private double neutralWeight;
+
+    // (positive - negative) / total weight, from -1 to 1
+    @Column(nullable = false)
+    private double netScore;
+
+    @Column(nullable = false)
+    private int articles;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public SentimentPoint() {}
+
+    public SentimentPoint(String symbol, LocalDate day) {
+        this.symbol = symbol;
+        this.day = day;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public double getPositiveWeight() { return positiveWeight; }
+    public void setPositiveWeight(double positiveWeight) { this.positiveWeight = positiveWeight; }
+
+    public double getNegativeWeight() { return negativeWeight; }
+    public void setNegativeWeight(double negativeWeight) { this.negativeWeight = negativeWeight; }
+
+    public double getNeutralWeight() { return neutralWeight; }
+    public void setNeutralWeight(double neutralWeight) { this.neutralWeight = neutralWeight; }
+
+    public double getNetScore() { return netScore; }
+    public void setNetScore(double netScore) { this.netScore = netScore; }
+
+    public int getArticles() { return articles; }
+    public void setArticles(int articles) { this.articles = articles; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
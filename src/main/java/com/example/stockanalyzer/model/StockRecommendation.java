@@ -5,7 +5,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "stock_recommendations")
+@Table(name = "stock_recommendations",
+       indexes = @Index(columnList = "symbol, generatedAt"))
 public class StockRecommendation {
     
     @Id
@@ -56,6 +57,13 @@ public class StockRecommendation {
     @Column(nullable = false)
     private LocalDateTime analysisDate;
     
+    @Column
+    private String runId; // analysis run that produced this recommendation
+    
+    // Set once the row is counted in the rollups; only the retention job reads or writes it
+    @Column
+    private Boolean rolledUp = false;
+    
     public enum RecommendationType {
         STRONG_BUY, BUY, HOLD, SELL, STRONG_SELL
     }
@@ -126,4 +134,7 @@ public class StockRecommendation {
     
     public LocalDateTime getAnalysisDate() { return analysisDate; }
     public void setAnalysisDate(LocalDateTime analysisDate) { this.analysisDate = analysisDate; }
+    
+    public String getRunId() { return runId; }
+    public void setRunId(String runId) { this.runId = runId; }
 }
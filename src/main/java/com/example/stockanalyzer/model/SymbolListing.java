@@ -0,0 +1,26 @@
+package com.example.stockanalyzer.model;
+
+import java.util.List;
+
+public final class SymbolListing {
+    
+    private final String symbol;
+    private final String name;
+    private final String exchange;
+    private final List<String> aliases;
+    
+    public SymbolListing(String symbol, String name, String exchange, List<String> aliases) {
+        this.symbol = symbol;
+        this.name = name;
+        this.exchange = exchange;
+        this.aliases = List.copyOf(aliases);
+    }
+    
+    public String getSymbol() { return symbol; }
+    
+    public String getName() { return name; }
+    
+    public String getExchange() { return exchange; }
+    
+    public List<String> getAliases() { return aliases; }
+}
@@ -0,0 +1,83 @@
+package com.example.stockanalyzer.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-symbol sentiment tallies, so incremental ingestion only has to score articles it
+ * has not seen before and can merge them into what earlier runs found. The counts are lifetime
+ * totals; the weights are the same tallies with every article decayed exponentially by age, as of
+ * {@code decayedTo}.
+ */
+@Entity
+@Table(name = "symbol_sentiment_state")
+public class SymbolSentimentState {
+    
+    @Id
+    private String symbol;
+    
+    @Column(nullable = false)
+    private Long positiveCount = 0L;
+    
+    @Column(nullable = false)
+    private Long negativeCount = 0L;
+    
+    @Column(nullable = false)
+    private Long neutralCount = 0L;
+    
+    @Column(nullable = false)
+    private double positiveWeight;
+    
+    @Column(nullable = false)
+    private double negativeWeight;
+    
+    @Column(nullable = false)
+    private double neutralWeight;
+    
+    @Column
+    private LocalDateTime decayedTo;
+    
+    @Column
+    private LocalDateTime lastArticleAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public SymbolSentimentState() {}
+    
+    public SymbolSentimentState(String symbol) {
+        this.symbol = symbol;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public Long getPositiveCount() { return positiveCount; }
+    public void setPositiveCount(Long positiveCount) { this.positiveCount = positiveCount; }
+    
+    public Long getNegativeCount() { return negativeCount; }
+    public void setNegativeCount(Long negativeCount) { this.negativeCount = negativeCount; }
+    
+    public Long getNeutralCount() { return neutralCount; }
+    public void setNeutralCount(Long neutralCount) { this.neutralCount = neutralCount; }
+    
+    public double getPositiveWeight() { return positiveWeight; }
+    public void setPositiveWeight(double positiveWeight) { this.positiveWeight = positiveWeight; }
+    
+    public double getNegativeWeight() { return negativeWeight; }
+    public void setNegativeWeight(double negativeWeight) { this.negativeWeight = negativeWeight; }
+    
+    public double getNeutralWeight() { return neutralWeight; }
+    public void setNeutralWeight(double neutralWeight) { this.neutralWeight = neutralWeight; }
+    
+    public LocalDateTime getDecayedTo() { return decayedTo; }
+    public void setDecayedTo(LocalDateTime decayedTo) { this.decayedTo = decayedTo; }
+    
+    public LocalDateTime getLastArticleAt() { return lastArticleAt; }
+    public void setLastArticleAt(LocalDateTime lastArticleAt) { this.lastArticleAt = lastArticleAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,29 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.AnalysisRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AnalysisRunRepository extends JpaRepository<AnalysisRun, String> {
+    
+    List<AnalysisRun> findByStatusOrderByStartedAtAsc(AnalysisRun.RunStatus status);
+    
+    List<AnalysisRun> findTop20ByOrderByStartedAtDesc();
+    
+    long countByIdStartingWithAndStatus(String prefix, AnalysisRun.RunStatus status);
+    
+    // Only the first caller flips the run to COMPLETED, so the report is written once
+    @Modifying
+    @Transactional
+    @Query("update AnalysisRun r set r.status = com.example.stockanalyzer.model.AnalysisRun.RunStatus.COMPLETED, " +
+           "r.finishedAt = :now where r.id = :id and r.status = com.example.stockanalyzer.model.AnalysisRun.RunStatus.RUNNING")
+    int markCompleted(@Param("id") String id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,39 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AnalysisRunSymbolRepository extends JpaRepository<AnalysisRunSymbol, Long> {
+    
+    Optional<AnalysisRunSymbol> findByRunIdAndSymbol(String runId, String symbol);
+    
+    List<AnalysisRunSymbol> findByRunId(String runId);
+    
+    @Query("select s.status, count(s) from AnalysisRunSymbol s where s.runId = ?1 group by s.status")
+    List<Object[]> countByStatus(String runId);
+    
+    // Conditional update: only one writer can move a SCORED checkpoint on, whichever commits first
+    @Modifying
+    @Transactional
+    @Query("update AnalysisRunSymbol s set s.status = com.example.stockanalyzer.model.AnalysisRunSymbol.SymbolStatus.PERSISTED, " +
+           "s.newsAnalysisJson = null, s.recommendationJson = null, s.updatedAt = :now " +
+           "where s.runId = :runId and s.symbol = :symbol " +
+           "and s.status = com.example.stockanalyzer.model.AnalysisRunSymbol.SymbolStatus.SCORED")
+    int markPersisted(@Param("runId") String runId, @Param("symbol") String symbol, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("update AnalysisRunSymbol s set s.recommendationId = :recommendationId where s.runId = :runId and s.symbol = :symbol")
+    int setRecommendationId(@Param("runId") String runId, @Param("symbol") String symbol,
+                            @Param("recommendationId") Long recommendationId);
+}
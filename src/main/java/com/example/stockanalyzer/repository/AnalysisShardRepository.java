@@ -0,0 +1,58 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.AnalysisShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AnalysisShardRepository extends JpaRepository<AnalysisShard, Long> {
+    
+    List<AnalysisShard> findByRunIdOrderByShardIndex(String runId);
+    
+    boolean existsByRunId(String runId);
+    
+    long countByRunIdAndStatusNot(String runId, AnalysisShard.ShardStatus status);
+    
+    // Pending shards of the run, plus running ones whose owner stopped renewing its lease
+    @Query("select s from AnalysisShard s where s.runId = :runId " +
+           "and (s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.PENDING " +
+           "or (s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.RUNNING and s.leaseExpiresAt < :now)) " +
+           "order by s.shardIndex")
+    List<AnalysisShard> findClaimable(@Param("runId") String runId, @Param("now") LocalDateTime now);
+    
+    // Conditional update: only one node's claim can match, whichever commits first
+    @Modifying
+    @Transactional
+    @Query("update AnalysisShard s set s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.RUNNING, " +
+           "s.owner = :owner, s.leaseExpiresAt = :leaseUntil, s.attempts = s.attempts + 1 " +
+           "where s.id = :id and (s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.PENDING " +
+           "or (s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.RUNNING and s.leaseExpiresAt < :now))")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("update AnalysisShard s set s.leaseExpiresAt = :leaseUntil " +
+           "where s.id = :id and s.owner = :owner and s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.RUNNING")
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    @Modifying
+    @Transactional
+    @Query("update AnalysisShard s set s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.PENDING, " +
+           "s.owner = null, s.leaseExpiresAt = null " +
+           "where s.owner = :owner and s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.RUNNING")
+    int releaseLeases(@Param("owner") String owner);
+    
+    @Modifying
+    @Transactional
+    @Query("update AnalysisShard s set s.status = com.example.stockanalyzer.model.AnalysisShard.ShardStatus.COMPLETED, " +
+           "s.completedAt = :now where s.id = :id and s.owner = :owner")
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,21 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.PriceAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PriceAlertRepository extends JpaRepository<PriceAlert, Long> {
+    
+    List<PriceAlert> findTop100ByOrderByTriggeredAtDesc();
+    
+    List<PriceAlert> findBySymbolOrderByTriggeredAtDesc(String symbol);
+    
+    @Query("select a.recommendationId from PriceAlert a where a.triggeredAt >= :since")
+    List<Long> findClosedSince(@Param("since") LocalDateTime since);
+}
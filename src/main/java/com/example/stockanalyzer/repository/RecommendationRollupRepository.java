@@ -0,0 +1,34 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.RecommendationRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RecommendationRollupRepository extends JpaRepository<RecommendationRollup, Long> {
+
+    List<RecommendationRollup> findByPeriodAndSymbolInAndBucketStartIn(RecommendationRollup.Period period,
+                                                                       Collection<String> symbols,
+                                                                       Collection<LocalDate> bucketStarts);
+
+    List<RecommendationRollup> findBySymbolAndPeriodAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+        String symbol, RecommendationRollup.Period period, LocalDate from);
+
+    // Whole universe per bucket: counts by type, then risk and price sums for the averages
+    @Query("select r.bucketStart, sum(r.strongBuyCount), sum(r.buyCount), sum(r.holdCount), sum(r.sellCount), " +
+           "sum(r.strongSellCount), sum(r.riskSum), sum(r.riskCount), count(distinct r.symbol) " +
+           "from RecommendationRollup r where r.period = :period and r.bucketStart >= :from " +
+           "group by r.bucketStart order by r.bucketStart")
+    List<Object[]> summarize(@Param("period") RecommendationRollup.Period period, @Param("from") LocalDate from);
+
+    @Modifying
+    @Query("delete from RecommendationRollup r where r.period = :period and r.bucketStart < :before")
+    int deleteOlderThan(@Param("period") RecommendationRollup.Period period, @Param("before") LocalDate before);
+}
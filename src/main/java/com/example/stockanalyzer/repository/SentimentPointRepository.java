@@ -0,0 +1,17 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.SentimentPoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SentimentPointRepository extends JpaRepository<SentimentPoint, Long> {
+
+    Optional<SentimentPoint> findBySymbolAndDay(String symbol, LocalDate day);
+
+    List<SentimentPoint> findBySymbolAndDayGreaterThanEqualOrderByDayAsc(String symbol, LocalDate from);
+}
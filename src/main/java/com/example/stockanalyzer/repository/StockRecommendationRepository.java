@@ -1,9 +1,15 @@
 package com.example.stockanalyzer.repository;
 
+import com.example.stockanalyzer.model.RecommendationSignal;
 import com.example.stockanalyzer.model.StockRecommendation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,4 +20,56 @@ public interface StockRecommendationRepository extends JpaRepository<StockRecomm
     List<StockRecommendation> findByRecommendationOrderByGeneratedAtDesc(StockRecommendation.RecommendationType recommendation);
     
     List<StockRecommendation> findTop10ByOrderByGeneratedAtDesc();
+    
+    List<StockRecommendation> findByRunId(String runId);
+    
+    // One row per symbol; of rows generated at the same instant the highest id wins
+    @Query("select r from StockRecommendation r where not exists (select r2 from StockRecommendation r2 " +
+           "where r2.symbol = r.symbol and (r2.generatedAt > r.generatedAt " +
+           "or (r2.generatedAt = r.generatedAt and r2.id > r.id)))")
+    List<StockRecommendation> findLatestPerSymbol();
+    
+    List<StockRecommendation> findByGeneratedAtGreaterThanEqualOrderByGeneratedAtAsc(LocalDateTime since);
+    
+    List<StockRecommendation> findByIdGreaterThanOrderByIdAsc(Long id);
+    
+    // Entry, target and stop of recommendations from id onwards, for the price alert engine
+    @Query("select r.id, r.symbol, r.currentPrice, r.targetPrice, r.stopLoss, r.generatedAt " +
+           "from StockRecommendation r where r.id > :id and r.generatedAt >= :since order by r.id")
+    List<Object[]> findLevels(@Param("id") Long id, @Param("since") LocalDateTime since);
+    
+    // Just the columns a backtest replays, grouped by symbol
+    @Query("select new com.example.stockanalyzer.model.RecommendationSignal(" +
+           "r.symbol, r.generatedAt, r.recommendation, r.currentPrice, r.targetPrice, r.stopLoss) " +
+           "from StockRecommendation r where r.generatedAt >= :from and r.generatedAt < :to " +
+           "order by r.symbol, r.generatedAt")
+    List<RecommendationSignal> findSignals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Rows not yet counted in the rollups, oldest id first; rolledUp is null on rows written before the column existed
+    @Query("select r.id, r.symbol, r.generatedAt, r.recommendation, r.currentPrice, r.riskLevel " +
+           "from StockRecommendation r where (r.rolledUp = false or r.rolledUp is null) and r.generatedAt < :before " +
+           "order by r.id")
+    List<Object[]> findNotRolledUp(@Param("before") LocalDateTime before, Pageable page);
+    
+    @Modifying
+    @Query("update StockRecommendation r set r.rolledUp = true where r.id in :ids")
+    int markRolledUp(@Param("ids") List<Long> ids);
+    
+    // Rolled-up rows past retention; each symbol's newest row is kept so it always has a latest call
+    @Query("select r.id, r.symbol from StockRecommendation r where r.rolledUp = true and r.generatedAt < :cutoff " +
+           "and r.generatedAt < (select max(r2.generatedAt) from StockRecommendation r2 where r2.symbol = r.symbol) " +
+           "order by r.id")
+    List<Object[]> findPrunable(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+    
+    @Modifying
+    @Query(value = "delete from recommendation_keywords where recommendation_id in (:ids)", nativeQuery = true)
+    int deleteKeywords(@Param("ids") List<Long> ids);
+    
+    @Modifying
+    @Query(value = "delete from recommendation_sources where recommendation_id in (:ids)", nativeQuery = true)
+    int deleteSources(@Param("ids") List<Long> ids);
+    
+    @Modifying
+    @Query("delete from StockRecommendation r where r.id in :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,20 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.SymbolSentimentState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SymbolSentimentStateRepository extends JpaRepository<SymbolSentimentState, String> {
+
+    // Row lock held until the transaction ends, so concurrent updates of one symbol are applied one after the other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SymbolSentimentState s where s.symbol = :symbol")
+    Optional<SymbolSentimentState> findForUpdate(@Param("symbol") String symbol);
+}
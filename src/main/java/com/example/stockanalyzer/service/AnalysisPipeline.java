@@ -0,0 +1,222 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.core.AnalysisEvents;
+import com.example.stockanalyzer.core.MarketDataClient;
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
+import com.example.stockanalyzer.model.NewsAnalysis;
+import com.example.stockanalyzer.model.StockRecommendation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Works a batch of symbols through scrape, analyze, price and recommend stages linked by bounded
+ * queues ({@code automation.pipeline.*}), then hands each recommendation to
+ * {@link RecommendationWriteBehind}. Each stage has its own thread count, so the network-bound
+ * stages can overlap while scoring stays narrow. A full queue blocks the stage feeding it, which
+ * caps the symbols in flight whatever the batch size; database latency only holds scoring back
+ * once the write-behind queue is full. Symbols enter at the stage after their last checkpoint; a
+ * failure is recorded against the checkpoint and the symbol leaves the pipeline.
+ */
+@Service
+public class AnalysisPipeline {
+
+    private static final Logger log = Logger.getLogger(AnalysisPipeline.class.getName());
+
+    @Autowired
+    private AutomationService automationService;
+
+    @Autowired
+    private NewsScrapingService newsScrapingService;
+
+    @Autowired
+    private RecommendationEngineService recommendationEngineService;
+
+    @Autowired
+    private SymbolMasterService symbolMasterService;
+
+    @Autowired
+    private RecommendationWriteBehind writeBehind;
+
+    @Autowired
+    private MarketDataClient marketDataClient;
+
+    // Each scrape fans out to every news source on the scraper's shared pool
+    @Value("${automation.pipeline.scrapeConcurrency:2}")
+    private int scrapeConcurrency;
+
+    @Value("${automation.pipeline.analyzeConcurrency:2}")
+    private int analyzeConcurrency;
+
+    @Value("${automation.pipeline.priceConcurrency:4}")
+    private int priceConcurrency;
+
+    @Value("${automation.pipeline.recommendConcurrency:1}")
+    private int recommendConcurrency;
+
+    @Value("${automation.pipeline.queueCapacity:8}")
+    private int queueCapacity;
+
+    @Value("${automation.pipeline.renewMs:30000}")
+    private long renewMs;
+
+    private static final class SymbolWork {
+        private final String symbol;
+        private AnalysisRunSymbol checkpoint;
+        private NewsScrapingService.ScrapedNews scraped;
+        private NewsAnalysis analysis;
+        private MarketDataClient.Quote quote;
+        private StockRecommendation recommendation;
+
+        private SymbolWork(String symbol, AnalysisRunSymbol checkpoint) {
+            this.symbol = symbol;
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    private interface Step {
+        void run(SymbolWork work) throws Exception;
+    }
+
+    /**
+     * Runs {@code symbols} of {@code runId} through the stages. {@code renewLease} is called as work
+     * is handed in and periodically while the stages drain; once it returns false the batch is
+     * abandoned. Returns true if every symbol went through.
+     */
+    public boolean run(String runId, List<String> symbols, BooleanSupplier renewLease) throws InterruptedException {
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicLong lastQueued = new AtomicLong();
+
+        PipelineStage<SymbolWork> recommend = stage("recommend", recommendConcurrency, aborted, work -> {
+            work.recommendation = recommendationEngineService.createRecommendation(work.analysis, work.quote);
+            work.checkpoint = automationService.recordScored(work.checkpoint, work.recommendation);
+            work.analysis = null;
+            try {
+                lastQueued.accumulateAndGet(writeBehind.enqueue(work.checkpoint, work.recommendation), Math::max);
+            } catch (RejectedExecutionException e) {
+                // Shutting down: the checkpoint stays SCORED and the batch is abandoned, not failed
+                aborted.set(true);
+                throw e;
+            }
+        }, null);
+        PipelineStage<SymbolWork> price = stage("price", priceConcurrency, aborted, work ->
+            work.quote = marketDataClient.fetchQuote(work.symbol), recommend);
+        PipelineStage<SymbolWork> analyze = stage("analyze", analyzeConcurrency, aborted, work -> {
+            NewsScrapingService.Ingestion ingestion =
+                newsScrapingService.ingestScrapedNews(work.scraped, symbolMasterService.getCompanyName(work.symbol));
+            work.scraped = null;
+            work.checkpoint = automationService.recordScraped(work.checkpoint, ingestion.analysis());
+            // Only once the checkpoint holds the analysis; until then a retry must see the articles again
+            newsScrapingService.commitIngestion(ingestion);
+            work.analysis = ingestion.analysis();
+        }, price);
+        PipelineStage<SymbolWork> scrape = stage("scrape", scrapeConcurrency, aborted, work ->
+            work.scraped = newsScrapingService.scrapeStockNews(work.symbol), analyze);
+        List<PipelineStage<SymbolWork>> stages = List.of(scrape, analyze, price, recommend);
+        stages.forEach(PipelineStage::start);
+
+        try {
+            // Symbols resume at the stage after their last checkpoint
+            for (String symbol : symbols) {
+                if (!renewLease.getAsBoolean()) {
+                    aborted.set(true);
+                    break;
+                }
+                AnalysisRunSymbol checkpoint = automationService.resumeSymbol(runId, symbol);
+                if (checkpoint == null) {
+                    continue;
+                }
+                SymbolWork work = new SymbolWork(symbol, checkpoint);
+                try {
+                    switch (checkpoint.getStatus()) {
+                        case SCORED -> lastQueued.accumulateAndGet(
+                            writeBehind.enqueue(checkpoint, automationService.restoreRecommendation(checkpoint)), Math::max);
+                        case SCRAPED -> {
+                            work.analysis = automationService.restoreAnalysis(checkpoint);
+                            price.submit(work);
+                        }
+                        default -> scrape.submit(work);
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (RejectedExecutionException e) {
+                    aborted.set(true);
+                    break;
+                } catch (Exception e) {
+                    automationService.recordFailure(checkpoint, e);
+                }
+            }
+
+            // Upstream stages are finished before a stage is closed, so nothing is lost in between
+            for (PipelineStage<SymbolWork> stage : stages) {
+                stage.close();
+                while (!stage.awaitDrained(renewMs)) {
+                    if (!aborted.get() && !renewLease.getAsBoolean()) {
+                        aborted.set(true);
+                        stages.forEach(PipelineStage::abort);
+                    }
+                }
+            }
+            // The shard is done once its rows are in the database; if the lease goes first, rows still
+            // queued are dropped and left to the node that takes the shard over
+            while (!aborted.get() && !writeBehind.awaitWritten(lastQueued.get(), renewMs)) {
+                if (!renewLease.getAsBoolean()) {
+                    aborted.set(true);
+                }
+            }
+        } finally {
+            stages.forEach(PipelineStage::abort);
+            if (aborted.get()) {
+                writeBehind.discard(runId, symbols);
+            }
+        }
+
+        StringBuilder summary = new StringBuilder("Pipeline for " + symbols.size() + " symbols of run " + runId + ":");
+        stages.forEach(stage -> summary.append("\n  ").append(stage.summary()));
+        summary.append("\n  write-behind ").append(writeBehind.getStats());
+        log.info(summary.toString());
+        return !aborted.get();
+    }
+
+    // Runs the step and hands the symbol on, or records the failure against its checkpoint
+    private PipelineStage<SymbolWork> stage(String name, int workers, AtomicBoolean aborted, Step step,
+                                            PipelineStage<SymbolWork> next) {
+        return new PipelineStage<>(name, workers, queueCapacity, work -> {
+            if (aborted.get()) {
+                return;
+            }
+            AnalysisEvents.StageEvent event = new AnalysisEvents.StageEvent();
+            event.begin();
+            try {
+                step.run(work);
+            } catch (Exception e) {
+                event.error = AnalysisEvents.describe(e);
+                if (!aborted.get()) {
+                    automationService.recordFailure(work.checkpoint, e);
+                }
+                return;
+            } finally {
+                if (event.shouldCommit()) {
+                    event.runId = work.checkpoint.getRunId();
+                    event.symbol = work.symbol;
+                    event.stage = name;
+                    event.commit();
+                }
+            }
+            if (next != null) {
+                try {
+                    next.submit(work);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+}
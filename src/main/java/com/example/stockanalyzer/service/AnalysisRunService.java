@@ -0,0 +1,131 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.AnalysisRun;
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
+import com.example.stockanalyzer.model.AnalysisShard;
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.AnalysisRunRepository;
+import com.example.stockanalyzer.repository.AnalysisRunSymbolRepository;
+import com.example.stockanalyzer.repository.AnalysisShardRepository;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Durable state of analysis runs: the run itself, its shards and a checkpoint per symbol.
+ */
+@Service
+public class AnalysisRunService {
+    
+    @Autowired
+    private AnalysisRunRepository runRepository;
+    
+    @Autowired
+    private AnalysisRunSymbolRepository runSymbolRepository;
+    
+    @Autowired
+    private AnalysisShardRepository shardRepository;
+    
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+    
+    @Autowired
+    private RecommendationCache recommendationCache;
+    
+    // Run, checkpoints and shards appear together or not at all
+    @Transactional
+    public void createRun(AnalysisRun run, List<String> symbols, List<AnalysisShard> shards) {
+        runRepository.save(run);
+        runSymbolRepository.saveAll(symbols.stream()
+            .map(symbol -> new AnalysisRunSymbol(run.getId(), symbol))
+            .toList());
+        shardRepository.saveAll(shards);
+    }
+    
+    /** Unfinished runs, oldest first; only the first one is being worked on. */
+    public List<AnalysisRun> findActiveRuns() {
+        return runRepository.findByStatusOrderByStartedAtAsc(AnalysisRun.RunStatus.RUNNING);
+    }
+    
+    public List<AnalysisRun> findRecentRuns() {
+        return runRepository.findTop20ByOrderByStartedAtDesc();
+    }
+    
+    public long countCompletedRunsWithPrefix(String prefix) {
+        return runRepository.countByIdStartingWithAndStatus(prefix, AnalysisRun.RunStatus.COMPLETED);
+    }
+    
+    public boolean exists(String runId) {
+        return runRepository.existsById(runId);
+    }
+    
+    public Optional<AnalysisRun> findRun(String runId) {
+        return runRepository.findById(runId);
+    }
+    
+    public AnalysisRunSymbol checkpoint(String runId, String symbol) {
+        return runSymbolRepository.findByRunIdAndSymbol(runId, symbol)
+            .orElseGet(() -> runSymbolRepository.save(new AnalysisRunSymbol(runId, symbol)));
+    }
+    
+    public AnalysisRunSymbol save(AnalysisRunSymbol checkpoint) {
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return runSymbolRepository.save(checkpoint);
+    }
+    
+    /**
+     * Saves the recommendations of SCORED checkpoints and marks them PERSISTED in one transaction, so a
+     * resumed run never saves one twice. Each checkpoint is claimed with a conditional update before its
+     * row is inserted; one another node already persisted, or that is no longer SCORED, is skipped.
+     * Returns the number of recommendations saved.
+     */
+    @Transactional
+    public int persistRecommendations(List<AnalysisRunSymbol> checkpoints, List<StockRecommendation> recommendations) {
+        LocalDateTime now = LocalDateTime.now();
+        List<AnalysisRunSymbol> claimed = new ArrayList<>(checkpoints.size());
+        List<StockRecommendation> toSave = new ArrayList<>(checkpoints.size());
+        for (int i = 0; i < checkpoints.size(); i++) {
+            AnalysisRunSymbol checkpoint = checkpoints.get(i);
+            if (runSymbolRepository.markPersisted(checkpoint.getRunId(), checkpoint.getSymbol(), now) == 1) {
+                claimed.add(checkpoint);
+                toSave.add(recommendations.get(i));
+            }
+        }
+        List<StockRecommendation> saved = recommendationRepository.saveAll(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            AnalysisRunSymbol checkpoint = claimed.get(i);
+            runSymbolRepository.setRecommendationId(checkpoint.getRunId(), checkpoint.getSymbol(), saved.get(i).getId());
+            recommendationCache.recordSaved(saved.get(i));
+            checkpoint.setRecommendationId(saved.get(i).getId());
+            checkpoint.setStatus(AnalysisRunSymbol.SymbolStatus.PERSISTED);
+            checkpoint.setNewsAnalysisJson(null);
+            checkpoint.setRecommendationJson(null);
+            checkpoint.setUpdatedAt(now);
+        }
+        return saved.size();
+    }
+    
+    /** Returns true for exactly one caller, the one that completed the run. */
+    public boolean markCompleted(String runId) {
+        return runRepository.markCompleted(runId, LocalDateTime.now()) == 1;
+    }
+    
+    public Map<String, Long> getProgress(String runId) {
+        Map<String, Long> progress = new LinkedHashMap<>();
+        for (AnalysisRunSymbol.SymbolStatus status : AnalysisRunSymbol.SymbolStatus.values()) {
+            progress.put(status.name(), 0L);
+        }
+        for (Object[] row : runSymbolRepository.countByStatus(runId)) {
+            progress.put(row[0].toString(), (Long) row[1]);
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.AnalysisRun;
+import com.example.stockanalyzer.model.AnalysisShard;
+import com.example.stockanalyzer.repository.AnalysisShardRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Splits an analysis run's universe into shards stored in the database and works through them.
+ * Every node polls for claimable shards, so a run planned on one node is spread over all of
+ * them; a node that dies stops renewing its leases and its shards are picked up by the others.
+ * Runs are worked strictly one at a time, oldest first, so a scheduled and a manual run never
+ * hit the upstream sites concurrently.
+ */
+@Service
+public class AnalysisShardCoordinator {
+    
+    private static final Logger log = Logger.getLogger(AnalysisShardCoordinator.class.getName());
+    
+    @Autowired
+    private AnalysisShardRepository shardRepository;
+    
+    @Autowired
+    private AutomationService automationService;
+    
+    @Autowired
+    private AnalysisPipeline analysisPipeline;
+    
+    @Autowired
+    private RecommendationEngineService recommendationEngineService;
+    
+    @Autowired
+    private AnalysisRunService analysisRunService;
+    
+    // Limit stocks per run to avoid rate limiting
+    @Value("${automation.maxSymbolsPerRun:10}")
+    private int maxSymbolsPerRun;
+    
+    @Value("${automation.cluster.shards:4}")
+    private int shardCount;
+    
+    @Value("${automation.cluster.leaseMs:300000}")
+    private long leaseMs;
+    
+    @Value("${automation.cluster.nodeId:}")
+    private String configuredNodeId;
+    
+    @Value("${automation.zone:America/New_York}")
+    private String zone;
+    
+    // Pause before a shard's failed symbols go through the pipeline again
+    @Value("${automation.symbolRetryDelayMs:10000}")
+    private long symbolRetryDelayMs;
+    
+    private String nodeId;
+    
+    private final ReentrantLock workerLock = new ReentrantLock();
+    
+    // Shards are worked on their own thread, never on the shared scheduler thread that every other
+    // @Scheduled task needs. One pass at a time plus at most one waiting; further requests are
+    // dropped because the waiting pass picks up whatever they would have found.
+    private final ExecutorService shardWorker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1), runnable -> {
+            Thread thread = new Thread(runnable, "analysis-shard-worker");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            nodeId = configuredNodeId;
+        } else {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown";
+            }
+            nodeId = host + ":" + ProcessHandle.current().pid();
+        }
+    }
+    
+    // A restarted node with a stable id hands its unfinished shards back right away instead of
+    // waiting for their leases to expire
+    @EventListener(ApplicationReadyEvent.class)
+    public void releaseStaleLeases() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            int released = shardRepository.releaseLeases(nodeId);
+            if (released > 0) {
+                log.info("Released " + released + " shards left running by a previous " + nodeId);
+            }
+        }
+    }
+    
+    public String scheduledRunId() {
+        return "daily-" + LocalDate.now(ZoneId.of(zone));
+    }
+    
+    // The day's manual runs are numbered after the completed ones, so nodes triggering while no run
+    // is active pick the same id, whether or not another node's run has been created yet, and only
+    // one of them can create it
+    public String manualRunId() {
+        String prefix = "manual-" + LocalDate.now(ZoneId.of(zone)) + "-";
+        return prefix + (analysisRunService.countCompletedRunsWithPrefix(prefix) + 1);
+    }
+    
+    /** Creates the run, its checkpoints and shards unless some node already did. Safe to call from several nodes at once. */
+    public String planRun(String runId, AnalysisRun.RunTrigger trigger) {
+        createRun(runId, trigger);
+        return runId;
+    }
+    
+    // True only for the caller that created the run
+    private boolean createRun(String runId, AnalysisRun.RunTrigger trigger) {
+        if (analysisRunService.exists(runId)) {
+            return false;
+        }
+        
+        List<String> universe = recommendationEngineService.getPopularStocks().stream()
+            .limit(maxSymbolsPerRun)
+            .toList();
+        int shards = Math.max(1, Math.min(shardCount, universe.size()));
+        List<List<String>> parts = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (int i = 0; i < universe.size(); i++) {
+            parts.get(i % shards).add(universe.get(i));
+        }
+        
+        List<AnalysisShard> rows = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            rows.add(new AnalysisShard(runId, i, parts.get(i)));
+        }
+        try {
+            analysisRunService.createRun(new AnalysisRun(runId, trigger, universe.size()), universe, rows);
+            log.info("Planned run " + runId + ": " + universe.size() + " symbols in " + shards + " shards");
+            if (universe.isEmpty()) {
+                // Nothing to do; don't let an empty run block the queue
+                analysisRunService.markCompleted(runId);
+            }
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another node planned the same run first
+            return false;
+        }
+    }
+    
+    /**
+     * Single-flight manual trigger: attaches to the run in progress if there is one, otherwise plans
+     * a new run and starts working on it in the background. Never blocks on the analysis itself.
+     * Across nodes the numbered run id keeps concurrent triggers on one run: the node whose insert
+     * loses attaches to the winner's run.
+     */
+    public synchronized RunTicket triggerManualRun() {
+        List<AnalysisRun> active = analysisRunService.findActiveRuns();
+        if (!active.isEmpty()) {
+            return new RunTicket(active.get(0).getId(), true);
+        }
+        String runId = manualRunId();
+        boolean created = createRun(runId, AnalysisRun.RunTrigger.MANUAL);
+        shardWorker.execute(this::processAvailableShards);
+        return new RunTicket(runId, !created);
+    }
+    
+    public record RunTicket(String runId, boolean attached) {}
+    
+    @Scheduled(fixedDelayString = "${automation.cluster.pollMs:15000}", initialDelayString = "${automation.cluster.pollMs:15000}")
+    public void pollShards() {
+        shardWorker.execute(this::processAvailableShards);
+    }
+    
+    private void processAvailableShards() {
+        if (!workerLock.tryLock()) {
+            return;
+        }
+        try {
+            AnalysisShard shard;
+            while ((shard = claimNext()) != null) {
+                processShard(shard);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warning("Shard processing failed on " + nodeId + ": " + e.getMessage());
+        } finally {
+            workerLock.unlock();
+        }
+    }
+    
+    public List<AnalysisShard> getShards(String runId) {
+        return shardRepository.findByRunIdOrderByShardIndex(runId);
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+    
+    private AnalysisShard claimNext() {
+        // Only the oldest unfinished run is worked on; later runs wait their turn. A run whose shards
+        // are all complete but which is still RUNNING lost its completing node in between; it is
+        // completed here so it does not block the queue.
+        for (AnalysisRun run : analysisRunService.findActiveRuns()) {
+            if (completeRunIfDone(run.getId())) {
+                log.info("Completed run " + run.getId() + " left running after its last shard");
+                continue;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (AnalysisShard candidate : shardRepository.findClaimable(run.getId(), now)) {
+                if (shardRepository.claim(candidate.getId(), nodeId, now.plusNanos(leaseMs * 1_000_000L), now) == 1) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+        return null;
+    }
+    
+    // Completes the run once none of its shards is left; true for the one caller that completed it
+    private boolean completeRunIfDone(String runId) {
+        if (shardRepository.countByRunIdAndStatusNot(runId, AnalysisShard.ShardStatus.COMPLETED) == 0
+            && analysisRunService.markCompleted(runId)) {
+            automationService.completeRun(runId);
+            return true;
+        }
+        return false;
+    }
+    
+    private void processShard(AnalysisShard shard) throws InterruptedException {
+        log.info("Node " + nodeId + " processing shard " + shard.getShardIndex() + " of run " + shard.getRunId());
+        // Symbols already persisted by an earlier owner of this shard are skipped by their checkpoint.
+        // The lease is renewed as symbols go in and while they drain; losing it means another node
+        // has taken the shard over. A failed symbol keeps its last checkpoint and goes through again
+        // until it is persisted or has used up automation.maxSymbolAttempts; each pass costs every
+        // failing symbol an attempt, so that many passes are enough.
+        List<String> remaining = shard.getSymbolList();
+        for (int pass = 1; !remaining.isEmpty(); pass++) {
+            if (pass > 1) {
+                log.info("Retrying " + remaining.size() + " symbols of shard " + shard.getShardIndex()
+                    + " of run " + shard.getRunId() + " (pass " + pass + "): " + remaining);
+                Thread.sleep(symbolRetryDelayMs);
+            }
+            boolean finished = analysisPipeline.run(shard.getRunId(), remaining, () ->
+                shardRepository.renewLease(shard.getId(), nodeId, LocalDateTime.now().plusNanos(leaseMs * 1_000_000L)) == 1);
+            if (!finished) {
+                log.warning("Lost lease on shard " + shard.getShardIndex() + " of run " + shard.getRunId());
+                return;
+            }
+            remaining = automationService.unfinishedSymbols(shard.getRunId(), remaining);
+            if (!remaining.isEmpty() && pass >= automationService.getMaxSymbolAttempts()) {
+                log.warning("Shard " + shard.getShardIndex() + " of run " + shard.getRunId()
+                    + " still has unfinished symbols after " + pass + " passes: " + remaining);
+                break;
+            }
+        }
+        shardRepository.complete(shard.getId(), nodeId, LocalDateTime.now());
+        
+        completeRunIfDone(shard.getRunId());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Elements;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Pulls the articles that mention a symbol out of a news listing page, either from a complete Jsoup
+ * {@link Document} or while a {@link StreamParser} reads the page. Both stop after
+ * {@code maxArticles} matches, so they return the same articles for the same page.
+ */
+public final class ArticleExtractor {
+
+    private static final String ARTICLE_SELECTOR = "article, .article, .news-item, .story";
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private ArticleExtractor() {
+    }
+
+    // Pulls articles out while the page is being parsed: each matching element is handed over as
+    // soon as its closing tag is read and then detached, so the tree never holds more than the
+    // page chrome plus one article, and parsing stops once enough articles have matched
+    public static ArticleBatch extractStreaming(StreamParser streamer, String sourceUrl, String symbol,
+                                                int maxArticles) throws IOException {
+        ArticleBatch newsItems = new ArticleBatch(Math.min(maxArticles, INITIAL_CAPACITY));
+        try (streamer) {
+            Element article;
+            while (newsItems.size() < maxArticles && (article = streamer.selectNext(ARTICLE_SELECTOR)) != null) {
+                extractArticle(article, sourceUrl, symbol, newsItems);
+                article.remove();
+            }
+            streamer.stop();
+        }
+        return newsItems;
+    }
+
+    public static ArticleBatch extract(Document doc, String sourceUrl, String symbol, int maxArticles) {
+        ArticleBatch newsItems = new ArticleBatch(Math.min(maxArticles, INITIAL_CAPACITY));
+        for (Element article : doc.select(ARTICLE_SELECTOR)) {
+            extractArticle(article, sourceUrl, symbol, newsItems);
+            if (newsItems.size() >= maxArticles) {
+                break;
+            }
+        }
+        return newsItems;
+    }
+
+    private static void extractArticle(Element article, String sourceUrl, String symbol, ArticleBatch into) {
+        try {
+            String title = extractText(article.select("h1, h2, h3, .title, .headline"));
+            String content = extractText(article.select("p, .content, .summary"));
+            String url = extractUrl(article.select("a"));
+
+            if (title != null && !title.isEmpty() && (symbol == null ||
+                mentions(title.toLowerCase(), content.toLowerCase(), symbol.toLowerCase()))) {
+
+                into.add(title, content, sourceUrl, url, extractPublishedAt(article));
+            }
+        } catch (Exception e) {
+        }
+    }
+
+    /** Whether ingestion counts an article as being about a symbol; all three arguments lower-cased. */
+    public static boolean mentions(String lowerTitle, String lowerContent, String lowerSymbol) {
+        return lowerTitle.contains(lowerSymbol) || (lowerContent != null && lowerContent.contains(lowerSymbol));
+    }
+
+    private static String extractText(Elements elements) {
+        return elements.stream()
+            .map(Element::text)
+            .filter(text -> text != null && !text.trim().isEmpty())
+            .findFirst()
+            .orElse("");
+    }
+
+    // Null when the page has no usable stamp; the scrape time is not a publish time
+    private static LocalDateTime extractPublishedAt(Element article) {
+        Element stamp = article.selectFirst("time[datetime], [data-timestamp], meta[itemprop=datePublished]");
+        if (stamp != null) {
+            for (String attr : List.of("datetime", "data-timestamp", "content")) {
+                LocalDateTime parsed = parseTimestamp(stamp.attr(attr));
+                if (parsed != null) {
+                    return parsed;
+                }
+            }
+        }
+        return null;
+    }
+
+    static LocalDateTime parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        ZoneId zone = ZoneId.systemDefault();
+        if (text.chars().allMatch(Character::isDigit)) {
+            long epoch = Long.parseLong(text);
+            // Ten digits or fewer is epoch seconds; longer values are epoch millis
+            Instant instant = text.length() <= 10 ? Instant.ofEpochSecond(epoch) : Instant.ofEpochMilli(epoch);
+            return LocalDateTime.ofInstant(instant, zone);
+        }
+        try {
+            return OffsetDateTime.parse(text).atZoneSameInstant(zone).toLocalDateTime();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return ZonedDateTime.parse(text).withZoneSameInstant(zone).toLocalDateTime();
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException ignored) {
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay();
+        } catch (DateTimeParseException ignored) {
+        }
+        return null;
+    }
+
+    private static String extractUrl(Elements elements) {
+        return elements.stream()
+            .map(element -> element.attr("href"))
+            .filter(url -> url != null && !url.isEmpty())
+            .findFirst()
+            .orElse("");
+    }
+}
@@ -1,20 +1,21 @@
 package com.example.stockanalyzer.service;
 
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
 import com.example.stockanalyzer.model.NewsAnalysis;
+import com.example.stockanalyzer.model.PortfolioRisk;
 import com.example.stockanalyzer.model.StockRecommendation;
 import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 @Service
@@ -23,71 +24,102 @@ public class AutomationService {
     private static final Logger log = Logger.getLogger(AutomationService.class.getName());
     
     @Autowired
-    private NewsScrapingService newsScrapingService;
+    private StockRecommendationRepository recommendationRepository;
     
     @Autowired
-    private RecommendationEngineService recommendationEngineService;
+    private AnalysisRunService analysisRunService;
     
     @Autowired
-    private StockRecommendationRepository recommendationRepository;
+    private RiskService riskService;
     
-    private final ExecutorService executorService = Executors.newFixedThreadPool(5);
+    @Autowired
+    private RecommendationCache recommendationCache;
     
-    // Run daily at 9 PM EST
-    @Scheduled(cron = "0 0 21 * * *", zone = "America/New_York")
-    public void runDailyAnalysis() {
-        
-        try {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    performDailyAnalysis();
-                } catch (Exception e) {
-                }
-            }, executorService);
-            
-        } catch (Exception e) {
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${automation.maxSymbolAttempts:3}")
+    private int maxSymbolAttempts;
+    
+    // Checkpoints of a symbol's way through a run. Each stage's output is saved before the next
+    // starts, so a retry or a resumed run repeats at most the stage that was interrupted.
+    
+    /** The symbol's checkpoint, or null if it is already persisted or has failed for good. */
+    public AnalysisRunSymbol resumeSymbol(String runId, String symbol) {
+        AnalysisRunSymbol checkpoint = analysisRunService.checkpoint(runId, symbol);
+        if (checkpoint.getStatus() == AnalysisRunSymbol.SymbolStatus.PERSISTED
+            || checkpoint.getStatus() == AnalysisRunSymbol.SymbolStatus.FAILED) {
+            return null;
         }
+        return checkpoint;
     }
     
-    public void performDailyAnalysis() {
-        
-        try {
-            // Get popular stocks to analyze
-            List<String> stocksToAnalyze = recommendationEngineService.getPopularStocks();
-            
-            // Analyze news for each stock
-            List<NewsAnalysis> newsAnalyses = stocksToAnalyze.stream()
-                .limit(10) // Limit to 10 stocks per day to avoid rate limiting
-                .map(symbol -> {
-                    try {
-                        return newsScrapingService.analyzeStockNews(symbol, getCompanyName(symbol));
-                    } catch (Exception e) {
-                        return null;
-                    }
-                })
-                .filter(analysis -> analysis != null)
-                .collect(java.util.stream.Collectors.toList());
-            
-            // Generate recommendations
-            List<StockRecommendation> recommendations = recommendationEngineService.generateRecommendations(newsAnalyses);
-            
-            // Save recommendations to database
-            recommendationRepository.saveAll(recommendations);
-            
-            // Write recommendations to file
-            writeRecommendationsToFile(recommendations);
-            
-            // Log summary
-            System.out.println("Daily analysis completed. Generated " + recommendations.size() + " recommendations for " + newsAnalyses.size() + " stocks");
-            
-            // Log top recommendations
-            recommendations.stream()
-                .filter(r -> r.getRecommendation() == StockRecommendation.RecommendationType.STRONG_BUY)
-                .limit(3)
-                .forEach(r -> System.out.println("Strong Buy: " + r.getSymbol() + " at $" + String.format("%.2f", r.getCurrentPrice())));
-            
-        } catch (Exception e) {
+    /** Symbols of {@code symbols} that are neither persisted nor failed for good, i.e. still to be retried. */
+    public List<String> unfinishedSymbols(String runId, List<String> symbols) {
+        return symbols.stream()
+            .filter(symbol -> resumeSymbol(runId, symbol) != null)
+            .toList();
+    }
+    
+    public int getMaxSymbolAttempts() {
+        return maxSymbolAttempts;
+    }
+    
+    public NewsAnalysis restoreAnalysis(AnalysisRunSymbol checkpoint) throws IOException {
+        return objectMapper.readValue(checkpoint.getNewsAnalysisJson(), NewsAnalysis.class);
+    }
+    
+    public StockRecommendation restoreRecommendation(AnalysisRunSymbol checkpoint) throws IOException {
+        return objectMapper.readValue(checkpoint.getRecommendationJson(), StockRecommendation.class);
+    }
+    
+    public AnalysisRunSymbol recordScraped(AnalysisRunSymbol checkpoint, NewsAnalysis analysis) throws IOException {
+        checkpoint.setNewsAnalysisJson(objectMapper.writeValueAsString(analysis));
+        checkpoint.setStatus(AnalysisRunSymbol.SymbolStatus.SCRAPED);
+        return analysisRunService.save(checkpoint);
+    }
+    
+    public AnalysisRunSymbol recordScored(AnalysisRunSymbol checkpoint, StockRecommendation recommendation) throws IOException {
+        if (recommendation == null) {
+            throw new IllegalStateException("no recommendation could be generated");
         }
+        recommendation.setRunId(checkpoint.getRunId());
+        checkpoint.setRecommendationJson(objectMapper.writeValueAsString(recommendation));
+        checkpoint.setStatus(AnalysisRunSymbol.SymbolStatus.SCORED);
+        return analysisRunService.save(checkpoint);
+    }
+    
+    // Keep the last good stage so the next attempt resumes from it
+    public void recordFailure(AnalysisRunSymbol checkpoint, Exception e) {
+        checkpoint.setAttempts(checkpoint.getAttempts() + 1);
+        checkpoint.setLastError(truncate(e.toString(), 1000));
+        if (checkpoint.getAttempts() >= maxSymbolAttempts) {
+            checkpoint.setStatus(AnalysisRunSymbol.SymbolStatus.FAILED);
+        }
+        analysisRunService.save(checkpoint);
+        log.warning("Analysis of " + checkpoint.getSymbol() + " in run " + checkpoint.getRunId() + " failed: " + e.getMessage());
+    }
+    
+    private static String truncate(String text, int maxLength) {
+        return text.length() <= maxLength ? text : text.substring(0, maxLength);
+    }
+    
+    // Called exactly once, by the node that completes the run's last shard
+    @Transactional(readOnly = true)
+    public void completeRun(String runId) {
+        List<StockRecommendation> recommendations = recommendationRepository.findByRunId(runId);
+        
+        // Write recommendations to file
+        writeRecommendationsToFile(recommendations);
+        
+        // Log summary
+        log.info("Analysis run " + runId + " completed. Generated " + recommendations.size() + " recommendations");
+        
+        // Log top recommendations
+        recommendations.stream()
+            .filter(r -> r.getRecommendation() == StockRecommendation.RecommendationType.STRONG_BUY)
+            .limit(3)
+            .forEach(r -> log.info("Strong Buy: " + r.getSymbol() + " at $" + String.format("%.2f", r.getCurrentPrice())));
     }
     
     private void writeRecommendationsToFile(List<StockRecommendation> recommendations) {
@@ -98,6 +130,15 @@ public class AutomationService {
             writer.write("=== DAILY STOCK RECOMMENDATIONS ===\n");
             writer.write("Generated at: " + LocalDateTime.now() + "\n\n");
             
+            PortfolioRisk risk = riskService.portfolioRisk(recommendations);
+            if (risk.getAnnualizedVolatility() != null) {
+                writer.write(String.format("Portfolio: %d positions (%d long, %d short)\n", risk.getPositions(), risk.getLongs(), risk.getShorts()));
+                writer.write(String.format("Annualized Volatility: %.1f%%\n", risk.getAnnualizedVolatility() * 100));
+                writer.write(String.format("Average Correlation: %.2f\n", risk.getAverageCorrelation() != null ? risk.getAverageCorrelation() : 0));
+                writer.write(String.format("Effective Bets: %.1f\n", risk.getEffectiveBets()));
+                writer.write("===\n\n");
+            }
+            
             for (StockRecommendation rec : recommendations) {
                 writer.write(String.format("Symbol: %s (%s)\n", rec.getSymbol(), rec.getCompanyName()));
                 writer.write(String.format("Current Price: $%.2f\n", rec.getCurrentPrice()));
@@ -111,53 +152,39 @@ public class AutomationService {
                 writer.write("---\n\n");
             }
             
-            System.out.println("Recommendations written to file: " + filename);
+            log.info("Recommendations written to file: " + filename);
             
         } catch (IOException e) {
-            System.out.println("Failed to write recommendations to file: " + e.getMessage());
+            log.warning("Failed to write recommendations to file: " + e.getMessage());
         }
     }
     
-    private String getCompanyName(String symbol) {
-        // Simplified company name mapping - in real implementation, would use a service
-        switch (symbol) {
-            case "AAPL": return "Apple Inc.";
-            case "MSFT": return "Microsoft Corporation";
-            case "GOOGL": return "Alphabet Inc.";
-            case "AMZN": return "Amazon.com Inc.";
-            case "TSLA": return "Tesla Inc.";
-            case "META": return "Meta Platforms Inc.";
-            case "NVDA": return "NVIDIA Corporation";
-            case "NFLX": return "Netflix Inc.";
-            case "AMD": return "Advanced Micro Devices Inc.";
-            case "INTC": return "Intel Corporation";
-            case "CRM": return "Salesforce Inc.";
-            case "ADBE": return "Adobe Inc.";
-            case "PYPL": return "PayPal Holdings Inc.";
-            case "UBER": return "Uber Technologies Inc.";
-            case "LYFT": return "Lyft Inc.";
-            case "SQ": return "Block Inc.";
-            case "ROKU": return "Roku Inc.";
-            case "ZM": return "Zoom Video Communications Inc.";
-            case "DOCU": return "DocuSign Inc.";
-            case "SNOW": return "Snowflake Inc.";
-            default: return symbol + " Corporation";
+    // Latest recommendation per symbol, newest first
+    public List<StockRecommendation> getLatestRecommendations() {
+        if (recommendationCache.isWarmed()) {
+            return recommendationCache.getLatestPerSymbol();
         }
+        return recommendationRepository.findLatestPerSymbol();
     }
     
-    // Manual trigger for testing
-    public void triggerManualAnalysis() {
-        System.out.println("Manual analysis triggered");
-        performDailyAnalysis();
+    public StockRecommendation getLatestRecommendation(String symbol) {
+        if (recommendationCache.isWarmed()) {
+            return recommendationCache.getLatest(symbol);
+        }
+        List<StockRecommendation> history = recommendationRepository.findBySymbolOrderByGeneratedAtDesc(symbol);
+        return history.isEmpty() ? null : history.get(0);
     }
     
-    // Get latest recommendations
-    public List<StockRecommendation> getLatestRecommendations() {
-        return recommendationRepository.findAll();
+    // Recent recommendations by symbol, bounded by recommendations.cache.historySize
+    public List<StockRecommendation> getRecommendationsBySymbol(String symbol) {
+        if (recommendationCache.isWarmed()) {
+            return recommendationCache.getRecent(symbol);
+        }
+        List<StockRecommendation> history = recommendationRepository.findBySymbolOrderByGeneratedAtDesc(symbol);
+        return history.subList(0, Math.min(history.size(), recommendationCache.getHistorySize()));
     }
     
-    // Get recommendations by symbol
-    public List<StockRecommendation> getRecommendationsBySymbol(String symbol) {
+    public List<StockRecommendation> getFullHistory(String symbol) {
         return recommendationRepository.findBySymbolOrderByGeneratedAtDesc(symbol);
     }
 }
@@ -0,0 +1,236 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.StockRecommendation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Replays recommendation signals against daily bars. Each signal opens a position at the open of
+ * the first bar after it was generated (no look-ahead), long for buys and short for sells, and
+ * exits at its stop-loss, its target or the close of the last bar of the holding window. When a
+ * bar touches both levels the stop is assumed to fill first; a bar that gaps through a level fills
+ * at its open. Symbols are split across a fork/join pool, each task reading its own bar files, so
+ * memory stays at a few symbols' worth of bars per worker regardless of universe size.
+ */
+public final class BacktestEngine {
+
+    public static final int EXIT_TARGET = 0;
+    public static final int EXIT_STOP = 1;
+    public static final int EXIT_TIMEOUT = 2;
+
+    private static final StockRecommendation.RecommendationType[] TYPE_VALUES = StockRecommendation.RecommendationType.values();
+    private static final int TYPES = TYPE_VALUES.length;
+    private static final int LEAF_SYMBOLS = 8;
+
+    private final Path barsDirectory;
+    private final int maxHoldingBars;
+
+    public BacktestEngine(Path barsDirectory, int maxHoldingBars) {
+        this.barsDirectory = barsDirectory;
+        this.maxHoldingBars = Math.max(1, maxHoldingBars);
+    }
+
+    /** The signals of one symbol, sorted by day. Percentages are distances from the entry price. */
+    public static final class SymbolSignals {
+        final String symbol;
+        final int[] days;
+        final byte[] types;
+        final double[] targetPct;
+        final double[] stopPct;
+        final int count;
+
+        public SymbolSignals(String symbol, int[] days, byte[] types, double[] targetPct, double[] stopPct, int count) {
+            this.symbol = symbol;
+            this.days = days;
+            this.types = types;
+            this.targetPct = targetPct;
+            this.stopPct = stopPct;
+            this.count = count;
+        }
+
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * Mergeable per-task totals. Realized P&L is bucketed by exit day relative to {@code baseDay}
+     * so the equity curve and drawdown can be rebuilt after the tasks are joined.
+     */
+    public static final class Stats {
+        final long[] trades = new long[TYPES];
+        final long[] wins = new long[TYPES];
+        final long[][] exits = new long[TYPES][3];
+        final double[] returnSum = new double[TYPES];
+        final double[] pnlByDay;
+        final int baseDay;
+        long holdingBars;
+        long skippedSignals;
+        long missingSymbols;
+        double best = Double.NEGATIVE_INFINITY;
+        double worst = Double.POSITIVE_INFINITY;
+
+        Stats(int baseDay, int spanDays) {
+            this.baseDay = baseDay;
+            this.pnlByDay = new double[Math.max(1, spanDays)];
+        }
+
+        void record(int type, int exit, double ret, int exitDay, int bars) {
+            trades[type]++;
+            exits[type][exit]++;
+            returnSum[type] += ret;
+            if (ret > 0) {
+                wins[type]++;
+            }
+            best = Math.max(best, ret);
+            worst = Math.min(worst, ret);
+            holdingBars += bars;
+            int bucket = Math.min(Math.max(exitDay - baseDay, 0), pnlByDay.length - 1);
+            pnlByDay[bucket] += ret;
+        }
+
+        public long totalTrades() {
+            long total = 0;
+            for (long count : trades) {
+                total += count;
+            }
+            return total;
+        }
+
+        Stats merge(Stats other) {
+            for (int t = 0; t < TYPES; t++) {
+                trades[t] += other.trades[t];
+                wins[t] += other.wins[t];
+                returnSum[t] += other.returnSum[t];
+                for (int e = 0; e < 3; e++) {
+                    exits[t][e] += other.exits[t][e];
+                }
+            }
+            for (int d = 0; d < pnlByDay.length; d++) {
+                pnlByDay[d] += other.pnlByDay[d];
+            }
+            holdingBars += other.holdingBars;
+            skippedSignals += other.skippedSignals;
+            missingSymbols += other.missingSymbols;
+            best = Math.max(best, other.best);
+            worst = Math.min(worst, other.worst);
+            return this;
+        }
+    }
+
+    public Stats run(List<SymbolSignals> universe, int baseDay, int spanDays, ForkJoinPool pool) {
+        SymbolSignals[] symbols = universe.toArray(new SymbolSignals[0]);
+        return pool.invoke(new SymbolRangeTask(symbols, 0, symbols.length, baseDay, spanDays));
+    }
+
+    private final class SymbolRangeTask extends RecursiveTask<Stats> {
+        private final SymbolSignals[] symbols;
+        private final int from;
+        private final int to;
+        private final int baseDay;
+        private final int spanDays;
+
+        SymbolRangeTask(SymbolSignals[] symbols, int from, int to, int baseDay, int spanDays) {
+            this.symbols = symbols;
+            this.from = from;
+            this.to = to;
+            this.baseDay = baseDay;
+            this.spanDays = spanDays;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= LEAF_SYMBOLS) {
+                Stats stats = new Stats(baseDay, spanDays);
+                for (int i = from; i < to; i++) {
+                    simulateSymbol(symbols[i], stats);
+                }
+                return stats;
+            }
+            int mid = (from + to) >>> 1;
+            SymbolRangeTask left = new SymbolRangeTask(symbols, from, mid, baseDay, spanDays);
+            left.fork();
+            Stats right = new SymbolRangeTask(symbols, mid, to, baseDay, spanDays).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private void simulateSymbol(SymbolSignals signals, Stats stats) {
+        Path file = barsDirectory.resolve(signals.symbol + ".csv");
+        HistoricalBars bars;
+        try {
+            bars = Files.isRegularFile(file) ? HistoricalBars.load(file) : null;
+        } catch (IOException e) {
+            bars = null;
+        }
+        if (bars == null || bars.size() == 0) {
+            stats.missingSymbols++;
+            stats.skippedSignals += signals.count;
+            return;
+        }
+
+        for (int s = 0; s < signals.count; s++) {
+            int entry = bars.firstAfter(signals.days[s]);
+            int type = signals.types[s];
+            double direction = direction(type);
+            if (entry >= bars.size() || direction == 0) {
+                stats.skippedSignals++;
+                continue;
+            }
+            simulateTrade(bars, entry, type, direction, signals.targetPct[s], signals.stopPct[s], stats);
+        }
+    }
+
+    private void simulateTrade(HistoricalBars bars, int entry, int type, double direction,
+                               double targetPct, double stopPct, Stats stats) {
+        double entryPrice = bars.open(entry);
+        double target = entryPrice * (1 + direction * targetPct);
+        double stop = entryPrice * (1 - direction * stopPct);
+        int last = Math.min(bars.size(), entry + maxHoldingBars) - 1;
+
+        for (int i = entry; i <= last; i++) {
+            double open = bars.open(i);
+            double exitPrice = Double.NaN;
+            int exit = EXIT_STOP;
+            if (direction > 0) {
+                if (bars.low(i) <= stop) {
+                    exitPrice = Math.min(open, stop);
+                } else if (bars.high(i) >= target) {
+                    exitPrice = Math.max(open, target);
+                    exit = EXIT_TARGET;
+                }
+            } else {
+                if (bars.high(i) >= stop) {
+                    exitPrice = Math.max(open, stop);
+                } else if (bars.low(i) <= target) {
+                    exitPrice = Math.min(open, target);
+                    exit = EXIT_TARGET;
+                }
+            }
+            if (!Double.isNaN(exitPrice)) {
+                stats.record(type, exit, direction * (exitPrice - entryPrice) / entryPrice, bars.day(i), i - entry + 1);
+                return;
+            }
+        }
+        double exitPrice = bars.close(last);
+        stats.record(type, EXIT_TIMEOUT, direction * (exitPrice - entryPrice) / entryPrice, bars.day(last), last - entry + 1);
+    }
+
+    private static double direction(int type) {
+        switch (TYPE_VALUES[type]) {
+            case STRONG_BUY:
+            case BUY:
+                return 1;
+            case SELL:
+            case STRONG_SELL:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.BacktestReport;
+import com.example.stockanalyzer.model.RecommendationSignal;
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+/**
+ * Replays stored recommendations against local daily bars ({@code backtest.barsPath/<SYMBOL>.csv})
+ * to measure how the recommendation types and their target/stop-loss rules would have played out.
+ */
+@Service
+public class BacktestService {
+
+    private static final Logger log = Logger.getLogger(BacktestService.class.getName());
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Value("${backtest.barsPath:data/bars}")
+    private String barsPath;
+
+    @Value("${backtest.maxHoldingBars:60}")
+    private int defaultMaxHoldingBars;
+
+    @Value("${backtest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${retention.rawDays:3650}")
+    private int rawDays;
+
+    /**
+     * Runs a backtest over recommendations generated in [from, to). A non-null {@code targetPct} or
+     * {@code stopPct} replaces the stored levels, e.g. 0.15 and 0.08 for the engine's strong calls.
+     */
+    public BacktestReport run(LocalDate from, LocalDate to, Double targetPct, Double stopPct, Integer maxHoldingBars) {
+        long started = System.currentTimeMillis();
+        int holding = maxHoldingBars != null && maxHoldingBars > 0 ? maxHoldingBars : defaultMaxHoldingBars;
+
+        List<RecommendationSignal> rows = recommendationRepository.findSignals(from.atStartOfDay(), to.atStartOfDay());
+        long[] skipped = new long[1];
+        List<BacktestEngine.SymbolSignals> universe = groupBySymbol(rows, targetPct, stopPct, skipped);
+
+        // Exits can land up to the holding window past the last signal; trading days < 1.5 calendar days
+        int baseDay = (int) from.toEpochDay();
+        int spanDays = (int) (to.toEpochDay() - from.toEpochDay()) + holding * 2 + 7;
+
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        BacktestEngine.Stats stats;
+        try {
+            stats = new BacktestEngine(Path.of(barsPath), holding).run(universe, baseDay, spanDays, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        BacktestReport report = buildReport(stats);
+        report.setFrom(from);
+        report.setTo(to);
+        // Older rows have been folded into rollups and deleted, so they are missing from the replay
+        LocalDate retainedFrom = LocalDate.now().minusDays(rawDays);
+        if (rawDays > 0 && from.isBefore(retainedFrom)) {
+            report.setRetainedFrom(retainedFrom);
+        }
+        report.setTargetPct(targetPct);
+        report.setStopPct(stopPct);
+        report.setMaxHoldingBars(holding);
+        report.setSymbols(universe.size());
+        report.setSignals(rows.size());
+        report.setSkippedSignals(report.getSkippedSignals() + skipped[0]);
+        report.setElapsedMs(System.currentTimeMillis() - started);
+
+        log.info("Backtest " + from + ".." + to + ": " + report.getTrades() + " trades over " + universe.size() +
+                 " symbols in " + report.getElapsedMs() + "ms");
+        return report;
+    }
+
+    // Rows arrive ordered by symbol then time, so each symbol's signals are one contiguous block
+    private List<BacktestEngine.SymbolSignals> groupBySymbol(List<RecommendationSignal> rows, Double targetPct, Double stopPct, long[] skipped) {
+        List<BacktestEngine.SymbolSignals> universe = new ArrayList<>();
+        int i = 0;
+        while (i < rows.size()) {
+            String symbol = rows.get(i).symbol();
+            int end = i;
+            while (end < rows.size() && symbol.equals(rows.get(end).symbol())) {
+                end++;
+            }
+
+            int capacity = end - i;
+            int[] days = new int[capacity];
+            byte[] types = new byte[capacity];
+            double[] targets = new double[capacity];
+            double[] stops = new double[capacity];
+            int count = 0;
+            for (int r = i; r < end; r++) {
+                RecommendationSignal row = rows.get(r);
+                StockRecommendation.RecommendationType type = row.recommendation();
+                double target = targetPct != null ? targetPct : distance(row.currentPrice(), row.targetPrice());
+                double stop = stopPct != null ? stopPct : distance(row.currentPrice(), row.stopLoss());
+                if (type == null || Double.isNaN(target) || Double.isNaN(stop)) {
+                    skipped[0]++;
+                    continue;
+                }
+                days[count] = (int) row.generatedAt().toLocalDate().toEpochDay();
+                types[count] = (byte) type.ordinal();
+                targets[count] = target;
+                stops[count] = stop;
+                count++;
+            }
+            if (count > 0) {
+                universe.add(new BacktestEngine.SymbolSignals(symbol, days, types, targets, stops, count));
+            }
+            i = end;
+        }
+        return universe;
+    }
+
+    // Stored levels are absolute prices; replay them as a distance from the price at recommendation time
+    private static double distance(Double reference, Double level) {
+        if (reference == null || level == null || reference <= 0) {
+            return Double.NaN;
+        }
+        return Math.abs(level - reference) / reference;
+    }
+
+    private BacktestReport buildReport(BacktestEngine.Stats stats) {
+        BacktestReport report = new BacktestReport();
+        long trades = 0;
+        long wins = 0;
+        long targetHits = 0;
+        long stopHits = 0;
+        double returnSum = 0;
+
+        StockRecommendation.RecommendationType[] types = StockRecommendation.RecommendationType.values();
+        for (int t = 0; t < types.length; t++) {
+            trades += stats.trades[t];
+            wins += stats.wins[t];
+            targetHits += stats.exits[t][BacktestEngine.EXIT_TARGET];
+            stopHits += stats.exits[t][BacktestEngine.EXIT_STOP];
+            returnSum += stats.returnSum[t];
+            if (stats.trades[t] == 0) {
+                continue;
+            }
+
+            Map<String, Object> byType = new LinkedHashMap<>();
+            byType.put("trades", stats.trades[t]);
+            byType.put("hitRate", ratio(stats.exits[t][BacktestEngine.EXIT_TARGET], stats.trades[t]));
+            byType.put("stopRate", ratio(stats.exits[t][BacktestEngine.EXIT_STOP], stats.trades[t]));
+            byType.put("timeoutRate", ratio(stats.exits[t][BacktestEngine.EXIT_TIMEOUT], stats.trades[t]));
+            byType.put("winRate", ratio(stats.wins[t], stats.trades[t]));
+            byType.put("averageReturn", stats.returnSum[t] / stats.trades[t]);
+            report.getByRecommendation().put(types[t].name(), byType);
+        }
+
+        report.setTrades(trades);
+        report.setSkippedSignals(stats.skippedSignals);
+        report.setMissingSymbols(stats.missingSymbols);
+        report.setHitRate(ratio(targetHits, trades));
+        report.setStopRate(ratio(stopHits, trades));
+        report.setWinRate(ratio(wins, trades));
+        report.setTotalReturn(returnSum);
+        report.setAverageReturn(trades > 0 ? returnSum / trades : 0);
+        report.setBestTrade(trades > 0 ? stats.best : 0);
+        report.setWorstTrade(trades > 0 ? stats.worst : 0);
+        report.setAverageHoldingBars(trades > 0 ? (double) stats.holdingBars / trades : 0);
+        report.setMaxDrawdown(maxDrawdown(stats.pnlByDay));
+        return report;
+    }
+
+    private static double maxDrawdown(double[] pnlByDay) {
+        double equity = 0;
+        double peak = 0;
+        double drawdown = 0;
+        for (double pnl : pnlByDay) {
+            equity += pnl;
+            peak = Math.max(peak, equity);
+            drawdown = Math.max(drawdown, peak - equity);
+        }
+        return drawdown;
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole > 0 ? (double) part / whole : 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.stockanalyzer.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Fixed-size Bloom filter over string keys using double hashing. Not thread-safe; callers
+ * synchronize.
+ */
+public class BloomFilter {
+    
+    private final long[] bits;
+    private final long numBits;
+    private final int numHashes;
+    private final long capacity;
+    private long inserted;
+    
+    public BloomFilter(long capacity, double falsePositiveRate) {
+        this.capacity = Math.max(1, capacity);
+        long m = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) ((m + 63) / 64)];
+        this.numBits = bits.length * 64L;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / this.capacity * Math.log(2)));
+    }
+    
+    private BloomFilter(long[] bits, int numHashes, long capacity, long inserted) {
+        this.bits = bits;
+        this.numBits = bits.length * 64L;
+        this.numHashes = numHashes;
+        this.capacity = capacity;
+        this.inserted = inserted;
+    }
+    
+    public boolean mightContain(String key) {
+        long h1 = NewsDeduplicator.hash64(key);
+        long h2 = NewsDeduplicator.hash64(key + '\u0001') | 1L;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /** Returns true if the key was (probably) not present before. */
+    public boolean put(String key) {
+        long h1 = NewsDeduplicator.hash64(key);
+        long h2 = NewsDeduplicator.hash64(key + '\u0001') | 1L;
+        boolean changed = false;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                changed = true;
+            }
+        }
+        if (changed) {
+            inserted++;
+        }
+        return changed;
+    }
+    
+    public boolean isFull() {
+        return inserted >= capacity;
+    }
+    
+    public long getInserted() {
+        return inserted;
+    }
+    
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(numHashes);
+        out.writeLong(capacity);
+        out.writeLong(inserted);
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+    
+    public static BloomFilter readFrom(DataInputStream in) throws IOException {
+        int numHashes = in.readInt();
+        long capacity = in.readLong();
+        long inserted = in.readLong();
+        long[] bits = new long[in.readInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.readLong();
+        }
+        return new BloomFilter(bits, numHashes, capacity, inserted);
+    }
+}
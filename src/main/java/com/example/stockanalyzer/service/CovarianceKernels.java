@@ -0,0 +1,131 @@
+package com.example.stockanalyzer.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Dense kernels behind {@link RollingCovariance}. Matrices are row-major; inputs are
+ * {@code double[]} and the symmetric result is {@code float[]}, accumulated in double and rounded
+ * once per update. The Gram product is computed in square tiles so both row panels of a tile stay
+ * in cache while their dot products are formed, and tile rows are spread over a fork/join pool.
+ */
+final class CovarianceKernels {
+
+    static final int TILE = 64;
+    private static final int DEPTH = 256;
+
+    private CovarianceKernels() {}
+
+    /**
+     * out[i][j] = sum over k of x[i][k] * x[j][k] for an n-by-w matrix x; out is n-by-n. Only
+     * tiles on or above the diagonal are computed and then mirrored, since the result is symmetric.
+     */
+    static void gram(double[] x, int n, int w, float[] out, ForkJoinPool pool) {
+        int tiles = (n + TILE - 1) / TILE;
+        forEach(tiles, pool, ti -> {
+            int i0 = ti * TILE;
+            int i1 = Math.min(n, i0 + TILE);
+            double[] tile = new double[TILE * TILE];
+            for (int tj = ti; tj < tiles; tj++) {
+                int j0 = tj * TILE;
+                int j1 = Math.min(n, j0 + TILE);
+                Arrays.fill(tile, 0);
+                // Walk the shared dimension in slices so long windows don't evict the panels
+                for (int k0 = 0; k0 < w; k0 += DEPTH) {
+                    int k1 = Math.min(w, k0 + DEPTH);
+                    for (int i = i0; i < i1; i++) {
+                        int rowI = i * w;
+                        int jStart = ti == tj ? i : j0;
+                        for (int j = jStart; j < j1; j++) {
+                            int rowJ = j * w;
+                            double sum = 0;
+                            for (int k = k0; k < k1; k++) {
+                                sum += x[rowI + k] * x[rowJ + k];
+                            }
+                            tile[(i - i0) * TILE + j - j0] += sum;
+                        }
+                    }
+                }
+                for (int i = i0; i < i1; i++) {
+                    for (int j = ti == tj ? i : j0; j < j1; j++) {
+                        out[i * n + j] = (float) tile[(i - i0) * TILE + j - j0];
+                    }
+                }
+            }
+        });
+        mirrorUpper(out, n, pool);
+    }
+
+    /** p += a a' - b b' over the full n-by-n matrix; either vector may be null. */
+    static void rankOneUpdate(float[] p, int n, double[] a, double[] b, ForkJoinPool pool) {
+        int tiles = (n + TILE - 1) / TILE;
+        forEach(tiles, pool, ti -> {
+            int i1 = Math.min(n, (ti + 1) * TILE);
+            for (int i = ti * TILE; i < i1; i++) {
+                double ai = a != null ? a[i] : 0;
+                double bi = b != null ? b[i] : 0;
+                int row = i * n;
+                if (a != null && b != null) {
+                    for (int j = 0; j < n; j++) {
+                        p[row + j] += (float) (ai * a[j] - bi * b[j]);
+                    }
+                } else if (a != null) {
+                    for (int j = 0; j < n; j++) {
+                        p[row + j] += (float) (ai * a[j]);
+                    }
+                } else if (b != null) {
+                    for (int j = 0; j < n; j++) {
+                        p[row + j] -= (float) (bi * b[j]);
+                    }
+                }
+            }
+        });
+    }
+
+    private static void mirrorUpper(float[] m, int n, ForkJoinPool pool) {
+        int tiles = (n + TILE - 1) / TILE;
+        forEach(tiles, pool, ti -> {
+            int i1 = Math.min(n, (ti + 1) * TILE);
+            for (int i = ti * TILE; i < i1; i++) {
+                for (int j = 0; j < i; j++) {
+                    m[i * n + j] = m[j * n + i];
+                }
+            }
+        });
+    }
+
+    /** Runs body(0 .. count-1) on the pool, one task per index. */
+    static void forEach(int count, ForkJoinPool pool, IntConsumer body) {
+        if (count <= 1) {
+            for (int i = 0; i < count; i++) {
+                body.accept(i);
+            }
+            return;
+        }
+        pool.invoke(new Range(0, count, body));
+    }
+
+    private static final class Range extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final IntConsumer body;
+
+        Range(int from, int to, IntConsumer body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(from, mid, body), new Range(mid, to, body));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.AnalysisRun;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.util.logging.Logger;
+
+/**
+ * Nightly Quartz job. With the clustered JDBC job store it fires on exactly one node, which only
+ * plans the run; the shards are then processed by every node's {@link AnalysisShardCoordinator}.
+ */
+@DisallowConcurrentExecution
+public class DailyAnalysisJob extends QuartzJobBean {
+    
+    private static final Logger log = Logger.getLogger(DailyAnalysisJob.class.getName());
+    
+    @Autowired
+    private AnalysisShardCoordinator shardCoordinator;
+    
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        String runId = shardCoordinator.planRun(shardCoordinator.scheduledRunId(), AnalysisRun.RunTrigger.SCHEDULED);
+        log.info("Scheduled analysis run " + runId + " planned by " + shardCoordinator.getNodeId());
+    }
+}
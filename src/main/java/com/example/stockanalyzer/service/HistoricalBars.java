@@ -0,0 +1,181 @@
+package com.example.stockanalyzer.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Daily OHLC bars of one symbol held as parallel primitive arrays, dates as epoch days.
+ * Loaded from a CSV in the Yahoo export layout ({@code Date,Open,High,Low,Close,...}); the
+ * header is optional, extra columns are ignored, and rows that are unparsable ("null" prices)
+ * or out of date order are skipped.
+ */
+public final class HistoricalBars {
+
+    private static final double[] POWERS_OF_TEN = new double[18];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int[] days;
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final int size;
+
+    private HistoricalBars(int[] days, double[] open, double[] high, double[] low, double[] close, int size) {
+        this.days = days;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.size = size;
+    }
+
+    public static HistoricalBars load(Path file) throws IOException {
+        return parse(Files.readAllBytes(file));
+    }
+
+    static HistoricalBars parse(byte[] data) {
+        int capacity = Math.max(16, data.length / 48);
+        int[] days = new int[capacity];
+        double[] open = new double[capacity];
+        double[] high = new double[capacity];
+        double[] low = new double[capacity];
+        double[] close = new double[capacity];
+        double[] fields = new double[4];
+        int size = 0;
+
+        int pos = 0;
+        while (pos < data.length) {
+            int end = pos;
+            while (end < data.length && data[end] != '\n') {
+                end++;
+            }
+            int lineEnd = end > pos && data[end - 1] == '\r' ? end - 1 : end;
+            int day = parseRow(data, pos, lineEnd, fields);
+            if (day != Integer.MIN_VALUE && (size == 0 || day > days[size - 1])) {
+                if (size == days.length) {
+                    int grown = size + (size >> 1);
+                    days = Arrays.copyOf(days, grown);
+                    open = Arrays.copyOf(open, grown);
+                    high = Arrays.copyOf(high, grown);
+                    low = Arrays.copyOf(low, grown);
+                    close = Arrays.copyOf(close, grown);
+                }
+                days[size] = day;
+                open[size] = fields[0];
+                high[size] = fields[1];
+                low[size] = fields[2];
+                close[size] = fields[3];
+                size++;
+            }
+            pos = end + 1;
+        }
+        return new HistoricalBars(days, open, high, low, close, size);
+    }
+
+    // Returns the epoch day and fills open/high/low/close, or MIN_VALUE for headers and bad rows
+    private static int parseRow(byte[] data, int start, int end, double[] fields) {
+        if (end - start < 10 || data[start] < '0' || data[start] > '9') {
+            return Integer.MIN_VALUE;
+        }
+        int day;
+        try {
+            day = (int) LocalDate.of(digits(data, start, 4), digits(data, start + 5, 2), digits(data, start + 8, 2)).toEpochDay();
+        } catch (RuntimeException e) {
+            return Integer.MIN_VALUE;
+        }
+
+        int pos = start + 10;
+        for (int i = 0; i < fields.length; i++) {
+            if (pos >= end || data[pos] != ',') {
+                return Integer.MIN_VALUE;
+            }
+            int fieldStart = ++pos;
+            while (pos < end && data[pos] != ',') {
+                pos++;
+            }
+            double value = parseDecimal(data, fieldStart, pos);
+            if (!(value > 0)) {
+                return Integer.MIN_VALUE;
+            }
+            fields[i] = value;
+        }
+        return day;
+    }
+
+    private static int digits(byte[] data, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException();
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Plain decimals are parsed in place; anything else (exponents, "null") goes through Double
+    private static double parseDecimal(byte[] data, int start, int end) {
+        long mantissa = 0;
+        int digitCount = 0;
+        int scale = 0;
+        boolean fraction = false;
+        int pos = start;
+        for (; pos < end; pos++) {
+            byte b = data[pos];
+            if (b >= '0' && b <= '9' && digitCount < 17) {
+                mantissa = mantissa * 10 + (b - '0');
+                digitCount++;
+                if (fraction) {
+                    scale++;
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (pos == end && end > start) {
+            return mantissa / POWERS_OF_TEN[scale];
+        }
+        try {
+            return Double.parseDouble(new String(data, start, end - start, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /** Index of the bar on {@code epochDay}, or -1 if there is none. */
+    public int indexOf(int epochDay) {
+        int index = Arrays.binarySearch(days, 0, size, epochDay);
+        return index >= 0 ? index : -1;
+    }
+
+    /** Index of the first bar strictly after {@code epochDay}, or {@code size()} if there is none. */
+    public int firstAfter(int epochDay) {
+        int index = Arrays.binarySearch(days, 0, size, epochDay);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    public int size() { return size; }
+
+    public int day(int i) { return days[i]; }
+
+    public double open(int i) { return open[i]; }
+
+    public double high(int i) { return high[i]; }
+
+    public double low(int i) { return low[i]; }
+
+    public double close(int i) { return close[i]; }
+}
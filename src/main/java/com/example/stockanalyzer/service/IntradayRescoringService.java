@@ -0,0 +1,269 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.core.MarketCalendar;
+import com.example.stockanalyzer.core.MarketDataClient;
+import com.example.stockanalyzer.model.NewsAnalysis;
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Intraday mode. While the market is open, polls quotes for the run universe and checks the news
+ * sources for unseen articles every {@code intraday.pollMs}. A symbol whose price moved by
+ * {@code intraday.priceMovePct} since it was last scored, or that has new articles, is marked dirty.
+ * Repeated changes to a dirty symbol coalesce into one entry, and a symbol is re-scored at most once
+ * per {@code intraday.minRescoreIntervalMs}, so the work done follows market activity rather than
+ * the size of the universe. Run it on one node: the dirty set is kept in memory.
+ */
+@Service
+public class IntradayRescoringService {
+
+    private static final Logger log = Logger.getLogger(IntradayRescoringService.class.getName());
+
+    @Autowired
+    private MarketDataClient marketDataClient;
+
+    @Autowired
+    private MarketCalendar marketCalendar;
+
+    @Autowired
+    private NewsScrapingService newsScrapingService;
+
+    @Autowired
+    private RecommendationEngineService recommendationEngineService;
+
+    @Autowired
+    private SymbolMasterService symbolMasterService;
+
+    @Autowired
+    private AnalysisRunService analysisRunService;
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Autowired
+    private PriceAlertService priceAlertService;
+
+    @Value("${intraday.enabled:false}")
+    private boolean enabled;
+
+    @Value("${intraday.priceMovePct:0.02}")
+    private double priceMovePct;
+
+    @Value("${intraday.minRescoreIntervalMs:900000}")
+    private long minRescoreIntervalMs;
+
+    @Value("${intraday.maxRescoresPerPoll:20}")
+    private int maxRescoresPerPoll;
+
+    @Value("${intraday.quoteConcurrency:8}")
+    private int quoteConcurrency;
+
+    @Value("${intraday.quoteTimeoutMs:10000}")
+    private long quoteTimeoutMs;
+
+    @Value("${automation.maxSymbolsPerRun:10}")
+    private int maxSymbolsPerRun;
+
+    public enum ChangeReason {
+        PRICE_MOVE, NEW_ARTICLES
+    }
+
+    private static final class PendingChange {
+        private final Set<ChangeReason> reasons = EnumSet.noneOf(ChangeReason.class);
+        private final LocalDateTime firstSeen = LocalDateTime.now();
+        private int changes;
+    }
+
+    // Price a move is measured from, and the recommendation it was taken from (null: first polled price)
+    private record Baseline(Long recommendationId, double price) {}
+
+    private final Map<String, PendingChange> dirty = new ConcurrentHashMap<>();
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastRescoredAt = new ConcurrentHashMap<>();
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong quotes = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rescored = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile LocalDateTime lastPollAt;
+
+    private ExecutorService quoteExecutor;
+
+    // Polls and their re-scores run here rather than on the shared scheduler thread; a poll that is
+    // still running when the next one is due makes that one skip
+    private final ExecutorService pollWorker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "intraday-poll");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @PostConstruct
+    public void start() {
+        quoteExecutor = Executors.newFixedThreadPool(Math.max(1, quoteConcurrency));
+    }
+
+    @PreDestroy
+    public void stop() {
+        pollWorker.shutdownNow();
+        quoteExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${intraday.pollMs:60000}", initialDelayString = "${intraday.pollMs:60000}")
+    public void poll() {
+        if (!enabled || !marketCalendar.isOpen(marketCalendar.now())) {
+            return;
+        }
+        pollWorker.execute(this::pollOnce);
+    }
+
+    private void pollOnce() {
+        // A full run is re-scoring everything anyway
+        if (!analysisRunService.findActiveRuns().isEmpty()) {
+            return;
+        }
+        polls.incrementAndGet();
+        lastPollAt = LocalDateTime.now();
+
+        List<String> universe = recommendationEngineService.getPopularStocks().stream()
+            .limit(maxSymbolsPerRun)
+            .toList();
+        detectPriceMoves(universe);
+        newsScrapingService.symbolsWithUnseenArticles(universe)
+            .forEach(symbol -> markDirty(symbol, ChangeReason.NEW_ARTICLES));
+        rescoreDirty();
+    }
+
+    private void detectPriceMoves(List<String> universe) {
+        List<CompletableFuture<MarketDataClient.Quote>> futures = new ArrayList<>(universe.size());
+        for (String symbol : universe) {
+            futures.add(CompletableFuture.supplyAsync(() -> marketDataClient.fetchQuote(symbol), quoteExecutor)
+                .completeOnTimeout(null, quoteTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> null));
+        }
+        for (CompletableFuture<MarketDataClient.Quote> future : futures) {
+            MarketDataClient.Quote quote = future.join();
+            if (quote == null) {
+                continue;
+            }
+            quotes.incrementAndGet();
+            priceAlertService.onPrice(quote.symbol(), quote.price());
+            double baseline = baseline(quote.symbol(), quote.price());
+            if (Math.abs(quote.price() / baseline - 1) >= priceMovePct) {
+                markDirty(quote.symbol(), ChangeReason.PRICE_MOVE);
+            }
+        }
+    }
+
+    // The price at the symbol's latest recommendation, taken again whenever a newer one appears (after a
+    // nightly run or an intraday re-score); the first polled price only if the symbol has none
+    private double baseline(String symbol, double price) {
+        StockRecommendation latest = recommendationCache.getLatest(symbol);
+        if (latest == null || latest.getCurrentPrice() == null || latest.getCurrentPrice() <= 0) {
+            return baselines.computeIfAbsent(symbol, s -> new Baseline(null, price)).price();
+        }
+        Baseline baseline = baselines.get(symbol);
+        if (baseline == null || !latest.getId().equals(baseline.recommendationId())) {
+            baseline = new Baseline(latest.getId(), latest.getCurrentPrice());
+            baselines.put(symbol, baseline);
+        }
+        return baseline.price();
+    }
+
+    private void markDirty(String symbol, ChangeReason reason) {
+        changes.incrementAndGet();
+        dirty.compute(symbol, (s, pending) -> {
+            if (pending == null) {
+                pending = new PendingChange();
+            } else {
+                coalesced.incrementAndGet();
+            }
+            pending.reasons.add(reason);
+            pending.changes++;
+            return pending;
+        });
+    }
+
+    // Oldest changes first; symbols still inside their re-score interval stay dirty for a later poll
+    private void rescoreDirty() {
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, PendingChange>> due = dirty.entrySet().stream()
+            .filter(e -> now - lastRescoredAt.getOrDefault(e.getKey(), 0L) >= minRescoreIntervalMs)
+            .sorted(Comparator.comparing(e -> e.getValue().firstSeen))
+            .limit(Math.max(1, maxRescoresPerPoll))
+            .toList();
+        for (Map.Entry<String, PendingChange> entry : due) {
+            String symbol = entry.getKey();
+            PendingChange pending = dirty.remove(symbol);
+            if (pending != null) {
+                rescore(symbol, pending);
+            }
+        }
+    }
+
+    private void rescore(String symbol, PendingChange pending) {
+        lastRescoredAt.put(symbol, System.currentTimeMillis());
+        try {
+            NewsAnalysis analysis = newsScrapingService.ingestStockNews(symbol, symbolMasterService.getCompanyName(symbol));
+            StockRecommendation recommendation = recommendationEngineService.createRecommendation(analysis);
+            if (recommendation == null) {
+                throw new IllegalStateException("no recommendation could be generated");
+            }
+            recommendation.setRunId("intraday-" + marketCalendar.now().toLocalDate());
+            StockRecommendation saved = recommendationRepository.save(recommendation);
+            recommendationCache.recordSaved(saved);
+            if (saved.getCurrentPrice() != null && saved.getCurrentPrice() > 0) {
+                baselines.put(symbol, new Baseline(saved.getId(), saved.getCurrentPrice()));
+            }
+            rescored.incrementAndGet();
+            log.info("Re-scored " + symbol + " intraday after " + pending.changes + " change(s) " + pending.reasons);
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.warning("Intraday re-score of " + symbol + " failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("marketOpen", marketCalendar.isOpen(marketCalendar.now()));
+        status.put("lastPollAt", lastPollAt);
+        status.put("polls", polls.get());
+        status.put("quotes", quotes.get());
+        status.put("changes", changes.get());
+        status.put("coalesced", coalesced.get());
+        status.put("rescored", rescored.get());
+        status.put("failures", failures.get());
+        status.put("dirty", new ArrayList<>(dirty.keySet()));
+        return status;
+    }
+}
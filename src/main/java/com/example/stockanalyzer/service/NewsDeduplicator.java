@@ -0,0 +1,147 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collapses near-identical articles (syndicated copies of the same story) before they are scored.
+ * Each article gets a 64-bit SimHash over word bigrams; the fingerprint is split into
+ * {@code maxDistance + 1} bands so that any two fingerprints within {@code maxDistance} bits share
+ * at least one identical band. Only articles sharing a band are compared, which keeps clustering
+ * roughly linear in the number of articles.
+ */
+public class NewsDeduplicator {
+    
+    private final int maxDistance;
+    private final int bands;
+    
+    public NewsDeduplicator(int maxDistance) {
+        this.maxDistance = Math.max(0, Math.min(maxDistance, 15));
+        this.bands = this.maxDistance + 1;
+    }
+    
+    /**
+     * Returns one representative per cluster, in first-seen order. The representative is the
+     * longest copy, and its source count is the number of distinct sources that carried the story.
+     */
+    public ArticleBatch collapse(ArticleBatch articles) {
+        int n = articles.size();
+        if (n < 2) {
+            return articles;
+        }
+        
+        long[] fingerprints = new long[n];
+        for (int i = 0; i < n; i++) {
+            fingerprints[i] = simHash(articles.text(i));
+        }
+        
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        
+        int bandWidth = 64 / bands;
+        for (int band = 0; band < bands; band++) {
+            int shift = band * bandWidth;
+            int width = band == bands - 1 ? 64 - shift : bandWidth;
+            long mask = width == 64 ? -1L : (1L << width) - 1;
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                buckets.computeIfAbsent((fingerprints[i] >>> shift) & mask, k -> new ArrayList<>()).add(i);
+            }
+            for (List<Integer> members : buckets.values()) {
+                for (int a = 0; a < members.size(); a++) {
+                    for (int b = a + 1; b < members.size(); b++) {
+                        int i = members.get(a);
+                        int j = members.get(b);
+                        if (find(parent, i) != find(parent, j)
+                            && Long.bitCount(fingerprints[i] ^ fingerprints[j]) <= maxDistance) {
+                            parent[find(parent, i)] = find(parent, j);
+                        }
+                    }
+                }
+            }
+        }
+        
+        Map<Integer, Integer> representativeByRoot = new HashMap<>();
+        Map<Integer, Set<String>> sourcesByRoot = new HashMap<>();
+        List<Integer> roots = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int root = find(parent, i);
+            Integer current = representativeByRoot.get(root);
+            if (current == null) {
+                roots.add(root);
+                representativeByRoot.put(root, i);
+            } else if (articles.textLength(i) > articles.textLength(current)) {
+                representativeByRoot.put(root, i);
+            }
+            sourcesByRoot.computeIfAbsent(root, r -> new HashSet<>()).add(articles.source(i));
+        }
+        
+        int[] representatives = new int[roots.size()];
+        for (int r = 0; r < representatives.length; r++) {
+            int root = roots.get(r);
+            representatives[r] = representativeByRoot.get(root);
+            articles.setSourceCount(representatives[r], sourcesByRoot.get(root).size());
+        }
+        return articles.select(representatives);
+    }
+    
+    static long simHash(String text) {
+        int[] weights = new int[64];
+        String previous = null;
+        int start = -1;
+        String lower = text.toLowerCase();
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = lower.substring(start, i);
+                start = -1;
+                // Bigrams keep some word order; a single-word text still gets its unigram
+                long hash = previous == null ? hash64(word) : hash64(previous + ' ' + word);
+                for (int bit = 0; bit < 64; bit++) {
+                    weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+                }
+                previous = word;
+            }
+        }
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+    
+    // FNV-1a followed by a murmur3 finalizer so neighbouring strings spread over all 64 bits
+    static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -1,20 +1,31 @@
 package com.example.stockanalyzer.service;
 
+import com.example.stockanalyzer.core.AnalysisEvents;
+import com.example.stockanalyzer.model.ArticleBatch;
 import com.example.stockanalyzer.model.NewsAnalysis;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.logging.Logger;
 
 @Service
@@ -22,16 +33,50 @@ public class NewsScrapingService {
     
     private static final Logger log = Logger.getLogger(NewsScrapingService.class.getName());
     
+    @Autowired
+    private SeenArticleFilter seenArticleFilter;
+    
+    @Autowired
+    private SymbolSentimentService symbolSentimentService;
+    
     private final ExecutorService executorService = Executors.newFixedThreadPool(10);
     
+    private final Map<String, SourceCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    
+    // Overall budget for one symbol's scatter-gather; sources still running at the deadline are reported missing
+    @Value("${news.scrape.deadlineMs:4000}")
+    private long scrapeDeadlineMs;
+    
+    @Value("${news.scrape.breaker.failureThreshold:3}")
+    private int breakerFailureThreshold;
+    
+    @Value("${news.scrape.breaker.cooldownMs:300000}")
+    private long breakerCooldownMs;
+    
+    // Hedged request: a second identical fetch is started if the first has not answered within hedge.delayMs
+    @Value("${news.scrape.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+    
+    @Value("${news.scrape.hedge.delayMs:1500}")
+    private long hedgeDelayMs;
+    
+    // Streaming extraction avoids building the full DOM of each news page; false uses a full Jsoup Document
+    @Value("${news.scrape.streaming:true}")
+    private boolean streamingExtraction;
+    
+    @Value("${news.scrape.maxArticlesPerSource:25}")
+    private int maxArticlesPerSource;
+    
+    @Value("${news.scrape.maxPageBytes:2097152}")
+    private int maxPageBytes;
+    
+    // SimHash bit distance at or below which two articles count as copies of the same story
+    @Value("${news.dedup.maxHammingDistance:3}")
+    private int dedupMaxHammingDistance;
+    
     // Free news sources for stock analysis
-    private static final List<String> NEWS_SOURCES = Arrays.asList(
-        "https://finance.yahoo.com/news/",
-        "https://www.marketwatch.com/latest-news",
-        "https://seekingalpha.com/news",
-        "https://www.benzinga.com/news",
-        "https://www.fool.com/investing/"
-    );
+    @Value("${news.sources:https://finance.yahoo.com/news/,https://www.marketwatch.com/latest-news,https://seekingalpha.com/news,https://www.benzinga.com/news,https://www.fool.com/investing/}")
+    private List<String> newsSources;
     
     private static final List<String> BULLISH_KEYWORDS = Arrays.asList(
         "beat", "exceeded", "growth", "expansion", "acquisition", "merger", "partnership",
@@ -45,104 +90,345 @@ public class NewsScrapingService {
         "bankruptcy", "default", "debt", "lawsuit", "investigation", "scandal"
     );
     
+    // Full analysis of everything currently published; has no side effects on ingestion state
     public NewsAnalysis analyzeStockNews(String symbol, String companyName) {
+        ScrapedNews scraped = scrapeStockNews(symbol);
+        ArticleBatch relevantNews = scoreRelevantNews(scraped.articles(), symbol, companyName);
+        return buildAnalysis(scraped, companyName, relevantNews, calculateSentiment(topNews(relevantNews)));
+    }
+    
+    // Incremental ingestion: only articles not seen by earlier runs are scored, and their sentiment
+    // is merged into the symbol's stored state
+    public NewsAnalysis ingestStockNews(String symbol, String companyName) {
+        Ingestion ingestion = ingestScrapedNews(scrapeStockNews(symbol), companyName);
+        commitIngestion(ingestion);
+        return ingestion.analysis();
+    }
+    
+    /** Articles gathered from every source for one symbol, before any scoring. */
+    public record ScrapedNews(String symbol, ArticleBatch articles, List<String> missingSources) {}
+    
+    /**
+     * Scored fresh news of one symbol that is not counted yet: {@code relevant} holds every relevant
+     * article for the sentiment state, {@code seenKeys} every fresh article to mark seen.
+     */
+    public record Ingestion(NewsAnalysis analysis, ArticleBatch relevant, List<String> seenKeys) {}
+    
+    // The network-bound half of ingestion, so a pipeline can run it with its own parallelism
+    public ScrapedNews scrapeStockNews(String symbol) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(scrapeDeadlineMs);
         
-        List<CompletableFuture<List<NewsAnalysis.NewsItem>>> futures = NEWS_SOURCES.stream()
-            .map(source -> CompletableFuture.supplyAsync(() -> scrapeNewsFromSource(source, symbol), executorService))
-            .collect(Collectors.toList());
-        
-        List<NewsAnalysis.NewsItem> allNews = futures.stream()
-            .map(CompletableFuture::join)
-            .flatMap(List::stream)
-            .collect(Collectors.toList());
-        
-        // Filter and rank news by relevance
-        List<NewsAnalysis.NewsItem> relevantNews = filterRelevantNews(allNews, symbol, companyName);
+        Map<String, CompletableFuture<ArticleBatch>> futures = new LinkedHashMap<>();
+        List<String> missingSources = new ArrayList<>();
+        for (String source : newsSources) {
+            if (circuitBreakerFor(source).allowRequest()) {
+                futures.put(source, fetchFromSource(source, symbol));
+            } else {
+                missingSources.add(source);
+            }
+        }
         
-        // Extract keywords
-        List<String> keywords = extractKeywords(relevantNews);
+        awaitUntil(futures.values(), deadline);
         
-        // Calculate sentiment
-        NewsAnalysis.SentimentScore sentiment = calculateSentiment(relevantNews);
+        // Gather whatever finished in time; late or failed sources count against their breaker and
+        // late ones are cancelled so they stop holding a fetch thread
+        ArticleBatch allNews = new ArticleBatch(newsSources.size() * maxArticlesPerSource);
+        futures.forEach((source, future) -> {
+            SourceCircuitBreaker breaker = circuitBreakerFor(source);
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                breaker.recordSuccess();
+                allNews.addAll(future.join());
+            } else {
+                future.cancel(true);
+                breaker.recordFailure();
+                missingSources.add(source);
+            }
+        });
         
+        if (!missingSources.isEmpty()) {
+            log.info("News for " + symbol + " is missing sources " + missingSources);
+        }
+        return new ScrapedNews(symbol, allNews, missingSources);
+    }
+    
+    /**
+     * The CPU-bound half: dedup, scoring, keywords and sentiment over articles already scraped. The
+     * articles are not counted until {@link #commitIngestion}, which the caller runs once it has
+     * stored the analysis, so a crash in between leaves them unseen for the next run.
+     */
+    public Ingestion ingestScrapedNews(ScrapedNews scraped, String companyName) {
+        String symbol = scraped.symbol();
+        ArticleBatch freshNews = dropSeenArticles(symbol, scraped.articles());
+        ArticleBatch relevantNews = scoreRelevantNews(freshNews, symbol, companyName);
+        NewsAnalysis analysis = buildAnalysis(scraped, companyName, relevantNews,
+            symbolSentimentService.preview(symbol, relevantNews));
+        return new Ingestion(analysis, relevantNews, seenKeys(symbol, freshNews));
+    }
+    
+    /** Adds the ingested articles to the symbol's sentiment state and marks them seen. */
+    public void commitIngestion(Ingestion ingestion) {
+        NewsAnalysis analysis = ingestion.analysis();
+        analysis.setSentiment(symbolSentimentService.record(analysis.getSymbol(), ingestion.relevant()));
+        seenArticleFilter.markSeen(ingestion.seenKeys());
+    }
+    
+    // Collapse syndicated copies so each story is scored and counted once, then keep the relevant ones, best first
+    private ArticleBatch scoreRelevantNews(ArticleBatch news, String symbol, String companyName) {
+        ArticleBatch uniqueNews = new NewsDeduplicator(dedupMaxHammingDistance).collapse(news);
+        for (int i = 0; i < uniqueNews.size(); i++) {
+            String text = uniqueNews.text(i);
+            uniqueNews.setScore(i, calculateRelevanceScore(text, symbol), analyzeSentiment(text));
+        }
+        return filterRelevantNews(uniqueNews, symbol, companyName);
+    }
+    
+    private NewsAnalysis buildAnalysis(ScrapedNews scraped, String companyName, ArticleBatch relevantNews,
+                                       NewsAnalysis.SentimentScore sentiment) {
+        ArticleBatch topNews = topNews(relevantNews);
         NewsAnalysis analysis = new NewsAnalysis();
-        analysis.setSymbol(symbol);
+        analysis.setSymbol(scraped.symbol());
         analysis.setCompanyName(companyName);
-        analysis.setNewsItems(relevantNews);
-        analysis.setKeyKeywords(keywords);
+        analysis.setArticles(topNews);
+        analysis.setKeyKeywords(extractKeywords(topNews));
         analysis.setSentiment(sentiment);
         analysis.setAnalyzedAt(LocalDateTime.now());
+        analysis.setMissingSources(scraped.missingSources());
         return analysis;
     }
     
-    private List<NewsAnalysis.NewsItem> scrapeNewsFromSource(String sourceUrl, String symbol) {
-        List<NewsAnalysis.NewsItem> newsItems = new ArrayList<>();
+    /**
+     * Which of {@code symbols} appear as a ticker in an article that ingestion has not seen yet. Each
+     * source page is fetched once however many symbols are watched. Tickers are matched as whole,
+     * case-sensitive words, so this can miss a mention that ingestion's looser match would pick up.
+     * Only the articles ingestion would keep count: per source and symbol, the first
+     * {@code maxArticlesPerSource} that ingestion's match accepts, so an article past that cap does
+     * not flag its symbol on every poll. Nothing is marked seen here; ingesting the symbol does that.
+     */
+    public Set<String> symbolsWithUnseenArticles(Collection<String> symbols) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(scrapeDeadlineMs);
+        Map<String, CompletableFuture<ArticleBatch>> futures = new LinkedHashMap<>();
+        for (String source : newsSources) {
+            if (circuitBreakerFor(source).allowRequest()) {
+                futures.put(source, fetchAsync(() -> scrapeNewsFromSource(source, null, Integer.MAX_VALUE)));
+            }
+        }
+        awaitUntil(futures.values(), deadline);
         
-        try {
-            Document doc = Jsoup.connect(sourceUrl)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                .timeout(10000)
-                .get();
-            
-            Elements articles = doc.select("article, .article, .news-item, .story");
-            
-            for (Element article : articles) {
-                try {
-                    String title = extractText(article.select("h1, h2, h3, .title, .headline"));
-                    String content = extractText(article.select("p, .content, .summary"));
-                    String url = extractUrl(article.select("a"));
-                    
-                    if (title != null && !title.isEmpty() && 
-                        (title.toLowerCase().contains(symbol.toLowerCase()) || 
-                         content.toLowerCase().contains(symbol.toLowerCase()))) {
-                        
-                        NewsAnalysis.NewsItem newsItem = new NewsAnalysis.NewsItem();
-                        newsItem.setTitle(title);
-                        newsItem.setContent(content);
-                        newsItem.setSource(sourceUrl);
-                        newsItem.setUrl(url);
-                        newsItem.setPublishedAt(LocalDateTime.now()); // Simplified - would parse actual date
-                        newsItem.setRelevanceScore(calculateRelevanceScore(title, content, symbol));
-                        newsItem.setSentiment(analyzeSentiment(title + " " + content));
-                        
-                        newsItems.add(newsItem);
+        List<String> watched = new ArrayList<>(new LinkedHashSet<>(symbols));
+        List<String> watchedLower = watched.stream().map(String::toLowerCase).toList();
+        Set<String> found = new HashSet<>();
+        futures.forEach((source, future) -> {
+            SourceCircuitBreaker breaker = circuitBreakerFor(source);
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                future.cancel(true);
+                breaker.recordFailure();
+                return;
+            }
+            breaker.recordSuccess();
+            ArticleBatch articles = future.join();
+            int[] kept = new int[watched.size()];
+            for (int i = 0; i < articles.size(); i++) {
+                String title = articles.title(i);
+                String content = articles.content(i);
+                String lowerTitle = title.toLowerCase();
+                String lowerContent = content != null ? content.toLowerCase() : null;
+                Set<String> tokens = null;
+                for (int w = 0; w < watched.size(); w++) {
+                    String symbol = watched.get(w);
+                    if (!ArticleExtractor.mentions(lowerTitle, lowerContent, watchedLower.get(w)) || ++kept[w] > maxArticlesPerSource
+                        || found.contains(symbol)) {
+                        continue;
+                    }
+                    if (tokens == null) {
+                        tokens = tickerTokens(title + " " + content);
+                    }
+                    if (tokens.contains(symbol)
+                        && !(!articles.url(i).isEmpty() && seenArticleFilter.mightContain(SeenArticleFilter.urlKey(symbol, articles.url(i))))
+                        && !seenArticleFilter.mightContain(SeenArticleFilter.contentKey(symbol, title, content))) {
+                        found.add(symbol);
                     }
-                } catch (Exception e) {
                 }
             }
-            
-        } catch (IOException e) {
+        });
+        return found;
+    }
+    
+    // Words made of letters, digits, dots and dashes ("BRK.B"), without trailing punctuation
+    private static Set<String> tickerTokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean tickerChar = Character.isLetterOrDigit(c) || c == '.' || c == '-';
+            if (tickerChar && start < 0) {
+                start = i;
+            } else if (!tickerChar && start >= 0) {
+                int end = i;
+                while (end > start && (text.charAt(end - 1) == '.' || text.charAt(end - 1) == '-')) {
+                    end--;
+                }
+                if (end > start) {
+                    tokens.add(text.substring(start, end));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+    
+    private ArticleBatch dropSeenArticles(String symbol, ArticleBatch news) {
+        int[] fresh = new int[news.size()];
+        int count = 0;
+        for (int i = 0; i < news.size(); i++) {
+            boolean seen = (!news.url(i).isEmpty() && seenArticleFilter.mightContain(SeenArticleFilter.urlKey(symbol, news.url(i))))
+                || seenArticleFilter.mightContain(SeenArticleFilter.contentKey(symbol, news.title(i), news.content(i)));
+            if (!seen) {
+                fresh[count++] = i;
+            }
+        }
+        return news.select(Arrays.copyOf(fresh, count));
+    }
+    
+    private List<String> seenKeys(String symbol, ArticleBatch news) {
+        List<String> keys = new ArrayList<>(news.size() * 2);
+        for (int i = 0; i < news.size(); i++) {
+            if (!news.url(i).isEmpty()) {
+                keys.add(SeenArticleFilter.urlKey(symbol, news.url(i)));
+            }
+            keys.add(SeenArticleFilter.contentKey(symbol, news.title(i), news.content(i)));
+        }
+        return keys;
+    }
+    
+    public Map<String, SourceCircuitBreaker.State> getCircuitBreakerStates() {
+        Map<String, SourceCircuitBreaker.State> states = new LinkedHashMap<>();
+        for (String source : newsSources) {
+            states.put(source, circuitBreakerFor(source).getState());
+        }
+        return states;
+    }
+    
+    private SourceCircuitBreaker circuitBreakerFor(String source) {
+        return circuitBreakers.computeIfAbsent(source,
+            s -> new SourceCircuitBreaker(s, breakerFailureThreshold, breakerCooldownMs));
+    }
+    
+    private CompletableFuture<ArticleBatch> fetchFromSource(String source, String symbol) {
+        CompletableFuture<ArticleBatch> primary = fetchAsync(() -> scrapeNewsFromSource(source, symbol));
+        if (!hedgeEnabled) {
+            return primary;
         }
         
-        return newsItems;
+        // First successful attempt wins and the other is cancelled; the result only fails once every
+        // started attempt has failed
+        CompletableFuture<ArticleBatch> result = new CompletableFuture<>();
+        AtomicInteger attempts = new AtomicInteger(1);
+        BiConsumer<ArticleBatch, Throwable> settle = (items, error) -> {
+            if (error == null) {
+                result.complete(items);
+            } else if (attempts.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        };
+        primary.whenComplete(settle);
+        result.whenComplete((items, error) -> primary.cancel(true));
+        
+        CompletableFuture.delayedExecutor(hedgeDelayMs, TimeUnit.MILLISECONDS, executorService).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            attempts.incrementAndGet();
+            CompletableFuture<ArticleBatch> hedge = fetchAsync(() -> scrapeNewsFromSource(source, symbol));
+            hedge.whenComplete(settle);
+            result.whenComplete((items, error) -> hedge.cancel(true));
+        });
+        return result;
     }
     
-    private String extractText(Elements elements) {
-        return elements.stream()
-            .map(Element::text)
-            .filter(text -> text != null && !text.trim().isEmpty())
-            .findFirst()
-            .orElse("");
+    // Like supplyAsync, except that cancelling the returned future interrupts the fetch, which makes
+    // Jsoup abandon the read instead of finishing a page nobody is waiting for
+    private CompletableFuture<ArticleBatch> fetchAsync(Supplier<ArticleBatch> fetch) {
+        CompletableFuture<ArticleBatch> result = new CompletableFuture<>();
+        Future<?> task = executorService.submit(() -> {
+            try {
+                result.complete(fetch.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((items, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
     }
     
-    private String extractUrl(Elements elements) {
-        return elements.stream()
-            .map(element -> element.attr("href"))
-            .filter(url -> url != null && !url.isEmpty())
-            .findFirst()
-            .orElse("");
+    private void awaitUntil(Collection<? extends CompletableFuture<?>> futures, long deadlineNanos) {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (futures.isEmpty() || remaining <= 0) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Partial results: callers inspect each future individually
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
     
-    private List<NewsAnalysis.NewsItem> filterRelevantNews(List<NewsAnalysis.NewsItem> news, String symbol, String companyName) {
-        return news.stream()
-            .filter(item -> item.getRelevanceScore() > 0.3)
-            .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-            .limit(20) // Top 20 most relevant news items
-            .collect(Collectors.toList());
+    private ArticleBatch scrapeNewsFromSource(String sourceUrl, String symbol) {
+        return scrapeNewsFromSource(sourceUrl, symbol, maxArticlesPerSource);
     }
     
-    private double calculateRelevanceScore(String title, String content, String symbol) {
-        String text = (title + " " + content).toLowerCase();
+    // A null symbol keeps every article on the page
+    private ArticleBatch scrapeNewsFromSource(String sourceUrl, String symbol, int maxArticles) {
+        AnalysisEvents.SourceFetchEvent event = new AnalysisEvents.SourceFetchEvent();
+        event.begin();
+        try {
+            Connection connection = Jsoup.connect(sourceUrl)
+                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+                .timeout(10000)
+                .maxBodySize(maxPageBytes);
+            ArticleBatch articles = streamingExtraction
+                ? ArticleExtractor.extractStreaming(connection.execute().streamParser(), sourceUrl, symbol, maxArticles)
+                : ArticleExtractor.extract(connection.get(), sourceUrl, symbol, maxArticles);
+            event.articles = articles.size();
+            return articles;
+        } catch (IOException e) {
+            event.error = AnalysisEvents.describe(e);
+            // Surface fetch failures so the source's circuit breaker can see them
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            event.error = AnalysisEvents.describe(e);
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.source = sourceUrl;
+                event.symbol = symbol;
+                event.commit();
+            }
+        }
+    }
+    
+    private ArticleBatch filterRelevantNews(ArticleBatch news, String symbol, String companyName) {
+        int[] ranked = IntStream.range(0, news.size())
+            .filter(i -> news.relevance(i) > 0.3)
+            .boxed()
+            .sorted((a, b) -> Double.compare(news.relevance(b), news.relevance(a)))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        return news.select(ranked);
+    }
+    
+    // Top 20 most relevant news items, for display and keywords
+    private static ArticleBatch topNews(ArticleBatch relevantNews) {
+        return relevantNews.size() <= 20 ? relevantNews : relevantNews.select(IntStream.range(0, 20).toArray());
+    }
+    
+    private double calculateRelevanceScore(String articleText, String symbol) {
+        String text = articleText.toLowerCase();
         double score = 0.0;
         
         // Symbol mentions
@@ -181,11 +467,11 @@ public class NewsScrapingService {
         }
     }
     
-    private List<String> extractKeywords(List<NewsAnalysis.NewsItem> news) {
+    private List<String> extractKeywords(ArticleBatch news) {
         Map<String, Integer> keywordCount = new HashMap<>();
         
-        for (NewsAnalysis.NewsItem item : news) {
-            String text = (item.getTitle() + " " + item.getContent()).toLowerCase();
+        for (int i = 0; i < news.size(); i++) {
+            String text = news.text(i).toLowerCase();
             
             // Extract important financial terms
             List<String> importantTerms = Arrays.asList(
@@ -207,36 +493,15 @@ public class NewsScrapingService {
             .collect(Collectors.toList());
     }
     
-    private NewsAnalysis.SentimentScore calculateSentiment(List<NewsAnalysis.NewsItem> news) {
-        Map<NewsAnalysis.SentimentType, Long> sentimentCount = news.stream()
-            .collect(Collectors.groupingBy(NewsAnalysis.NewsItem::getSentiment, Collectors.counting()));
-        
-        long total = news.size();
-        if (total == 0) {
-            NewsAnalysis.SentimentScore sentimentScore = new NewsAnalysis.SentimentScore();
-            sentimentScore.setPositive(0.0);
-            sentimentScore.setNegative(0.0);
-            sentimentScore.setNeutral(1.0);
-            sentimentScore.setOverall(NewsAnalysis.SentimentType.NEUTRAL);
-            return sentimentScore;
-        }
-        
-        double positive = (double) sentimentCount.getOrDefault(NewsAnalysis.SentimentType.POSITIVE, 0L) / total;
-        double negative = (double) sentimentCount.getOrDefault(NewsAnalysis.SentimentType.NEGATIVE, 0L) / total;
-        double neutral = (double) sentimentCount.getOrDefault(NewsAnalysis.SentimentType.NEUTRAL, 0L) / total;
-        
-        NewsAnalysis.SentimentType overall = NewsAnalysis.SentimentType.NEUTRAL;
-        if (positive > negative && positive > neutral) {
-            overall = NewsAnalysis.SentimentType.POSITIVE;
-        } else if (negative > positive && negative > neutral) {
-            overall = NewsAnalysis.SentimentType.NEGATIVE;
+    private NewsAnalysis.SentimentScore calculateSentiment(ArticleBatch news) {
+        long[] sentimentCount = new long[NewsAnalysis.SentimentType.values().length];
+        for (int i = 0; i < news.size(); i++) {
+            sentimentCount[news.sentiment(i).ordinal()]++;
         }
         
-        NewsAnalysis.SentimentScore sentimentScore = new NewsAnalysis.SentimentScore();
-        sentimentScore.setPositive(positive);
-        sentimentScore.setNegative(negative);
-        sentimentScore.setNeutral(neutral);
-        sentimentScore.setOverall(overall);
-        return sentimentScore;
+        return SymbolSentimentService.scoreOf(
+            sentimentCount[NewsAnalysis.SentimentType.POSITIVE.ordinal()],
+            sentimentCount[NewsAnalysis.SentimentType.NEGATIVE.ordinal()],
+            sentimentCount[NewsAnalysis.SentimentType.NEUTRAL.ordinal()]);
     }
 }
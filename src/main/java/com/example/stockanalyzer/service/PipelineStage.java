@@ -0,0 +1,129 @@
+package com.example.stockanalyzer.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * One stage of a pipeline: a bounded queue worked by a fixed number of threads. {@link #submit}
+ * blocks while the queue is full, so a slow stage holds back the ones feeding it instead of
+ * letting work pile up in memory. Close a stage only once nothing will submit to it anymore;
+ * its workers then drain the queue and exit.
+ */
+public final class PipelineStage<T> {
+
+    private static final Logger log = Logger.getLogger(PipelineStage.class.getName());
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final Consumer<T> handler;
+    private final Thread[] workers;
+    private volatile boolean closed;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong(); // upstream time spent waiting for room
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    public PipelineStage(String name, int workers, int capacity, Consumer<T> handler) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.handler = handler;
+        this.workers = new Thread[Math.max(1, workers)];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Thread(this::work, "pipeline-" + name + "-" + i);
+            this.workers[i].setDaemon(true);
+        }
+    }
+
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    public void submit(T item) throws InterruptedException {
+        if (!queue.offer(item)) {
+            long start = System.nanoTime();
+            queue.put(item);
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+        maxDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    private void work() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                T item = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                try {
+                    handler.accept(item);
+                } catch (RuntimeException e) {
+                    // One bad item must not take a worker down with it
+                    log.warning("Pipeline stage " + name + " failed on an item: " + e);
+                } finally {
+                    busyNanos.addAndGet(System.nanoTime() - start);
+                    processed.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    /** Waits up to {@code timeoutMs} for the workers to finish; true once they all have. */
+    public boolean awaitDrained(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        for (Thread worker : workers) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (left <= 0) {
+                return allDone();
+            }
+            worker.join(left);
+        }
+        return allDone();
+    }
+
+    private boolean allDone() {
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Drops queued items and stops the workers, interrupting what they are doing. */
+    public void abort() {
+        closed = true;
+        queue.clear();
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public String summary() {
+        return String.format("%s x%d: %d items, busy %dms, upstream blocked %dms, max queue %d",
+            name, workers.length, processed.get(), TimeUnit.NANOSECONDS.toMillis(busyNanos.get()),
+            TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()), maxDepth.get());
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.PriceAlert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches the target and stop-loss of open recommendations. Each symbol has a {@link PriceLevelBook};
+ * a level's id is the recommendation id shifted left by one, with the low bit telling target from
+ * stop-loss. A level is indexed as rising or falling depending on which side of the entry price it
+ * lies. The first of a recommendation's two levels to be crossed closes it; the other is left in
+ * place and skipped, and a book is compacted once such stale levels make up half of it. Updates
+ * for different symbols can run in parallel.
+ */
+public final class PriceAlertEngine {
+
+    public record Trigger(long recommendationId, String symbol, PriceAlert.AlertType type, double level, double price) {}
+
+    private static final PriceAlert.AlertType[] TYPES = PriceAlert.AlertType.values();
+
+    private static final class SymbolLevels {
+        private final PriceLevelBook book = new PriceLevelBook();
+        private int stale;
+    }
+
+    private final Map<String, SymbolLevels> books = new ConcurrentHashMap<>();
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+    private final Set<Long> closed = ConcurrentHashMap.newKeySet();
+
+    /** Indexes a recommendation's levels; returns false if it is already tracked or closed. */
+    public boolean track(long recommendationId, String symbol, double entryPrice, Double targetPrice, Double stopLoss) {
+        if (closed.contains(recommendationId) || !tracked.add(recommendationId)) {
+            return false;
+        }
+        SymbolLevels levels = books.computeIfAbsent(symbol, s -> new SymbolLevels());
+        synchronized (levels) {
+            add(levels.book, recommendationId, PriceAlert.AlertType.TARGET, entryPrice, targetPrice);
+            add(levels.book, recommendationId, PriceAlert.AlertType.STOP_LOSS, entryPrice, stopLoss);
+        }
+        return true;
+    }
+
+    // A level at the entry price has no direction and is never reached
+    private static void add(PriceLevelBook book, long recommendationId, PriceAlert.AlertType type, double entry, Double level) {
+        if (level == null || level == entry) {
+            return;
+        }
+        long id = (recommendationId << 1) | type.ordinal();
+        if (level > entry) {
+            book.addRising(id, level);
+        } else {
+            book.addFalling(id, level);
+        }
+    }
+
+    /** Marks a recommendation as closed elsewhere, e.g. by an alert persisted earlier. */
+    public void close(long recommendationId) {
+        closed.add(recommendationId);
+    }
+
+    /** Recommendations closed by {@code price}, one trigger each. */
+    public List<Trigger> onPrice(String symbol, double price) {
+        SymbolLevels levels = books.get(symbol);
+        if (levels == null) {
+            return List.of();
+        }
+        List<Trigger> triggers = new ArrayList<>(0);
+        synchronized (levels) {
+            int fired = levels.book.cross(price, (id, level) -> {
+                long recommendationId = id >>> 1;
+                if (closed.add(recommendationId)) {
+                    triggers.add(new Trigger(recommendationId, symbol, TYPES[(int) (id & 1)], level, price));
+                }
+            });
+            // Every trigger may leave its sibling level behind; every other fired level was one
+            levels.stale = Math.max(0, levels.stale + triggers.size() - (fired - triggers.size()));
+            if (levels.stale > 0 && levels.stale * 2 >= levels.book.size()) {
+                levels.book.retain(id -> !closed.contains(id >>> 1));
+                levels.stale = 0;
+            }
+        }
+        return triggers.isEmpty() ? List.of() : triggers;
+    }
+
+    public int size() {
+        int levels = 0;
+        for (SymbolLevels symbolLevels : books.values()) {
+            synchronized (symbolLevels) {
+                levels += symbolLevels.book.size();
+            }
+        }
+        return levels;
+    }
+
+    public int symbols() {
+        return books.size();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.PriceAlert;
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.PriceAlertRepository;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Feeds quotes into a {@link PriceAlertEngine} holding the recommendations of the last
+ * {@code alerts.openDays} days. Fired alerts are persisted and pushed to SSE subscribers off the
+ * quote path. New recommendations are picked up every {@code alerts.syncMs}; the engine is rebuilt
+ * every {@code alerts.rebuildMs} so expired recommendations drop out.
+ */
+@Service
+public class PriceAlertService {
+
+    private static final Logger log = Logger.getLogger(PriceAlertService.class.getName());
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Autowired
+    private PriceAlertRepository alertRepository;
+
+    @Value("${alerts.openDays:60}")
+    private int openDays;
+
+    @Value("${alerts.sseTimeoutMs:0}")
+    private long sseTimeoutMs;
+
+    @Value("${recommendations.cache.syncIdOverlap:100}")
+    private long syncIdOverlap;
+
+    private volatile PriceAlertEngine engine = new PriceAlertEngine();
+    private volatile long highestId;
+    private volatile boolean loaded;
+
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${alerts.rebuildMs:3600000}", initialDelayString = "${alerts.rebuildMs:3600000}")
+    public synchronized void rebuild() {
+        LocalDateTime since = LocalDateTime.now().minusDays(openDays);
+        PriceAlertEngine rebuilt = new PriceAlertEngine();
+        alertRepository.findClosedSince(since).forEach(rebuilt::close);
+        long highest = track(rebuilt, recommendationRepository.findLevels(0L, since), 0L);
+        engine = rebuilt;
+        highestId = highest;
+        loaded = true;
+        log.info("Price alert engine watching " + rebuilt.size() + " levels on " + rebuilt.symbols() + " symbols");
+    }
+
+    // Identities can commit out of order, so each sync re-reads a few ids below the highest seen
+    @Scheduled(fixedDelayString = "${alerts.syncMs:5000}", initialDelayString = "${alerts.syncMs:5000}")
+    public synchronized void sync() {
+        if (!loaded) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minusDays(openDays);
+        highestId = track(engine, recommendationRepository.findLevels(Math.max(0, highestId - syncIdOverlap), since), highestId);
+    }
+
+    private static long track(PriceAlertEngine target, List<Object[]> rows, long highest) {
+        for (Object[] row : rows) {
+            long id = (Long) row[0];
+            target.track(id, (String) row[1], (Double) row[2], (Double) row[3], (Double) row[4]);
+            highest = Math.max(highest, id);
+        }
+        return highest;
+    }
+
+    /** Checks one quote against every open level of the symbol; returns how many alerts fired. */
+    public int onPrice(String symbol, double price) {
+        List<PriceAlertEngine.Trigger> triggers = engine.onPrice(symbol, price);
+        if (!triggers.isEmpty()) {
+            publisher.execute(() -> triggers.forEach(this::publish));
+        }
+        return triggers.size();
+    }
+
+    public int onPrices(Map<String, Double> prices) {
+        int fired = 0;
+        for (Map.Entry<String, Double> quote : prices.entrySet()) {
+            if (quote.getValue() != null) {
+                fired += onPrice(quote.getKey(), quote.getValue());
+            }
+        }
+        return fired;
+    }
+
+    private void publish(PriceAlertEngine.Trigger trigger) {
+        StockRecommendation.RecommendationType type = recommendationRepository.findById(trigger.recommendationId())
+            .map(StockRecommendation::getRecommendation)
+            .orElse(null);
+        PriceAlert alert;
+        try {
+            alert = alertRepository.save(new PriceAlert(trigger.recommendationId(), trigger.symbol(), trigger.type(),
+                type, trigger.level(), trigger.price()));
+        } catch (DataIntegrityViolationException e) {
+            return; // Already fired on another node
+        } catch (Exception e) {
+            log.warning("Failed to persist alert for recommendation " + trigger.recommendationId() + ": " + e.getMessage());
+            return;
+        }
+        for (SseEmitter subscriber : subscribers) {
+            try {
+                subscriber.send(SseEmitter.event().name("alert").data(alert));
+            } catch (IOException | IllegalStateException e) {
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        subscribers.add(emitter);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        return emitter;
+    }
+
+    public List<PriceAlert> getRecentAlerts(String symbol) {
+        return symbol != null ? alertRepository.findBySymbolOrderByTriggeredAtDesc(symbol) : alertRepository.findTop100ByOrderByTriggeredAtDesc();
+    }
+
+    public int getWatchedLevels() {
+        return engine.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdown();
+    }
+}
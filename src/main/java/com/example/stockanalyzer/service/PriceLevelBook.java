@@ -0,0 +1,138 @@
+package com.example.stockanalyzer.service;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+
+/**
+ * Active price levels of one symbol, each identified by a long id. Levels that fire when the price
+ * rises to them and levels that fire when it falls to them are kept in two ascending primitive
+ * arrays. Levels crossed by a price update always form a prefix of the first array and a suffix of
+ * the second, so an update costs one binary search per side plus one step per fired level, and
+ * fired levels are dropped by moving a bound rather than shifting the array. Not thread-safe.
+ */
+public final class PriceLevelBook {
+
+    // Rising: fires once price >= level; active entries are [upHead, upEnd)
+    private double[] upLevels = new double[4];
+    private long[] upIds = new long[4];
+    private int upHead;
+    private int upEnd;
+
+    // Falling: fires once price <= level; active entries are [0, downEnd)
+    private double[] downLevels = new double[4];
+    private long[] downIds = new long[4];
+    private int downEnd;
+
+    public void addRising(long id, double level) {
+        if (upHead > 0 && upHead >= upEnd / 2) {
+            // Reclaim the fired prefix before it dominates the array
+            System.arraycopy(upLevels, upHead, upLevels, 0, upEnd - upHead);
+            System.arraycopy(upIds, upHead, upIds, 0, upEnd - upHead);
+            upEnd -= upHead;
+            upHead = 0;
+        }
+        if (upEnd == upLevels.length) {
+            upLevels = Arrays.copyOf(upLevels, upEnd * 2);
+            upIds = Arrays.copyOf(upIds, upEnd * 2);
+        }
+        int at = upperBound(upLevels, upHead, upEnd, level);
+        System.arraycopy(upLevels, at, upLevels, at + 1, upEnd - at);
+        System.arraycopy(upIds, at, upIds, at + 1, upEnd - at);
+        upLevels[at] = level;
+        upIds[at] = id;
+        upEnd++;
+    }
+
+    public void addFalling(long id, double level) {
+        if (downEnd == downLevels.length) {
+            downLevels = Arrays.copyOf(downLevels, downEnd * 2);
+            downIds = Arrays.copyOf(downIds, downEnd * 2);
+        }
+        int at = upperBound(downLevels, 0, downEnd, level);
+        System.arraycopy(downLevels, at, downLevels, at + 1, downEnd - at);
+        System.arraycopy(downIds, at, downIds, at + 1, downEnd - at);
+        downLevels[at] = level;
+        downIds[at] = id;
+        downEnd++;
+    }
+
+    public interface LevelConsumer {
+        void accept(long id, double level);
+    }
+
+    /** Hands every level {@code price} reaches to {@code fired}, removes them and returns how many fired. */
+    public int cross(double price, LevelConsumer fired) {
+        int count = 0;
+        int upTo = upperBound(upLevels, upHead, upEnd, price);
+        for (int i = upHead; i < upTo; i++) {
+            fired.accept(upIds[i], upLevels[i]);
+            count++;
+        }
+        upHead = upTo;
+
+        int downFrom = lowerBound(downLevels, 0, downEnd, price);
+        for (int i = downFrom; i < downEnd; i++) {
+            fired.accept(downIds[i], downLevels[i]);
+            count++;
+        }
+        downEnd = downFrom;
+        return count;
+    }
+
+    /** Drops every level whose id fails {@code keep}; returns how many were dropped. */
+    public int retain(LongPredicate keep) {
+        int up = 0;
+        for (int i = upHead; i < upEnd; i++) {
+            if (keep.test(upIds[i])) {
+                upLevels[up] = upLevels[i];
+                upIds[up++] = upIds[i];
+            }
+        }
+        int down = 0;
+        for (int i = 0; i < downEnd; i++) {
+            if (keep.test(downIds[i])) {
+                downLevels[down] = downLevels[i];
+                downIds[down++] = downIds[i];
+            }
+        }
+        int dropped = size() - up - down;
+        upHead = 0;
+        upEnd = up;
+        downEnd = down;
+        return dropped;
+    }
+
+    public int size() {
+        return (upEnd - upHead) + downEnd;
+    }
+
+    // First index in [from, to) whose level is greater than value
+    private static int upperBound(double[] levels, int from, int to, double value) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (levels[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index in [from, to) whose level is at least value
+    private static int lowerBound(double[] levels, int from, int to, double value) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (levels[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,440 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.core.AnalysisEvents;
+import com.example.stockanalyzer.model.AnalysisRun;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * On-demand Flight Recorder recordings. A recording covers either a time window or one analysis
+ * run: it stops by itself once the run is no longer running, or, when started with no run given
+ * and none running, it waits for the next run to start and follows that one. Only this node is
+ * recorded; a run sharded over several nodes needs a recording on each. The newest
+ * {@code profiling.keep} recordings are kept under {@code profiling.directory}.
+ */
+@Service
+public class ProfilingService {
+
+    private static final Logger log = Logger.getLogger(ProfilingService.class.getName());
+
+    private static final int TOP = 10;
+
+    @Autowired
+    private AnalysisRunService analysisRunService;
+
+    @Autowired
+    private AnalysisShardCoordinator shardCoordinator;
+
+    @Value("${profiling.directory:profiles}")
+    private String directory;
+
+    // Built-in JFR settings to start from: "default" (about 1% overhead) or "profile"
+    @Value("${profiling.settings:profile}")
+    private String settings;
+
+    @Value("${profiling.maxDurationSeconds:7200}")
+    private long maxDurationSeconds;
+
+    @Value("${profiling.keep:5}")
+    private int keep;
+
+    public enum Scope {
+        RUN, WINDOW
+    }
+
+    public static final class Profile {
+        private final long id;
+        private final Scope scope;
+        private final Recording recording;
+        private final Path file;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile String runId;
+        private volatile LocalDateTime stoppedAt;
+
+        private Profile(long id, Scope scope, String runId, Recording recording, Path file) {
+            this.id = id;
+            this.scope = scope;
+            this.runId = runId;
+            this.recording = recording;
+            this.file = file;
+        }
+
+        public long getId() { return id; }
+        public String getFileName() { return file.getFileName().toString(); }
+
+        public boolean isRunning() {
+            return recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED;
+        }
+    }
+
+    private final Map<Long, Profile> profiles = new LinkedHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    /**
+     * Records one run: {@code runId} if given, a new manual run if {@code trigger} is set, otherwise
+     * the run in progress or, failing that, the next one to start.
+     */
+    public synchronized Profile startForRun(String runId, boolean trigger) throws IOException, ParseException {
+        if (runId != null && analysisRunService.findRun(runId).isEmpty()) {
+            throw new IllegalArgumentException("Unknown run " + runId);
+        }
+        if (runId == null && !trigger) {
+            List<AnalysisRun> active = analysisRunService.findActiveRuns();
+            if (!active.isEmpty()) {
+                runId = active.get(0).getId();
+            }
+        }
+        Profile profile = start(Scope.RUN, runId, Duration.ofSeconds(maxDurationSeconds));
+        if (runId == null && trigger) {
+            // Recording is already on, so the run's planning is captured too
+            profile.runId = shardCoordinator.triggerManualRun().runId();
+        }
+        return profile;
+    }
+
+    public synchronized Profile startWindow(Duration window) throws IOException, ParseException {
+        if (window.isZero() || window.isNegative() || window.getSeconds() > maxDurationSeconds) {
+            throw new IllegalArgumentException("Window must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+        return start(Scope.WINDOW, null, window);
+    }
+
+    private Profile start(Scope scope, String runId, Duration duration) throws IOException, ParseException {
+        Path dir = Path.of(directory);
+        Files.createDirectories(dir);
+        long id = nextId.getAndIncrement();
+        Path file = dir.resolve("analysis-" + id + ".jfr").toAbsolutePath();
+
+        Recording recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName("analysis-" + id);
+        recording.setToDisk(true);
+        recording.setDestination(file);
+        recording.setDuration(duration);
+        recording.enable(AnalysisEvents.StageEvent.class);
+        recording.enable(AnalysisEvents.SourceFetchEvent.class);
+        recording.enable(AnalysisEvents.SlmCallEvent.class);
+        recording.enable(AnalysisEvents.PersistBatchEvent.class);
+        recording.start();
+
+        Profile profile = new Profile(id, scope, runId, recording, file);
+        profiles.put(id, profile);
+        evictOld();
+        log.info("Started JFR recording " + id + " (" + scope + (runId != null ? " " + runId : "") + ") to " + file);
+        return profile;
+    }
+
+    private void evictOld() {
+        List<Profile> finished = profiles.values().stream().filter(p -> !p.isRunning()).toList();
+        for (int i = 0; i < finished.size() - keep; i++) {
+            Profile old = finished.get(i);
+            profiles.remove(old.id);
+            old.recording.close();
+            try {
+                Files.deleteIfExists(old.file);
+                Files.deleteIfExists(snapshotOf(old));
+            } catch (IOException e) {
+                log.warning("Could not delete " + old.file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized Optional<Profile> stop(long id) {
+        Profile profile = profiles.get(id);
+        if (profile != null && profile.isRunning()) {
+            profile.recording.stop();
+            profile.stoppedAt = LocalDateTime.now();
+            log.info("Stopped JFR recording " + id);
+        }
+        return Optional.ofNullable(profile);
+    }
+
+    // Run-scoped recordings follow their run and stop once it has finished
+    @Scheduled(fixedDelayString = "${profiling.checkMs:5000}")
+    public synchronized void followRuns() {
+        for (Profile profile : profiles.values()) {
+            if (!profile.isRunning()) {
+                if (profile.stoppedAt == null) {
+                    profile.stoppedAt = LocalDateTime.now(); // reached its maximum duration
+                }
+                continue;
+            }
+            if (profile.scope != Scope.RUN) {
+                continue;
+            }
+            if (profile.runId == null) {
+                List<AnalysisRun> active = analysisRunService.findActiveRuns();
+                if (!active.isEmpty()) {
+                    profile.runId = active.get(0).getId();
+                }
+            } else if (analysisRunService.findRun(profile.runId)
+                    .map(run -> run.getStatus() != AnalysisRun.RunStatus.RUNNING).orElse(true)) {
+                stop(profile.id);
+            }
+        }
+    }
+
+    public synchronized List<Profile> list() {
+        return new ArrayList<>(profiles.values());
+    }
+
+    public synchronized Optional<Profile> get(long id) {
+        return Optional.ofNullable(profiles.get(id));
+    }
+
+    /** The recording as a file; a running recording is copied up to now. */
+    public Path file(Profile profile) throws IOException {
+        if (!profile.isRunning()) {
+            return profile.file;
+        }
+        Path snapshot = snapshotOf(profile);
+        profile.recording.dump(snapshot);
+        return snapshot;
+    }
+
+    private static Path snapshotOf(Profile profile) {
+        return profile.file.resolveSibling("analysis-" + profile.id + "-snapshot.jfr");
+    }
+
+    private static final class StageTotals {
+        private long count;
+        private long nanos;
+        private long maxNanos;
+        private long errors;
+        private long allocatedBytes;
+        private long cpuSamples;
+    }
+
+    private record Interval(Instant start, Instant end, String key) {}
+
+    /**
+     * Time, allocation and CPU per stage, plus the hottest methods and allocation sites. Allocation
+     * and CPU samples are charged to the innermost custom event running on the same thread at the
+     * time; samples outside any of them are left out of the stage totals. The file is read twice,
+     * first for the custom events and then for the samples, which are only counted, never kept.
+     */
+    public Map<String, Object> summarize(Profile profile) throws IOException {
+        Map<String, StageTotals> stages = new HashMap<>();
+        Map<Long, List<Interval>> intervalsByThread = new HashMap<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        Map<String, Long> allocationSites = new HashMap<>();
+        Map<String, Long> hotMethods = new HashMap<>();
+        long[] cpuSamples = new long[1];
+
+        Path file = profile.file;
+        if (profile.isRunning()) {
+            file = Files.createTempFile(profile.file.getParent(), "summary-", ".jfr");
+            profile.recording.dump(file);
+        }
+        try {
+            readEvents(file, event -> {
+                String type = event.getEventType().getName();
+                switch (type) {
+                    case AnalysisEvents.STAGE, AnalysisEvents.SOURCE_FETCH, AnalysisEvents.SLM_CALL, AnalysisEvents.PERSIST_BATCH -> {
+                        String key = stageKey(type, event);
+                        long nanos = event.getDuration().toNanos();
+                        StageTotals totals = stages.computeIfAbsent(key, k -> new StageTotals());
+                        totals.count++;
+                        totals.nanos += nanos;
+                        totals.maxNanos = Math.max(totals.maxNanos, nanos);
+                        String error = event.getString("error");
+                        if (error != null) {
+                            totals.errors++;
+                            if (errors.size() < 50) {
+                                Map<String, Object> entry = new LinkedHashMap<>();
+                                entry.put("stage", key);
+                                entry.put("at", event.getStartTime().toString());
+                                if (event.hasField("symbol")) {
+                                    entry.put("symbol", event.getString("symbol"));
+                                }
+                                entry.put("error", error);
+                                errors.add(entry);
+                            }
+                        }
+                        intervalsByThread.computeIfAbsent(threadId(event.getThread()), t -> new ArrayList<>())
+                            .add(new Interval(event.getStartTime(), event.getEndTime(), key));
+                    }
+                    default -> { }
+                }
+            });
+            intervalsByThread.values().forEach(list -> list.sort(Comparator.comparing(Interval::start)));
+
+            readEvents(file, event -> {
+                switch (event.getEventType().getName()) {
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        allocationSites.merge(topFrame(event.getStackTrace()), weight, Long::sum);
+                        String key = innermost(intervalsByThread.get(threadId(event.getThread())), event.getStartTime());
+                        if (key != null) {
+                            stages.get(key).allocatedBytes += weight;
+                        }
+                    }
+                    case "jdk.ExecutionSample" -> {
+                        cpuSamples[0]++;
+                        hotMethods.merge(topFrame(event.getStackTrace()), 1L, Long::sum);
+                        String key = innermost(intervalsByThread.get(threadId(event.getThread("sampledThread"))), event.getStartTime());
+                        if (key != null) {
+                            stages.get(key).cpuSamples++;
+                        }
+                    }
+                    default -> { }
+                }
+            });
+        } finally {
+            if (!file.equals(profile.file)) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<Map<String, Object>> stageRows = new ArrayList<>();
+        stages.forEach((key, totals) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("stage", key);
+            row.put("count", totals.count);
+            row.put("totalMs", totals.nanos / 1_000_000);
+            row.put("avgMs", totals.nanos / 1_000_000 / Math.max(1, totals.count));
+            row.put("maxMs", totals.maxNanos / 1_000_000);
+            row.put("errors", totals.errors);
+            row.put("allocatedBytes", totals.allocatedBytes);
+            row.put("cpuSamples", totals.cpuSamples);
+            stageRows.add(row);
+        });
+
+        Map<String, Object> summary = describe(profile);
+        summary.put("topStagesByTime", top(stageRows, "totalMs", false));
+        summary.put("topStagesByAllocation", top(stageRows, "allocatedBytes", true));
+        summary.put("hotMethods", top(hotMethods, "samples"));
+        summary.put("allocationSites", top(allocationSites, "bytes"));
+        summary.put("cpuSamples", cpuSamples[0]);
+        summary.put("errors", errors);
+        return summary;
+    }
+
+    private static void readEvents(Path file, Consumer<RecordedEvent> consumer) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                consumer.accept(recording.readEvent());
+            }
+        }
+    }
+
+    public Map<String, Object> describe(Profile profile) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", profile.id);
+        description.put("scope", profile.scope);
+        description.put("runId", profile.runId);
+        description.put("state", profile.recording.getState().name());
+        description.put("startedAt", profile.startedAt);
+        description.put("stoppedAt", profile.stoppedAt);
+        description.put("file", profile.getFileName());
+        return description;
+    }
+
+    private static String stageKey(String type, RecordedEvent event) {
+        return switch (type) {
+            case AnalysisEvents.STAGE -> "stage " + event.getString("stage");
+            case AnalysisEvents.SOURCE_FETCH -> "fetch " + host(event.getString("source"));
+            case AnalysisEvents.SLM_CALL -> "slm " + event.getString("model");
+            default -> "persist " + event.getString("kind");
+        };
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (Exception e) {
+            return String.valueOf(url);
+        }
+    }
+
+    private static long threadId(RecordedThread thread) {
+        return thread != null ? thread.getJavaThreadId() : -1;
+    }
+
+    private static String topFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "(unknown)";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    // Events on a thread nest, so the latest-starting one still open at the time is the innermost
+    private static String innermost(List<Interval> intervals, Instant time) {
+        if (intervals == null) {
+            return null;
+        }
+        int lo = 0;
+        int hi = intervals.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (!intervals.get(mid).start().isAfter(time)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int i = lo - 1; i >= 0 && i >= lo - 64; i--) {
+            if (!intervals.get(i).end().isBefore(time)) {
+                return intervals.get(i).key();
+            }
+        }
+        return null;
+    }
+
+    private static List<Map<String, Object>> top(List<Map<String, Object>> rows, String field, boolean skipZero) {
+        return rows.stream()
+            .filter(row -> !skipZero || (Long) row.get(field) > 0)
+            .sorted(Comparator.comparing((Map<String, Object> row) -> (Long) row.get(field)).reversed())
+            .limit(TOP)
+            .toList();
+    }
+
+    private static List<Map<String, Object>> top(Map<String, Long> counts, String field) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(TOP)
+            .map(entry -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("method", entry.getKey());
+                row.put(field, entry.getValue());
+                return row;
+            })
+            .toList();
+    }
+
+    @PreDestroy
+    public synchronized void stopAll() {
+        profiles.values().stream().filter(Profile::isRunning).forEach(profile -> profile.recording.stop());
+    }
+}
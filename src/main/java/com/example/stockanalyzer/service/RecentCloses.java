@@ -0,0 +1,129 @@
+package com.example.stockanalyzer.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The last {@code keep} daily closes of one symbol's bar file, and how far into the file they have
+ * been read. {@link #refresh} reads only the bytes appended since the previous call, so a file
+ * re-exported with one more row costs one row. The file is read again from the start if it has
+ * shrunk or no longer has a line break where the previous read stopped; edits to rows already
+ * read are not picked up otherwise. A last line without a line break is used but read again on
+ * the next refresh, in case it was still being written. Not thread-safe.
+ */
+final class RecentCloses {
+
+    private final Path file;
+    private final int keep;
+
+    private int[] days = new int[0];
+    private double[] closes = new double[0];
+    private boolean hasPending;
+    private int pendingDay;
+    private double pendingClose;
+    // End of the last complete line read, and the file size at the last read
+    private long offset;
+    private long length;
+
+    RecentCloses(Path file, int keep) {
+        this.file = file;
+        this.keep = Math.max(1, keep);
+    }
+
+    /** Reads bars added to the file since the last call. Returns the number of bytes read. */
+    long refresh() throws IOException {
+        if (!Files.isRegularFile(file)) {
+            clear();
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == length) {
+                return 0;
+            }
+            boolean appended = offset > 0 && size > offset && byteAt(channel, offset - 1) == '\n';
+            if (!appended) {
+                clear();
+            }
+            byte[] data = read(channel, offset, size);
+            int complete = data.length;
+            while (complete > 0 && data[complete - 1] != '\n') {
+                complete--;
+            }
+            hasPending = false;
+            append(HistoricalBars.parse(Arrays.copyOf(data, complete)));
+            HistoricalBars partial = HistoricalBars.parse(Arrays.copyOfRange(data, complete, data.length));
+            if (partial.size() > 0 && (days.length == 0 || partial.day(0) > days[days.length - 1])) {
+                hasPending = true;
+                pendingDay = partial.day(0);
+                pendingClose = partial.close(0);
+            }
+            offset += complete;
+            length = size;
+            return data.length;
+        }
+    }
+
+    private void clear() {
+        days = new int[0];
+        closes = new double[0];
+        hasPending = false;
+        offset = 0;
+        length = 0;
+    }
+
+    private void append(HistoricalBars bars) {
+        int first = days.length > 0 ? bars.firstAfter(days[days.length - 1]) : 0;
+        int added = bars.size() - first;
+        if (added <= 0) {
+            return;
+        }
+        int size = Math.min(keep, days.length + added);
+        int kept = Math.max(0, size - added);
+        int[] newDays = new int[size];
+        double[] newCloses = new double[size];
+        System.arraycopy(days, days.length - kept, newDays, 0, kept);
+        System.arraycopy(closes, closes.length - kept, newCloses, 0, kept);
+        for (int i = kept, b = bars.size() - (size - kept); i < size; i++, b++) {
+            newDays[i] = bars.day(b);
+            newCloses[i] = bars.close(b);
+        }
+        days = newDays;
+        closes = newCloses;
+    }
+
+    private static byte[] read(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static byte byteAt(FileChannel channel, long position) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, position) == 1 ? one.get(0) : 0;
+    }
+
+    /** Index of the bar on {@code epochDay}, or -1 if there is none. */
+    int indexOf(int epochDay) {
+        if (hasPending && epochDay == pendingDay) {
+            return days.length;
+        }
+        int index = Arrays.binarySearch(days, epochDay);
+        return index >= 0 ? index : -1;
+    }
+
+    int size() { return days.length + (hasPending ? 1 : 0); }
+
+    int day(int i) { return i == days.length ? pendingDay : days[i]; }
+
+    double close(int i) { return i == days.length ? pendingClose : closes[i]; }
+}
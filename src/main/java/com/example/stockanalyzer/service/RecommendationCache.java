@@ -0,0 +1,185 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Latest recommendations per symbol, newest first and capped at {@code recommendations.cache.historySize}.
+ * Local writes go in after their transaction commits; rows written by other nodes are picked up by a
+ * periodic sync on the id sequence. Until the startup warm-up has finished, readers fall back to the database.
+ */
+@Service
+public class RecommendationCache {
+
+    private static final Logger log = Logger.getLogger(RecommendationCache.class.getName());
+
+    private static final Comparator<StockRecommendation> NEWEST_FIRST =
+        Comparator.comparing(StockRecommendation::getGeneratedAt).reversed();
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Value("${recommendations.cache.historySize:10}")
+    private int historySize;
+
+    @Value("${recommendations.cache.warmDays:30}")
+    private int warmDays;
+
+    // Identity values are assigned before commit, so concurrent writers can commit out of order;
+    // every sync re-reads this many ids below the highest one seen
+    @Value("${recommendations.cache.syncIdOverlap:100}")
+    private long syncIdOverlap;
+
+    // Immutable lists, replaced on every change
+    private final Map<String, List<StockRecommendation>> recent = new ConcurrentHashMap<>();
+    private volatile long highestId;
+    private volatile boolean warmed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warm() {
+        recommendationRepository.findLatestPerSymbol().forEach(this::apply);
+        recommendationRepository.findByGeneratedAtGreaterThanEqualOrderByGeneratedAtAsc(LocalDateTime.now().minusDays(warmDays))
+            .forEach(this::apply);
+        warmed = true;
+        log.info("Recommendation cache warmed with " + recent.size() + " symbols");
+    }
+
+    @Scheduled(fixedDelayString = "${recommendations.cache.syncMs:5000}", initialDelayString = "${recommendations.cache.syncMs:5000}")
+    @Transactional(readOnly = true)
+    public void syncFromDatabase() {
+        if (!warmed) {
+            return;
+        }
+        recommendationRepository.findByIdGreaterThanOrderByIdAsc(Math.max(0, highestId - syncIdOverlap))
+            .forEach(this::apply);
+    }
+
+    /** Write-through for a saved recommendation; applied once the surrounding transaction commits. */
+    public void recordSaved(StockRecommendation saved) {
+        StockRecommendation copy = copyOf(saved);
+        afterCommit(() -> insert(copy));
+    }
+    
+    /** Drops rows deleted by the surrounding transaction once it commits. */
+    public void recordDeleted(Collection<String> symbols, Set<Long> ids) {
+        Set<String> affected = Set.copyOf(symbols);
+        afterCommit(() -> affected.forEach(symbol -> recent.computeIfPresent(symbol, (s, current) -> {
+            List<StockRecommendation> kept = current.stream()
+                .filter(r -> !ids.contains(r.getId()))
+                .toList();
+            return kept.isEmpty() ? null : kept;
+        })));
+    }
+
+    public int getHistorySize() {
+        return Math.max(1, historySize);
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    public StockRecommendation getLatest(String symbol) {
+        List<StockRecommendation> list = recent.get(symbol);
+        return list == null || list.isEmpty() ? null : list.get(0);
+    }
+
+    public List<StockRecommendation> getRecent(String symbol) {
+        return recent.getOrDefault(symbol, List.of());
+    }
+
+    public List<StockRecommendation> getLatestPerSymbol() {
+        List<StockRecommendation> latest = new ArrayList<>(recent.size());
+        for (List<StockRecommendation> list : recent.values()) {
+            if (!list.isEmpty()) {
+                latest.add(list.get(0));
+            }
+        }
+        latest.sort(NEWEST_FIRST);
+        return latest;
+    }
+
+    /** Drops cached entries, e.g. after rows were deleted; the next sync or warm-up refills them. */
+    public void evict(String symbol) {
+        recent.remove(symbol);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Entities read here may be managed; cache detached copies with their collections loaded
+    private void apply(StockRecommendation recommendation) {
+        insert(copyOf(recommendation));
+    }
+
+    private void insert(StockRecommendation recommendation) {
+        if (recommendation.getId() != null) {
+            highestId = Math.max(highestId, recommendation.getId());
+        }
+        recent.compute(recommendation.getSymbol(), (symbol, current) -> {
+            if (current == null) {
+                return List.of(recommendation);
+            }
+            for (StockRecommendation existing : current) {
+                if (existing.getId() != null && existing.getId().equals(recommendation.getId())) {
+                    return current;
+                }
+            }
+            List<StockRecommendation> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(recommendation);
+            updated.sort(NEWEST_FIRST);
+            return List.copyOf(updated.subList(0, Math.min(updated.size(), getHistorySize())));
+        });
+    }
+
+    private static StockRecommendation copyOf(StockRecommendation source) {
+        StockRecommendation copy = new StockRecommendation();
+        copy.setId(source.getId());
+        copy.setSymbol(source.getSymbol());
+        copy.setCompanyName(source.getCompanyName());
+        copy.setCurrentPrice(source.getCurrentPrice());
+        copy.setPreviousClose(source.getPreviousClose());
+        copy.setRecommendation(source.getRecommendation());
+        copy.setReasoning(source.getReasoning());
+        copy.setTargetPrice(source.getTargetPrice());
+        copy.setStopLoss(source.getStopLoss());
+        copy.setRiskLevel(source.getRiskLevel());
+        copy.setKeyKeywords(source.getKeyKeywords() != null ? List.copyOf(source.getKeyKeywords()) : List.of());
+        copy.setNewsSources(source.getNewsSources() != null ? List.copyOf(source.getNewsSources()) : List.of());
+        copy.setGeneratedAt(source.getGeneratedAt());
+        copy.setAnalysisDate(source.getAnalysisDate());
+        copy.setRunId(source.getRunId());
+        return copy;
+    }
+}
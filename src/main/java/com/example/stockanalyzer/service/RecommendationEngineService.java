@@ -8,9 +8,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 import java.util.logging.Logger;
 
 @Service
@@ -21,11 +19,11 @@ public class RecommendationEngineService {
     @Autowired
     private MarketDataClient marketDataClient;
     
-    // Popular stock symbols to analyze
-    private static final List<String> POPULAR_STOCKS = Arrays.asList(
-        "AAPL", "MSFT", "GOOGL", "AMZN", "TSLA", "META", "NVDA", "NFLX", "AMD", "INTC",
-        "CRM", "ADBE", "PYPL", "UBER", "LYFT", "SQ", "ROKU", "ZM", "DOCU", "SNOW"
-    );
+    @Autowired
+    private SymbolMasterService symbolMasterService;
+    
+    @Autowired
+    private SymbolSentimentService symbolSentimentService;
     
     public List<StockRecommendation> generateRecommendations(List<NewsAnalysis> newsAnalyses) {
         List<StockRecommendation> recommendations = new ArrayList<>();
@@ -37,18 +35,32 @@ public class RecommendationEngineService {
                     recommendations.add(recommendation);
                 }
             } catch (Exception e) {
+                log.warning("Recommendation for " + analysis.getSymbol() + " failed: " + e);
             }
         }
         
         return recommendations;
     }
     
-    private StockRecommendation createRecommendation(NewsAnalysis analysis) {
+    public StockRecommendation createRecommendation(NewsAnalysis analysis) {
+        return createRecommendation(analysis, marketDataClient.fetchQuote(analysis.getSymbol()));
+    }
+    
+    // Scores an analysis against a quote fetched separately; null without a quote
+    public StockRecommendation createRecommendation(NewsAnalysis analysis, MarketDataClient.Quote quote) {
+        if (quote == null) {
+            log.warning("No quote for " + analysis.getSymbol() + "; recommendation skipped");
+            return null;
+        }
         try {
-            // Get current market data
-            String marketData = marketDataClient.getMarketData(analysis.getSymbol());
-            double currentPrice = extractCurrentPrice(marketData);
-            double previousClose = extractPreviousClose(marketData);
+            // Score on the symbol's decayed sentiment as of now, not as of when its news was ingested
+            NewsAnalysis.SentimentScore sentiment = symbolSentimentService.current(analysis.getSymbol());
+            if (sentiment != null) {
+                analysis.setSentiment(sentiment);
+            }
+            
+            double currentPrice = quote.price();
+            double previousClose = quote.previousClose();
             
             // Calculate recommendation based on news sentiment and technical factors
             StockRecommendation.RecommendationType recommendationType = calculateRecommendationType(analysis);
@@ -70,15 +82,13 @@ public class RecommendationEngineService {
             recommendation.setStopLoss(stopLoss);
             recommendation.setRiskLevel(riskLevel);
             recommendation.setKeyKeywords(analysis.getKeyKeywords());
-            recommendation.setNewsSources(analysis.getNewsItems().stream()
-                .map(NewsAnalysis.NewsItem::getSource)
-                .distinct()
-                .collect(java.util.stream.Collectors.toList()));
+            recommendation.setNewsSources(analysis.getArticles().getSources());
             recommendation.setGeneratedAt(LocalDateTime.now());
             recommendation.setAnalysisDate(LocalDateTime.now());
             return recommendation;
                 
         } catch (Exception e) {
+            log.warning("Could not score " + analysis.getSymbol() + ": " + e);
             return null;
         }
     }
@@ -125,7 +135,7 @@ public class RecommendationEngineService {
         }
         
         // Add news count reasoning
-        reasoning.append("Analyzed ").append(analysis.getNewsItems().size()).append(" relevant news articles. ");
+        reasoning.append("Analyzed ").append(analysis.getArticles().size()).append(" relevant news articles. ");
         
         // Add recommendation-specific reasoning
         switch (recommendation) {
@@ -193,7 +203,7 @@ public class RecommendationEngineService {
         }
         
         // Adjust based on news volume
-        if (analysis.getNewsItems().size() > 15) {
+        if (analysis.getArticles().size() > 15) {
             riskLevel += 1.0; // More news = more volatility
         }
         
@@ -201,26 +211,8 @@ public class RecommendationEngineService {
         return Math.max(1.0, Math.min(10.0, riskLevel));
     }
     
-    private double extractCurrentPrice(String marketData) {
-        // Simplified price extraction - in real implementation, parse JSON response
-        try {
-            // This is a placeholder - would parse actual market data response
-            return 100.0 + new Random().nextDouble() * 200.0; // Random price between 100-300
-        } catch (Exception e) {
-            return 150.0;
-        }
-    }
-    
-    private double extractPreviousClose(String marketData) {
-        // Simplified previous close extraction
-        try {
-            return 100.0 + new Random().nextDouble() * 200.0; // Random price between 100-300
-        } catch (Exception e) {
-            return 150.0;
-        }
-    }
-    
+    // Analysis universe, in symbol master order
     public List<String> getPopularStocks() {
-        return new ArrayList<>(POPULAR_STOCKS);
+        return new ArrayList<>(symbolMasterService.getUniverse());
     }
 }
@@ -0,0 +1,60 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.core.AnalysisEvents;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.logging.Logger;
+
+/**
+ * Compacts recommendation history: rows from closed days are folded into the daily and weekly
+ * rollups, rolled-up rows older than {@code retention.rawDays} are deleted in batches, and daily
+ * rollups older than {@code retention.dailyRollupDays} are dropped in favour of the weekly ones.
+ * Fires on one node of the cluster, like {@link DailyAnalysisJob}.
+ */
+@DisallowConcurrentExecution
+public class RecommendationRetentionJob extends QuartzJobBean {
+
+    private static final Logger log = Logger.getLogger(RecommendationRetentionJob.class.getName());
+
+    @Autowired
+    private RecommendationRollupService rollupService;
+
+    @Value("${retention.rawDays:3650}")
+    private int rawDays;
+
+    @Value("${retention.dailyRollupDays:400}")
+    private int dailyRollupDays;
+
+    @Value("${retention.batchSize:500}")
+    private int batchSize;
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        LocalDate today = LocalDate.now();
+
+        int rolledUp = 0;
+        for (int batch; (batch = AnalysisEvents.persistBatch("rollup", () -> rollupService.rollUpBatch(today.atStartOfDay(), batchSize))) > 0; ) {
+            rolledUp += batch;
+        }
+
+        int pruned = 0;
+        if (rawDays > 0) {
+            LocalDateTime cutoff = today.minusDays(rawDays).atStartOfDay();
+            for (int batch; (batch = AnalysisEvents.persistBatch("prune", () -> rollupService.pruneBatch(cutoff, batchSize))) > 0; ) {
+                pruned += batch;
+            }
+        }
+
+        int dropped = dailyRollupDays > 0 ? rollupService.dropDailyRollups(today.minusDays(dailyRollupDays)) : 0;
+        if (rolledUp > 0 || pruned > 0 || dropped > 0) {
+            log.info("Retention: rolled up " + rolledUp + " recommendations, pruned " + pruned +
+                     ", dropped " + dropped + " daily rollups");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.RecommendationRollup;
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.RecommendationRollupRepository;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Daily and weekly per-symbol rollups of recommendation history. Each batch method runs in its own
+ * transaction, so a rollup and the rows it counted, or a delete and its child rows, commit together.
+ */
+@Service
+public class RecommendationRollupService {
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Autowired
+    private RecommendationRollupRepository rollupRepository;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    /**
+     * Folds up to {@code batchSize} rows generated before {@code before} into their daily and weekly
+     * rollups and marks them as counted. Returns the number of rows folded in.
+     */
+    @Transactional
+    public int rollUpBatch(LocalDateTime before, int batchSize) {
+        List<Object[]> rows = recommendationRepository.findNotRolledUp(before, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> symbols = new HashSet<>();
+        Set<LocalDate> days = new HashSet<>();
+        Set<LocalDate> weeks = new HashSet<>();
+        for (Object[] row : rows) {
+            LocalDate day = ((LocalDateTime) row[2]).toLocalDate();
+            symbols.add((String) row[1]);
+            days.add(day);
+            weeks.add(weekStart(day));
+        }
+        Map<String, RecommendationRollup> rollups = new HashMap<>();
+        rollupRepository.findByPeriodAndSymbolInAndBucketStartIn(RecommendationRollup.Period.DAILY, symbols, days)
+            .forEach(r -> rollups.put(key(r.getSymbol(), r.getPeriod(), r.getBucketStart()), r));
+        rollupRepository.findByPeriodAndSymbolInAndBucketStartIn(RecommendationRollup.Period.WEEKLY, symbols, weeks)
+            .forEach(r -> rollups.put(key(r.getSymbol(), r.getPeriod(), r.getBucketStart()), r));
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String symbol = (String) row[1];
+            LocalDateTime generatedAt = (LocalDateTime) row[2];
+            StockRecommendation.RecommendationType type = (StockRecommendation.RecommendationType) row[3];
+            Double price = (Double) row[4];
+            Double risk = (Double) row[5];
+            LocalDate day = generatedAt.toLocalDate();
+            rollup(rollups, symbol, RecommendationRollup.Period.DAILY, day).add(type, price, risk, generatedAt);
+            rollup(rollups, symbol, RecommendationRollup.Period.WEEKLY, weekStart(day)).add(type, price, risk, generatedAt);
+            ids.add((Long) row[0]);
+        }
+        rollupRepository.saveAll(rollups.values());
+        recommendationRepository.markRolledUp(ids);
+        return ids.size();
+    }
+
+    /**
+     * Deletes up to {@code batchSize} rolled-up rows generated before {@code cutoff}, together with
+     * their keyword and source rows. Returns the number of recommendations deleted.
+     */
+    @Transactional
+    public int pruneBatch(LocalDateTime cutoff, int batchSize) {
+        List<Object[]> rows = recommendationRepository.findPrunable(cutoff, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        Set<String> symbols = new HashSet<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            symbols.add((String) row[1]);
+        }
+        recommendationRepository.deleteKeywords(ids);
+        recommendationRepository.deleteSources(ids);
+        int deleted = recommendationRepository.deleteByIds(ids);
+        recommendationCache.recordDeleted(symbols, Set.copyOf(ids));
+        return deleted;
+    }
+
+    /** Weekly rollups already hold these days, so old daily ones can go. */
+    @Transactional
+    public int dropDailyRollups(LocalDate before) {
+        return rollupRepository.deleteOlderThan(RecommendationRollup.Period.DAILY, before);
+    }
+
+    public List<RecommendationRollup> getSymbolHistory(String symbol, RecommendationRollup.Period period, LocalDate from) {
+        return rollupRepository.findBySymbolAndPeriodAndBucketStartGreaterThanEqualOrderByBucketStartAsc(
+            symbol, period, bucketStart(period, from));
+    }
+
+    /** Universe-wide totals per bucket. */
+    public List<Map<String, Object>> getHistory(RecommendationRollup.Period period, LocalDate from) {
+        List<Map<String, Object>> history = new ArrayList<>();
+        for (Object[] row : rollupRepository.summarize(period, bucketStart(period, from))) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            long strongBuy = ((Number) row[1]).longValue();
+            long buy = ((Number) row[2]).longValue();
+            long hold = ((Number) row[3]).longValue();
+            long sell = ((Number) row[4]).longValue();
+            long strongSell = ((Number) row[5]).longValue();
+            double riskSum = ((Number) row[6]).doubleValue();
+            long riskCount = ((Number) row[7]).longValue();
+            bucket.put("bucketStart", row[0]);
+            bucket.put("symbols", ((Number) row[8]).longValue());
+            bucket.put("total", strongBuy + buy + hold + sell + strongSell);
+            bucket.put("STRONG_BUY", strongBuy);
+            bucket.put("BUY", buy);
+            bucket.put("HOLD", hold);
+            bucket.put("SELL", sell);
+            bucket.put("STRONG_SELL", strongSell);
+            bucket.put("averageRisk", riskCount > 0 ? riskSum / riskCount : null);
+            history.add(bucket);
+        }
+        return history;
+    }
+
+    private static RecommendationRollup rollup(Map<String, RecommendationRollup> rollups, String symbol,
+                                               RecommendationRollup.Period period, LocalDate bucketStart) {
+        return rollups.computeIfAbsent(key(symbol, period, bucketStart),
+            k -> new RecommendationRollup(symbol, period, bucketStart));
+    }
+
+    private static String key(String symbol, RecommendationRollup.Period period, LocalDate bucketStart) {
+        return symbol + '|' + period + '|' + bucketStart;
+    }
+
+    private static LocalDate bucketStart(RecommendationRollup.Period period, LocalDate day) {
+        return period == RecommendationRollup.Period.WEEKLY ? weekStart(day) : day;
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.core.AnalysisEvents;
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
+import com.example.stockanalyzer.model.StockRecommendation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Persists scored recommendations behind the analysis pipeline. {@link #enqueue} hands a
+ * recommendation to a bounded queue and returns; one writer thread saves them in batches of up
+ * to {@code recommendations.writeBehind.batchSize}, or whatever has arrived once the oldest has
+ * waited {@code flushMs}, each batch in one transaction. Transient database errors are retried
+ * with backoff; a batch that still fails is written row by row so one bad row only fails its own
+ * symbol. Nothing is lost if the process dies with rows queued: their checkpoints are SCORED in
+ * the database and a resumed run persists them again. On shutdown the queue is flushed first.
+ */
+@Service
+public class RecommendationWriteBehind {
+
+    private static final Logger log = Logger.getLogger(RecommendationWriteBehind.class.getName());
+
+    @Autowired
+    private AnalysisRunService analysisRunService;
+
+    @Autowired
+    private AutomationService automationService;
+
+    @Value("${recommendations.writeBehind.queueCapacity:256}")
+    private int queueCapacity;
+
+    @Value("${recommendations.writeBehind.batchSize:50}")
+    private int batchSize;
+
+    @Value("${recommendations.writeBehind.flushMs:500}")
+    private long flushMs;
+
+    @Value("${recommendations.writeBehind.maxAttempts:5}")
+    private int maxAttempts;
+
+    @Value("${recommendations.writeBehind.retryBackoffMs:1000}")
+    private long retryBackoffMs;
+
+    @Value("${recommendations.writeBehind.shutdownTimeoutMs:30000}")
+    private long shutdownTimeoutMs;
+
+    private record Pending(long sequence, AnalysisRunSymbol checkpoint, StockRecommendation recommendation, long enqueuedNanos) {}
+
+    private BlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    // Sequence numbers are handed out in queue order and the single writer finishes them in that order
+    private final Object sequenceLock = new Object();
+    private long enqueued;
+    private long completed;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private volatile long lastBatchMs;
+    private volatile long lastLagMs;
+    private volatile long maxLagMs;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        writer = new Thread(this::work, "recommendation-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the recommendation of a SCORED checkpoint, blocking while the queue is full. Returns the
+     * sequence number to pass to {@link #awaitWritten}. Throws {@link RejectedExecutionException} once the
+     * writer is shutting down; the checkpoint then stays SCORED for the run to persist when it resumes.
+     */
+    public long enqueue(AnalysisRunSymbol checkpoint, StockRecommendation recommendation) throws InterruptedException {
+        if (!running) {
+            throw new RejectedExecutionException("recommendation writer is shut down");
+        }
+        long start = System.nanoTime();
+        synchronized (sequenceLock) {
+            Pending pending = new Pending(enqueued + 1, checkpoint, recommendation, start);
+            // Holding the lock while blocked keeps sequence order and queue order the same
+            queue.put(pending);
+            enqueued = pending.sequence();
+            blockedNanos.addAndGet(System.nanoTime() - start);
+            return pending.sequence();
+        }
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} until everything up to {@code sequence} has been written or has
+     * failed for good; true once it has.
+     */
+    public boolean awaitWritten(long sequence, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (this) {
+            while (completed < sequence) {
+                long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (left <= 0) {
+                    return false;
+                }
+                wait(left);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Drops queued recommendations of {@code symbols} in {@code runId}, e.g. when their shard has moved
+     * to another node, which persists them from their checkpoints instead.
+     */
+    public int discard(String runId, Collection<String> symbols) {
+        AtomicInteger dropped = new AtomicInteger();
+        queue.removeIf(pending -> {
+            boolean drop = pending.checkpoint().getRunId().equals(runId) && symbols.contains(pending.checkpoint().getSymbol());
+            if (drop) {
+                dropped.incrementAndGet();
+            }
+            return drop;
+        });
+        return dropped.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Pending oldest = queue.peek();
+        stats.put("queued", queue.size());
+        stats.put("queueCapacity", Math.max(1, queueCapacity));
+        stats.put("oldestQueuedMs", oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.enqueuedNanos()));
+        stats.put("lastLagMs", lastLagMs);
+        stats.put("maxLagMs", maxLagMs);
+        stats.put("written", written.get());
+        stats.put("failed", failed.get());
+        stats.put("skipped", skipped.get());
+        stats.put("batches", batches.get());
+        stats.put("retries", retries.get());
+        stats.put("lastBatchMs", lastBatchMs);
+        stats.put("enqueueBlockedMs", TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()));
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive() || !queue.isEmpty()) {
+            log.warning("Recommendation writer stopped with " + queue.size()
+                + " recommendations queued; they stay SCORED and are persisted when their run resumes");
+        }
+    }
+
+    private void work() {
+        List<Pending> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Size- or time-triggered: stop collecting once the batch is full or its oldest row has waited flushMs
+                long deadline = first.enqueuedNanos() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0 || !running) {
+                        break;
+                    }
+                    Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<Pending> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        if (!write(batch)) {
+            if (batch.size() == 1) {
+                fail(batch.get(0));
+            } else {
+                for (Pending pending : batch) {
+                    if (!write(List.of(pending))) {
+                        fail(pending);
+                    }
+                }
+            }
+        }
+        long now = System.nanoTime();
+        lastBatchMs = TimeUnit.NANOSECONDS.toMillis(now - start);
+        lastLagMs = TimeUnit.NANOSECONDS.toMillis(now - batch.get(0).enqueuedNanos());
+        maxLagMs = Math.max(maxLagMs, lastLagMs);
+        synchronized (this) {
+            completed = batch.get(batch.size() - 1).sequence();
+            notifyAll();
+        }
+    }
+
+    // One transaction for the whole batch, retried while the error looks transient
+    private boolean write(List<Pending> batch) throws InterruptedException {
+        List<AnalysisRunSymbol> checkpoints = batch.stream().map(Pending::checkpoint).toList();
+        List<StockRecommendation> recommendations = batch.stream().map(Pending::recommendation).toList();
+        for (int attempt = 1; ; attempt++) {
+            // A rolled-back insert leaves its identity value behind on the entity
+            recommendations.forEach(recommendation -> recommendation.setId(null));
+            try {
+                int saved = AnalysisEvents.persistBatch("recommendation",
+                    () -> analysisRunService.persistRecommendations(checkpoints, recommendations));
+                // Checkpoints another node persisted first, or that stopped being SCORED, are not saved again
+                written.addAndGet(saved);
+                skipped.addAndGet(batch.size() - saved);
+                batches.incrementAndGet();
+                return true;
+            } catch (RuntimeException e) {
+                recommendations.forEach(recommendation -> recommendation.setId(null));
+                if (!isTransient(e) || attempt >= maxAttempts) {
+                    log.warning("Writing " + batch.size() + " recommendations failed after " + attempt + " attempts: " + e);
+                    return false;
+                }
+                retries.incrementAndGet();
+                Thread.sleep(retryBackoffMs * attempt);
+            }
+        }
+    }
+
+    // The checkpoint in hand was changed by the rolled-back transaction; record against the stored one
+    private void fail(Pending pending) {
+        failed.incrementAndGet();
+        AnalysisRunSymbol checkpoint = pending.checkpoint();
+        try {
+            automationService.recordFailure(analysisRunService.checkpoint(checkpoint.getRunId(), checkpoint.getSymbol()),
+                new IllegalStateException("recommendation could not be persisted"));
+        } catch (RuntimeException e) {
+            log.warning("Could not record the failed write of " + checkpoint.getSymbol() + " in run " + checkpoint.getRunId() + ": " + e);
+        }
+    }
+
+    private static boolean isTransient(Throwable e) {
+        return e instanceof TransientDataAccessException
+            || e instanceof RecoverableDataAccessException
+            || e instanceof CannotCreateTransactionException;
+    }
+}
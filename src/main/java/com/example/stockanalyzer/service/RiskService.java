@@ -0,0 +1,366 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.PortfolioRisk;
+import com.example.stockanalyzer.model.StockRecommendation;
+import com.example.stockanalyzer.repository.StockRecommendationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.stream.LongStream;
+
+/**
+ * Universe-wide return covariance over a rolling window of sessions, read from the same local bar
+ * files as the backtester, and the portfolio-level risk of a slate of recommendations on top of it.
+ * Each refresh reads only the rows appended to the bar files since the previous one and folds the
+ * new sessions in incrementally; the matrix is rebuilt from scratch when the universe changes,
+ * after a long gap, or every {@code risk.rebuildEvery} incremental updates.
+ */
+@Service
+public class RiskService {
+
+    private static final Logger log = Logger.getLogger(RiskService.class.getName());
+    private static final double TRADING_DAYS = 252;
+    private static final int MAX_PAIRS = 20;
+
+    @Autowired
+    private SymbolMasterService symbolMasterService;
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Value("${risk.barsPath:${backtest.barsPath:data/bars}}")
+    private String barsPath;
+
+    @Value("${risk.window:60}")
+    private int window;
+
+    @Value("${risk.rebuildEvery:20}")
+    private int rebuildEvery;
+
+    @Value("${risk.pairThreshold:0.8}")
+    private double pairThreshold;
+
+    @Value("${risk.parallelism:0}")
+    private int parallelism;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private RollingCovariance covariance;
+    // Per-symbol tail of the bar files; only touched by refresh
+    private final Map<String, RecentCloses> recentCloses = new HashMap<>();
+    private int updatesSinceRebuild;
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /** Picks up sessions appended to the bar files since the last refresh. Returns the sessions added. */
+    @Scheduled(fixedDelayString = "${risk.refreshMs:3600000}", initialDelayString = "${risk.initialDelayMs:60000}")
+    public synchronized int refresh() {
+        List<String> universe = symbolMasterService.getUniverse();
+        recentCloses.keySet().retainAll(new HashSet<>(universe));
+        RecentCloses[] loaded = new RecentCloses[universe.size()];
+        for (int i = 0; i < loaded.length; i++) {
+            loaded[i] = recentCloses.computeIfAbsent(universe.get(i),
+                symbol -> new RecentCloses(Path.of(barsPath).resolve(symbol + ".csv"), window + 1));
+        }
+        long[] bytesRead = new long[loaded.length];
+        CovarianceKernels.forEach(loaded.length, pool, i -> bytesRead[i] = readNewBars(universe.get(i), loaded[i]));
+
+        List<String> symbols = new ArrayList<>();
+        List<RecentCloses> bars = new ArrayList<>();
+        for (int i = 0; i < loaded.length; i++) {
+            if (loaded[i].size() > 1) {
+                symbols.add(universe.get(i));
+                bars.add(loaded[i]);
+            }
+        }
+        if (symbols.isEmpty()) {
+            return 0;
+        }
+
+        // Session calendar: the last window + 1 days any symbol traded (the extra day seeds the first return)
+        TreeSet<Integer> days = new TreeSet<>();
+        for (RecentCloses b : bars) {
+            for (int i = Math.max(0, b.size() - window - 1); i < b.size(); i++) {
+                days.add(b.day(i));
+                if (days.size() > window + 1) {
+                    days.pollFirst();
+                }
+            }
+        }
+        int[] calendar = days.stream().mapToInt(Integer::intValue).toArray();
+        String[] symbolArray = symbols.toArray(new String[0]);
+
+        RollingCovariance current = covariance;
+        if (current == null || !Arrays.equals(current.getSymbols(), symbolArray) || current.getWindow() != window) {
+            // A new matrix is filled while readers keep the old one
+            RollingCovariance fresh = new RollingCovariance(symbolArray, window);
+            for (int t = 1; t < calendar.length; t++) {
+                fresh.append(calendar[t], sessionReturns(bars, calendar[t - 1], calendar[t]));
+            }
+            fresh.rebuild(pool);
+            lock.writeLock().lock();
+            try {
+                covariance = fresh;
+                updatesSinceRebuild = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Risk matrix rebuilt: " + symbolArray.length + " symbols, " + fresh.getFilled() + " sessions, "
+                     + LongStream.of(bytesRead).sum() + " bar bytes read");
+            return fresh.getFilled();
+        }
+
+        int from = 1;
+        while (from < calendar.length && calendar[from] <= current.getLastDay()) {
+            from++;
+        }
+        int added = calendar.length - from;
+        if (added == 0) {
+            return 0;
+        }
+        lock.writeLock().lock();
+        try {
+            if (added > window / 2) {
+                // After a long gap most of the window is new; refill it in place instead of updating session by session
+                current.clear();
+                for (int t = 1; t < calendar.length; t++) {
+                    current.append(calendar[t], sessionReturns(bars, calendar[t - 1], calendar[t]));
+                }
+                current.rebuild(pool);
+                updatesSinceRebuild = 0;
+            } else {
+                for (int t = from; t < calendar.length; t++) {
+                    current.push(calendar[t], sessionReturns(bars, calendar[t - 1], calendar[t]), pool);
+                }
+                updatesSinceRebuild += added;
+                if (updatesSinceRebuild >= rebuildEvery) {
+                    current.rebuild(pool);
+                    updatesSinceRebuild = 0;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Risk matrix updated with " + added + " new sessions, " + LongStream.of(bytesRead).sum() + " bar bytes read");
+        return added;
+    }
+
+    private long readNewBars(String symbol, RecentCloses closes) {
+        try {
+            return closes.refresh();
+        } catch (IOException e) {
+            log.warning("Failed to read bars for " + symbol + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // Close-to-close returns; a symbol that did not trade on either session contributes 0
+    private static double[] sessionReturns(List<RecentCloses> bars, int previousDay, int day) {
+        double[] returns = new double[bars.size()];
+        for (int i = 0; i < returns.length; i++) {
+            RecentCloses b = bars.get(i);
+            int today = b.indexOf(day);
+            int before = b.indexOf(previousDay);
+            if (today >= 0 && before >= 0) {
+                returns[i] = b.close(today) / b.close(before) - 1;
+            }
+        }
+        return returns;
+    }
+
+    /** Risk of the recommendations produced by one analysis run. */
+    public PortfolioRisk portfolioRiskForRun(String runId) {
+        return portfolioRisk(recommendationRepository.findByRunId(runId));
+    }
+
+    /**
+     * Risk of an equal-weight portfolio holding the latest call per symbol: long for buys, short for
+     * sells, holds left out.
+     */
+    public PortfolioRisk portfolioRisk(List<StockRecommendation> recommendations) {
+        Map<String, StockRecommendation> latest = new HashMap<>();
+        for (StockRecommendation rec : recommendations) {
+            StockRecommendation seen = latest.get(rec.getSymbol());
+            if (seen == null || (rec.getGeneratedAt() != null && seen.getGeneratedAt() != null &&
+                                 rec.getGeneratedAt().isAfter(seen.getGeneratedAt()))) {
+                latest.put(rec.getSymbol(), rec);
+            }
+        }
+
+        PortfolioRisk risk = new PortfolioRisk();
+        lock.readLock().lock();
+        try {
+            List<String> held = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            List<Double> directions = new ArrayList<>();
+            for (StockRecommendation rec : latest.values()) {
+                double direction = direction(rec.getRecommendation());
+                if (direction == 0) {
+                    continue;
+                }
+                Integer index = covariance != null ? covariance.indexOf(rec.getSymbol()) : null;
+                if (index == null) {
+                    risk.getMissingSymbols().add(rec.getSymbol());
+                    continue;
+                }
+                held.add(rec.getSymbol());
+                indexes.add(index);
+                directions.add(direction);
+            }
+            risk.setPositions(held.size());
+            risk.setLongs((int) directions.stream().filter(d -> d > 0).count());
+            risk.setShorts(held.size() - risk.getLongs());
+            if (covariance == null) {
+                return risk;
+            }
+            risk.setAsOf(LocalDate.ofEpochDay(covariance.getLastDay()));
+            risk.setSessions(covariance.getFilled());
+            if (held.isEmpty() || covariance.getFilled() < 2) {
+                return risk;
+            }
+            fillMetrics(risk, held, indexes.stream().mapToInt(Integer::intValue).toArray(),
+                        directions.stream().mapToDouble(Double::doubleValue).toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return risk;
+    }
+
+    private void fillMetrics(PortfolioRisk risk, List<String> held, int[] index, double[] direction) {
+        int m = index.length;
+        double[] cov = covariance.covariance(index);
+        double[] weights = new double[m];
+        for (int a = 0; a < m; a++) {
+            weights[a] = direction[a] / m;
+        }
+
+        double[] marginal = new double[m];
+        double variance = 0;
+        double standalone = 0;
+        for (int a = 0; a < m; a++) {
+            double sum = 0;
+            for (int b = 0; b < m; b++) {
+                sum += cov[a * m + b] * weights[b];
+            }
+            marginal[a] = sum;
+            variance += weights[a] * sum;
+            standalone += Math.abs(weights[a]) * Math.sqrt(cov[a * m + a]);
+        }
+        if (!(variance > 0)) {
+            return;
+        }
+        double volatility = Math.sqrt(variance);
+        risk.setAnnualizedVolatility(volatility * Math.sqrt(TRADING_DAYS));
+        risk.setDiversificationRatio(standalone / volatility);
+
+        double herfindahl = 0;
+        List<Map.Entry<String, Double>> contributions = new ArrayList<>();
+        for (int a = 0; a < m; a++) {
+            double share = weights[a] * marginal[a] / variance;
+            herfindahl += share * share;
+            contributions.add(Map.entry(held.get(a), share));
+        }
+        risk.setEffectiveBets(1 / herfindahl);
+        contributions.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        Map<String, Double> ordered = new LinkedHashMap<>();
+        contributions.forEach(e -> ordered.put(e.getKey(), e.getValue()));
+        risk.setRiskContributions(ordered);
+
+        // Correlation of the positions' P&L: a long and a short on co-moving names offset each other
+        double correlationSum = 0;
+        long pairs = 0;
+        List<Map<String, Object>> correlated = new ArrayList<>();
+        for (int a = 0; a < m; a++) {
+            double sa = Math.sqrt(cov[a * m + a]);
+            for (int b = a + 1; b < m; b++) {
+                double sb = Math.sqrt(cov[b * m + b]);
+                double correlation = sa > 0 && sb > 0 ? direction[a] * direction[b] * cov[a * m + b] / (sa * sb) : 0;
+                correlationSum += correlation;
+                pairs++;
+                if (correlation >= pairThreshold) {
+                    Map<String, Object> pair = new LinkedHashMap<>();
+                    pair.put("first", held.get(a));
+                    pair.put("second", held.get(b));
+                    pair.put("correlation", correlation);
+                    correlated.add(pair);
+                }
+            }
+        }
+        risk.setAverageCorrelation(pairs > 0 ? correlationSum / pairs : null);
+        correlated.sort(Comparator.comparingDouble((Map<String, Object> p) -> (Double) p.get("correlation")).reversed());
+        risk.setCorrelatedPairs(new ArrayList<>(correlated.subList(0, Math.min(MAX_PAIRS, correlated.size()))));
+    }
+
+    /** Pairwise correlations of the given symbols; symbols without history are left out. */
+    public Map<String, Object> correlationMatrix(List<String> symbols) {
+        lock.readLock().lock();
+        try {
+            List<String> known = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            for (String symbol : symbols) {
+                Integer index = covariance != null ? covariance.indexOf(symbol) : null;
+                if (index != null && !known.contains(symbol)) {
+                    known.add(symbol);
+                    indexes.add(index);
+                }
+            }
+            double[][] matrix = new double[known.size()][known.size()];
+            for (int a = 0; a < known.size(); a++) {
+                for (int b = 0; b < known.size(); b++) {
+                    matrix[a][b] = a == b ? 1 : covariance.correlation(indexes.get(a), indexes.get(b));
+                }
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("asOf", covariance != null ? LocalDate.ofEpochDay(covariance.getLastDay()) : null);
+            result.put("sessions", covariance != null ? covariance.getFilled() : 0);
+            result.put("symbols", known);
+            result.put("correlation", matrix);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static double direction(StockRecommendation.RecommendationType type) {
+        if (type == null) {
+            return 0;
+        }
+        switch (type) {
+            case STRONG_BUY:
+            case BUY:
+                return 1;
+            case SELL:
+            case STRONG_SELL:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+}
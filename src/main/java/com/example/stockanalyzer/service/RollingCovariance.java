@@ -0,0 +1,144 @@
+package com.example.stockanalyzer.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Covariance of daily returns over a rolling window of sessions. It keeps per-symbol sums and the
+ * full cross-product matrix of the returns in the window, so a new session is a rank-one update
+ * (add the new return vector, drop the one leaving the window) instead of a full recomputation.
+ * {@link #rebuild} recomputes both from the retained window to shed accumulated rounding error.
+ * The cross-products are stored as floats, 4 bytes per pair (100 MB for 5,000 symbols); sums and
+ * the returns stay in double and every product is accumulated in double before it is stored.
+ * Not thread-safe; callers guard it.
+ */
+final class RollingCovariance {
+
+    private final String[] symbols;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final int n;
+    private final int window;
+
+    // Returns by session, oldest overwritten first: slot s holds ring[s * n .. s * n + n)
+    private final double[] ring;
+    private int head;
+    private int filled;
+
+    private final double[] sums;
+    private final float[] cross;
+    private int lastDay = Integer.MIN_VALUE;
+
+    RollingCovariance(String[] symbols, int window) {
+        this.symbols = symbols.clone();
+        this.n = symbols.length;
+        this.window = Math.max(2, window);
+        this.ring = new double[this.window * n];
+        this.sums = new double[n];
+        this.cross = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            index.put(symbols[i], i);
+        }
+    }
+
+    /** Adds one session's returns (aligned with the symbol order) and retires the oldest if full. */
+    void push(int day, double[] returns, ForkJoinPool pool) {
+        int slot = head * n;
+        double[] retired = null;
+        if (filled == window) {
+            retired = new double[n];
+            System.arraycopy(ring, slot, retired, 0, n);
+        }
+        CovarianceKernels.rankOneUpdate(cross, n, returns, retired, pool);
+        for (int i = 0; i < n; i++) {
+            sums[i] += returns[i] - (retired != null ? retired[i] : 0);
+        }
+        append(day, returns);
+    }
+    
+    /** Stores a session without touching the totals; follow a batch of these with {@link #rebuild}. */
+    void append(int day, double[] returns) {
+        System.arraycopy(returns, 0, ring, head * n, n);
+        head = (head + 1) % window;
+        filled = Math.min(window, filled + 1);
+        lastDay = day;
+    }
+
+    /** Drops every session; refill with {@link #append} and {@link #rebuild}. */
+    void clear() {
+        head = 0;
+        filled = 0;
+    }
+
+    /** Recomputes sums and cross-products from the retained window with the blocked kernel. */
+    void rebuild(ForkJoinPool pool) {
+        // Transpose the window to symbol-major rows so each dot product reads contiguous memory
+        double[] x = new double[n * filled];
+        int oldest = filled == window ? head : 0;
+        for (int k = 0; k < filled; k++) {
+            int slot = ((oldest + k) % window) * n;
+            for (int i = 0; i < n; i++) {
+                x[i * filled + k] = ring[slot + i];
+            }
+        }
+        CovarianceKernels.gram(x, n, filled, cross, pool);
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            int row = i * filled;
+            for (int k = 0; k < filled; k++) {
+                sum += x[row + k];
+            }
+            sums[i] = sum;
+        }
+    }
+
+    double covariance(int i, int j) {
+        if (filled < 2) {
+            return 0;
+        }
+        return (cross[i * n + j] - sums[i] * sums[j] / filled) / (filled - 1);
+    }
+
+    double correlation(int i, int j) {
+        double denominator = Math.sqrt(covariance(i, i) * covariance(j, j));
+        return denominator > 0 ? covariance(i, j) / denominator : 0;
+    }
+
+    /** Covariance matrix restricted to the given symbol indexes, row-major. */
+    double[] covariance(int[] subset) {
+        int m = subset.length;
+        double[] out = new double[m * m];
+        for (int a = 0; a < m; a++) {
+            for (int b = a; b < m; b++) {
+                double value = covariance(subset[a], subset[b]);
+                out[a * m + b] = value;
+                out[b * m + a] = value;
+            }
+        }
+        return out;
+    }
+
+    Integer indexOf(String symbol) {
+        return index.get(symbol);
+    }
+
+    String[] getSymbols() {
+        return symbols.clone();
+    }
+
+    int size() {
+        return n;
+    }
+
+    int getWindow() {
+        return window;
+    }
+
+    int getFilled() {
+        return filled;
+    }
+
+    int getLastDay() {
+        return lastDay;
+    }
+}
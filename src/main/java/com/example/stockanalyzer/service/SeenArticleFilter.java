@@ -0,0 +1,143 @@
+package com.example.stockanalyzer.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.logging.Logger;
+
+/**
+ * Persistent record of articles already ingested, so reruns only process new news. Keys go into a
+ * Bloom filter; once it reaches its capacity it becomes the read-only previous generation and a
+ * fresh one takes over, which bounds memory and file size at two filters while forgetting the
+ * oldest articles first. A false positive only means an article is skipped as already seen.
+ */
+@Service
+public class SeenArticleFilter {
+    
+    private static final Logger log = Logger.getLogger(SeenArticleFilter.class.getName());
+    
+    private static final int FILE_MAGIC = 0x53454e31;
+    
+    @Value("${news.seenFilter.path:data/seen-articles.bloom}")
+    private String filterPath;
+    
+    @Value("${news.seenFilter.capacity:200000}")
+    private long capacity;
+    
+    @Value("${news.seenFilter.falsePositiveRate:0.01}")
+    private double falsePositiveRate;
+    
+    private BloomFilter current;
+    private BloomFilter previous;
+    private boolean dirty;
+    
+    // Held from snapshot to rename, so the scheduled flush and the one on shutdown never share the
+    // temp file and a snapshot is never replaced by an older one
+    private final Object fileLock = new Object();
+    
+    @PostConstruct
+    public synchronized void load() {
+        Path path = Path.of(filterPath);
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                if (in.readInt() != FILE_MAGIC) {
+                    throw new IOException("not a seen-article filter file");
+                }
+                current = BloomFilter.readFrom(in);
+                previous = in.readBoolean() ? BloomFilter.readFrom(in) : null;
+                log.info("Loaded seen-article filter with " + current.getInserted() + " recent keys from " + path);
+                return;
+            } catch (IOException e) {
+                log.warning("Ignoring unreadable seen-article filter " + path + ": " + e.getMessage());
+            }
+        }
+        current = new BloomFilter(capacity, falsePositiveRate);
+        previous = null;
+    }
+    
+    public synchronized boolean mightContain(String key) {
+        return current.mightContain(key) || (previous != null && previous.mightContain(key));
+    }
+    
+    public synchronized void markSeen(Collection<String> keys) {
+        for (String key : keys) {
+            if (current.put(key)) {
+                dirty = true;
+            }
+            if (current.isFull()) {
+                previous = current;
+                current = new BloomFilter(capacity, falsePositiveRate);
+            }
+        }
+    }
+    
+    public static String urlKey(String symbol, String url) {
+        return "u|" + symbol + "|" + url;
+    }
+    
+    public static String contentKey(String symbol, String title, String content) {
+        return "c|" + symbol + "|" + Long.toHexString(NewsDeduplicator.hash64(title + "\n" + content));
+    }
+    
+    @Scheduled(fixedDelayString = "${news.seenFilter.flushMs:60000}", initialDelayString = "${news.seenFilter.flushMs:60000}")
+    public void flush() {
+        synchronized (fileLock) {
+            byte[] snapshot;
+            synchronized (this) {
+                if (!dirty) {
+                    return;
+                }
+                try {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    DataOutputStream out = new DataOutputStream(bytes);
+                    out.writeInt(FILE_MAGIC);
+                    current.writeTo(out);
+                    out.writeBoolean(previous != null);
+                    if (previous != null) {
+                        previous.writeTo(out);
+                    }
+                    out.flush();
+                    snapshot = bytes.toByteArray();
+                    dirty = false;
+                } catch (IOException e) {
+                    log.warning("Failed to snapshot seen-article filter: " + e.getMessage());
+                    return;
+                }
+            }
+            
+            // Keys marked while the file is written only wait for the next flush
+            Path path = Path.of(filterPath).toAbsolutePath();
+            try {
+                Files.createDirectories(path.getParent());
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                try (BufferedOutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                    out.write(snapshot);
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                synchronized (this) {
+                    dirty = true;
+                }
+                log.warning("Failed to save seen-article filter to " + path + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+}
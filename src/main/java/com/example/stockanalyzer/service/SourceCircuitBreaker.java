@@ -0,0 +1,60 @@
+package com.example.stockanalyzer.service;
+
+/**
+ * Per-source circuit breaker. After {@code failureThreshold} consecutive failures the
+ * source is skipped until {@code cooldownMillis} have passed; the first call after the
+ * cool-down is a trial call that either closes the breaker or re-opens it.
+ */
+public class SourceCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String source;
+    private final int failureThreshold;
+    private final long cooldownMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public SourceCircuitBreaker(String source, int failureThreshold, long cooldownMillis) {
+        this.source = source;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.cooldownMillis = cooldownMillis;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= cooldownMillis) {
+            // Let exactly one trial call through
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.SymbolListing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable lookup structure over the symbol master. Listings are kept in one array sorted by
+ * symbol, and every normalized name and alias is a key in a second sorted array pointing back
+ * into it, so exact and prefix lookups are binary searches with no per-entry hash overhead.
+ * A reload builds a new index and swaps it in; readers never see a partially built one.
+ * Different listings can share a name key (GOOGL "Alphabet Inc." and GOOG "Alphabet Inc. Class C"
+ * both strip to "alphabet"); all of them are kept, and an exact lookup of such a key finds nothing
+ * rather than picking one.
+ */
+public final class SymbolIndex {
+    
+    private static final Set<String> CORPORATE_SUFFIXES = Set.of(
+        "inc", "incorporated", "corp", "corporation", "co", "company", "ltd", "limited",
+        "plc", "holdings", "group", "the", "sa", "nv", "class", "a", "b", "c"
+    );
+    
+    private static final int NOT_FOUND = -1;
+    private static final int AMBIGUOUS = -2;
+    
+    private final SymbolListing[] bySymbol;
+    private final String[] symbolKeys;
+    private final String[] nameKeys;
+    private final int[] nameTargets;
+    private final List<String> universe;
+    private final List<String> ambiguousNames;
+    
+    private SymbolIndex(SymbolListing[] bySymbol, String[] nameKeys, int[] nameTargets, List<String> universe) {
+        this.bySymbol = bySymbol;
+        this.symbolKeys = new String[bySymbol.length];
+        for (int i = 0; i < bySymbol.length; i++) {
+            symbolKeys[i] = bySymbol[i].getSymbol();
+        }
+        this.nameKeys = nameKeys;
+        this.nameTargets = nameTargets;
+        this.universe = universe;
+        List<String> ambiguous = new ArrayList<>();
+        for (int i = 0; i < nameKeys.length; i = upperBound(nameKeys, i)) {
+            if (targetOf(i) == AMBIGUOUS) {
+                ambiguous.add(nameKeys[i]);
+            }
+        }
+        this.ambiguousNames = List.copyOf(ambiguous);
+    }
+    
+    public static SymbolIndex build(List<SymbolListing> listings) {
+        // Later rows win for duplicate symbols; universe keeps first-seen order
+        Map<String, SymbolListing> unique = new LinkedHashMap<>();
+        for (SymbolListing listing : listings) {
+            unique.put(normalizeSymbol(listing.getSymbol()), listing);
+        }
+        List<String> universe = List.copyOf(unique.keySet());
+        
+        SymbolListing[] bySymbol = unique.values().toArray(new SymbolListing[0]);
+        Arrays.sort(bySymbol, Comparator.comparing(listing -> normalizeSymbol(listing.getSymbol())));
+        
+        List<String> keys = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < bySymbol.length; i++) {
+            Set<String> listingKeys = new LinkedHashSet<>();
+            addNameKeys(listingKeys, bySymbol[i].getName());
+            for (String alias : bySymbol[i].getAliases()) {
+                addNameKeys(listingKeys, alias);
+            }
+            for (String key : listingKeys) {
+                keys.add(key);
+                targets.add(i);
+            }
+        }
+        
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+        String[] nameKeys = new String[order.length];
+        int[] nameTargets = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            nameKeys[i] = keys.get(order[i]);
+            nameTargets[i] = targets.get(order[i]);
+        }
+        return new SymbolIndex(bySymbol, nameKeys, nameTargets, universe);
+    }
+    
+    public static SymbolIndex empty() {
+        return build(Collections.emptyList());
+    }
+    
+    public SymbolListing findBySymbol(String symbol) {
+        int i = Arrays.binarySearch(symbolKeys, normalizeSymbol(symbol));
+        return i >= 0 ? bySymbol[i] : null;
+    }
+    
+    /**
+     * Exact lookup by company name or alias, ignoring case, punctuation and corporate suffixes. The
+     * name as given is tried before its suffix-stripped form; null if either matches more than one
+     * listing.
+     */
+    public SymbolListing findByName(String nameOrAlias) {
+        String normalized = normalizeName(nameOrAlias);
+        int target = targetOf(lowerBound(nameKeys, normalized), normalized);
+        if (target == NOT_FOUND) {
+            String stripped = stripSuffixes(normalized);
+            target = targetOf(lowerBound(nameKeys, stripped), stripped);
+        }
+        return target >= 0 ? bySymbol[target] : null;
+    }
+    
+    /** Every listing whose name or alias matches, with or without corporate suffixes. */
+    public List<SymbolListing> findAllByName(String nameOrAlias) {
+        Set<SymbolListing> matches = new LinkedHashSet<>();
+        String normalized = normalizeName(nameOrAlias);
+        for (String key : List.of(normalized, stripSuffixes(normalized))) {
+            for (int i = lowerBound(nameKeys, key); i < nameKeys.length && nameKeys[i].equals(key); i++) {
+                matches.add(bySymbol[nameTargets[i]]);
+            }
+        }
+        return new ArrayList<>(matches);
+    }
+    
+    /** Name keys shared by more than one listing, which {@link #findByName} does not resolve. */
+    public List<String> getAmbiguousNames() {
+        return ambiguousNames;
+    }
+    
+    /** Symbol matches first, then name and alias prefix matches, without duplicates. */
+    public List<SymbolListing> search(String query, int limit) {
+        Set<SymbolListing> matches = new LinkedHashSet<>();
+        String symbolPrefix = normalizeSymbol(query);
+        for (int i = lowerBound(symbolKeys, symbolPrefix); i < symbolKeys.length && matches.size() < limit; i++) {
+            if (!symbolKeys[i].startsWith(symbolPrefix)) {
+                break;
+            }
+            matches.add(bySymbol[i]);
+        }
+        String namePrefix = normalizeName(query);
+        for (int i = lowerBound(nameKeys, namePrefix); i < nameKeys.length && matches.size() < limit; i++) {
+            if (!nameKeys[i].startsWith(namePrefix)) {
+                break;
+            }
+            matches.add(bySymbol[nameTargets[i]]);
+        }
+        return new ArrayList<>(matches);
+    }
+    
+    /** Symbols in the order they appear in the source file. */
+    public List<String> getUniverse() {
+        return universe;
+    }
+    
+    public int size() {
+        return bySymbol.length;
+    }
+    
+    static String normalizeSymbol(String symbol) {
+        return symbol == null ? "" : symbol.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < name.length(); i++) {
+            char ch = Character.toLowerCase(name.charAt(i));
+            if (Character.isLetterOrDigit(ch) || ch == '&') {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(ch);
+                pendingSpace = false;
+            } else if (ch != '.' && ch != '\'') {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+    
+    private static String stripSuffixes(String normalized) {
+        String[] words = normalized.split(" ");
+        int end = words.length;
+        while (end > 1 && CORPORATE_SUFFIXES.contains(words[end - 1])) {
+            end--;
+        }
+        return String.join(" ", Arrays.copyOf(words, end));
+    }
+    
+    private static void addNameKeys(Set<String> keys, String name) {
+        String normalized = normalizeName(name);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        keys.add(normalized);
+        keys.add(stripSuffixes(normalized));
+    }
+    
+    // The one listing the key at {@code from} points to, or NOT_FOUND / AMBIGUOUS
+    private int targetOf(int from, String key) {
+        if (from >= nameKeys.length || !nameKeys[from].equals(key)) {
+            return NOT_FOUND;
+        }
+        return targetOf(from);
+    }
+    
+    private int targetOf(int from) {
+        int target = nameTargets[from];
+        for (int i = from + 1; i < nameKeys.length && nameKeys[i].equals(nameKeys[from]); i++) {
+            if (nameTargets[i] != target) {
+                return AMBIGUOUS;
+            }
+        }
+        return target;
+    }
+    
+    // Index past the run of keys equal to the one at {@code from}
+    private static int upperBound(String[] sorted, int from) {
+        int i = from + 1;
+        while (i < sorted.length && sorted[i].equals(sorted[from])) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static int lowerBound(String[] sorted, String key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
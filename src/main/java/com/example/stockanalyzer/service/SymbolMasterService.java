@@ -0,0 +1,166 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.SymbolListing;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+@Service
+public class SymbolMasterService {
+    
+    private static final Logger log = Logger.getLogger(SymbolMasterService.class.getName());
+    
+    private static final String BUNDLED_SYMBOLS = "/symbols.csv";
+    
+    // CSV on disk (symbol,name,exchange,aliases with aliases separated by '|'); empty uses the bundled list
+    @Value("${symbols.path:}")
+    private String symbolsPath;
+    
+    private volatile SymbolIndex index = SymbolIndex.empty();
+    private volatile long loadedLastModified = -1;
+    
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+    
+    // Hot reload: pick up edits to symbols.path without a restart
+    @Scheduled(fixedDelayString = "${symbols.reloadCheckMs:60000}", initialDelayString = "${symbols.reloadCheckMs:60000}")
+    public void reloadIfChanged() {
+        if (symbolsPath.isBlank()) {
+            return;
+        }
+        try {
+            long modified = Files.getLastModifiedTime(Path.of(symbolsPath)).toMillis();
+            if (modified != loadedLastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warning("Cannot stat symbol master " + symbolsPath + ": " + e.getMessage());
+        }
+    }
+    
+    public synchronized int reload() {
+        String source = symbolsPath.isBlank() ? "classpath:" + BUNDLED_SYMBOLS : symbolsPath;
+        try {
+            List<SymbolListing> listings;
+            long modified = -1;
+            if (symbolsPath.isBlank()) {
+                try (InputStream in = SymbolMasterService.class.getResourceAsStream(BUNDLED_SYMBOLS)) {
+                    if (in == null) {
+                        throw new IOException("bundled symbol list not found");
+                    }
+                    listings = parseCsv(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+                }
+            } else {
+                Path path = Path.of(symbolsPath);
+                modified = Files.getLastModifiedTime(path).toMillis();
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    listings = parseCsv(reader);
+                }
+            }
+            
+            SymbolIndex next = SymbolIndex.build(listings);
+            if (next.size() == 0 && index.size() > 0) {
+                log.warning("Symbol master " + source + " is empty; keeping the previous " + index.size() + " listings");
+                return index.size();
+            }
+            index = next;
+            loadedLastModified = modified;
+            log.info("Loaded " + next.size() + " listings from " + source);
+            if (!next.getAmbiguousNames().isEmpty()) {
+                log.info("Names shared by several listings, not resolved by exact name lookup: " + next.getAmbiguousNames());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warning("Failed to load symbol master " + source + ", keeping previous index: " + e.getMessage());
+        }
+        return index.size();
+    }
+    
+    public SymbolIndex getIndex() {
+        return index;
+    }
+    
+    public SymbolListing findBySymbol(String symbol) {
+        return index.findBySymbol(symbol);
+    }
+    
+    public String getCompanyName(String symbol) {
+        SymbolListing listing = index.findBySymbol(symbol);
+        return listing != null ? listing.getName() : symbol;
+    }
+    
+    public List<String> getUniverse() {
+        return index.getUniverse();
+    }
+    
+    static List<SymbolListing> parseCsv(BufferedReader reader) throws IOException {
+        List<SymbolListing> listings = new ArrayList<>();
+        String line;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> fields = splitCsvLine(line);
+            if (first) {
+                first = false;
+                if (fields.get(0).trim().equalsIgnoreCase("symbol")) {
+                    continue;
+                }
+            }
+            String symbol = fields.get(0).trim();
+            if (symbol.isEmpty()) {
+                continue;
+            }
+            String name = fields.size() > 1 && !fields.get(1).isBlank() ? fields.get(1).trim() : symbol;
+            String exchange = fields.size() > 2 ? fields.get(2).trim() : "";
+            List<String> aliases = fields.size() > 3 && !fields.get(3).isBlank()
+                ? Arrays.stream(fields.get(3).split("\\|")).map(String::trim).filter(a -> !a.isEmpty()).toList()
+                : List.of();
+            listings.add(new SymbolListing(SymbolIndex.normalizeSymbol(symbol), name, exchange, aliases));
+        }
+        return listings;
+    }
+    
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+import com.example.stockanalyzer.model.NewsAnalysis;
+import com.example.stockanalyzer.model.SentimentPoint;
+import com.example.stockanalyzer.model.SymbolSentimentState;
+import com.example.stockanalyzer.repository.SentimentPointRepository;
+import com.example.stockanalyzer.repository.SymbolSentimentStateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-symbol sentiment as exponentially decayed counters: every article adds a weight of 1 that
+ * halves every {@code sentiment.halfLifeHours} from its publication time. Ingestion adds only the
+ * articles it has not seen before, and reading the current sentiment is one row lookup, however
+ * many articles went into it. Once the decayed weight drops below {@code sentiment.minWeight} the
+ * symbol has no recent news and reads as neutral. Each update also records the day's point for
+ * the history. Updates of one symbol are serialized by a lock on its state row, which also covers
+ * the symbol's point of the day; two nodes inserting the first state of a symbol race on its key,
+ * and the loser applies its articles again on top of the winner's row.
+ */
+@Service
+public class SymbolSentimentService {
+
+    @Autowired
+    private SymbolSentimentStateRepository stateRepository;
+
+    @Autowired
+    private SentimentPointRepository pointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${sentiment.halfLifeHours:72}")
+    private double halfLifeHours;
+
+    @Value("${sentiment.minWeight:0.5}")
+    private double minWeight;
+
+    /** Adds newly scored articles to the symbol's state and returns the resulting sentiment. */
+    public NewsAnalysis.SentimentScore record(String symbol, ArticleBatch articles) {
+        try {
+            return transactionTemplate.execute(status -> update(symbol, articles));
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the symbol's first state or today's point first; that row now exists
+            return transactionTemplate.execute(status -> update(symbol, articles));
+        }
+    }
+
+    private NewsAnalysis.SentimentScore update(String symbol, ArticleBatch articles) {
+        LocalDateTime now = LocalDateTime.now();
+        SymbolSentimentState state = stateRepository.findForUpdate(symbol)
+            .orElseGet(() -> new SymbolSentimentState(symbol));
+        double[] weights = weightsAt(state, now);
+        state.setPositiveWeight(weights[0]);
+        state.setNegativeWeight(weights[1]);
+        state.setNeutralWeight(weights[2]);
+        state.setDecayedTo(now);
+        for (int i = 0; i < articles.size(); i++) {
+            LocalDateTime publishedAt = articles.publishedAt(i);
+            double weight = weightAt(publishedAt, now);
+            switch (articles.sentiment(i)) {
+                case VERY_POSITIVE, POSITIVE -> {
+                    state.setPositiveCount(state.getPositiveCount() + 1);
+                    state.setPositiveWeight(state.getPositiveWeight() + weight);
+                }
+                case VERY_NEGATIVE, NEGATIVE -> {
+                    state.setNegativeCount(state.getNegativeCount() + 1);
+                    state.setNegativeWeight(state.getNegativeWeight() + weight);
+                }
+                default -> {
+                    state.setNeutralCount(state.getNeutralCount() + 1);
+                    state.setNeutralWeight(state.getNeutralWeight() + weight);
+                }
+            }
+            if (publishedAt != null && (state.getLastArticleAt() == null || publishedAt.isAfter(state.getLastArticleAt()))) {
+                state.setLastArticleAt(publishedAt);
+            }
+        }
+        state.setUpdatedAt(now);
+        stateRepository.saveAndFlush(state);
+
+        SentimentPoint point = pointRepository.findBySymbolAndDay(symbol, now.toLocalDate())
+            .orElseGet(() -> new SentimentPoint(symbol, now.toLocalDate()));
+        point.setPositiveWeight(state.getPositiveWeight());
+        point.setNegativeWeight(state.getNegativeWeight());
+        point.setNeutralWeight(state.getNeutralWeight());
+        point.setNetScore(netScore(state.getPositiveWeight(), state.getNegativeWeight(), state.getNeutralWeight()));
+        point.setArticles(point.getArticles() + articles.size());
+        point.setUpdatedAt(now);
+        pointRepository.saveAndFlush(point);
+
+        return score(new double[] {state.getPositiveWeight(), state.getNegativeWeight(), state.getNeutralWeight()});
+    }
+
+    /** The sentiment {@link #record} would return for these articles, without storing anything. */
+    public NewsAnalysis.SentimentScore preview(String symbol, ArticleBatch articles) {
+        LocalDateTime now = LocalDateTime.now();
+        double[] weights = stateRepository.findById(symbol)
+            .map(state -> weightsAt(state, now))
+            .orElseGet(() -> new double[3]);
+        for (int i = 0; i < articles.size(); i++) {
+            double weight = weightAt(articles.publishedAt(i), now);
+            switch (articles.sentiment(i)) {
+                case VERY_POSITIVE, POSITIVE -> weights[0] += weight;
+                case VERY_NEGATIVE, NEGATIVE -> weights[1] += weight;
+                default -> weights[2] += weight;
+            }
+        }
+        return score(weights);
+    }
+    
+    /** The symbol's sentiment decayed to now, or null if no articles were ever recorded for it. */
+    public NewsAnalysis.SentimentScore current(String symbol) {
+        return stateRepository.findById(symbol)
+            .map(state -> score(weightsAt(state, LocalDateTime.now())))
+            .orElse(null);
+    }
+
+    public Map<String, Object> describe(String symbol) {
+        SymbolSentimentState state = stateRepository.findById(symbol).orElse(null);
+        if (state == null) {
+            return null;
+        }
+        double[] weights = weightsAt(state, LocalDateTime.now());
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("symbol", symbol);
+        description.put("sentiment", score(weights));
+        description.put("netScore", netScore(weights[0], weights[1], weights[2]));
+        description.put("positiveWeight", weights[0]);
+        description.put("negativeWeight", weights[1]);
+        description.put("neutralWeight", weights[2]);
+        description.put("halfLifeHours", halfLifeHours);
+        description.put("positiveCount", state.getPositiveCount());
+        description.put("negativeCount", state.getNegativeCount());
+        description.put("neutralCount", state.getNeutralCount());
+        description.put("lastArticleAt", state.getLastArticleAt());
+        description.put("updatedAt", state.getUpdatedAt());
+        return description;
+    }
+
+    public List<SentimentPoint> getHistory(String symbol, LocalDate from) {
+        return pointRepository.findBySymbolAndDayGreaterThanEqualOrderByDayAsc(symbol, from);
+    }
+
+    /** Ratios of the three counts, or neutral if they are all zero. */
+    public static NewsAnalysis.SentimentScore scoreOf(double positive, double negative, double neutral) {
+        double total = positive + negative + neutral;
+        if (total <= 0) {
+            return new NewsAnalysis.SentimentScore(0.0, 0.0, 1.0, NewsAnalysis.SentimentType.NEUTRAL);
+        }
+        positive /= total;
+        negative /= total;
+        neutral /= total;
+
+        NewsAnalysis.SentimentType overall = NewsAnalysis.SentimentType.NEUTRAL;
+        if (positive > negative && positive > neutral) {
+            overall = NewsAnalysis.SentimentType.POSITIVE;
+        } else if (negative > positive && negative > neutral) {
+            overall = NewsAnalysis.SentimentType.NEGATIVE;
+        }
+        return new NewsAnalysis.SentimentScore(positive, negative, neutral, overall);
+    }
+
+    private NewsAnalysis.SentimentScore score(double[] weights) {
+        if (weights[0] + weights[1] + weights[2] < minWeight) {
+            return scoreOf(0, 0, 0);
+        }
+        return scoreOf(weights[0], weights[1], weights[2]);
+    }
+
+    private static double netScore(double positive, double negative, double neutral) {
+        double total = positive + negative + neutral;
+        return total <= 0 ? 0 : (positive - negative) / total;
+    }
+
+    // Positive, negative and neutral weights decayed from the state's reference time to now
+    private double[] weightsAt(SymbolSentimentState state, LocalDateTime now) {
+        double factor = state.getDecayedTo() == null ? 1.0 : decayFactor(state.getDecayedTo(), now);
+        return new double[] {
+            state.getPositiveWeight() * factor,
+            state.getNegativeWeight() * factor,
+            state.getNeutralWeight() * factor
+        };
+    }
+
+    // An article without a publish time is weighted as if published when it was ingested
+    private double weightAt(LocalDateTime publishedAt, LocalDateTime now) {
+        return publishedAt == null ? 1.0 : decayFactor(publishedAt, now);
+    }
+
+    // Articles dated in the future count in full
+    private double decayFactor(LocalDateTime from, LocalDateTime to) {
+        double hours = Duration.between(from, to).toMillis() / 3_600_000.0;
+        return hours <= 0 ? 1.0 : Math.pow(0.5, hours / halfLifeHours);
+    }
+}
@@ -62,7 +62,7 @@ class StockDashboard {
 
     async loadRecommendations() {
         try {
-            const response = await fetch('/api/automation/recommendations');
+            const response = await fetch('/api/automation/recommendations?fields=symbol,companyName,currentPrice,recommendation,targetPrice,riskLevel');
             const recommendations = await response.json();
 
             this.updateRecommendationsTable(recommendations);
@@ -280,12 +280,8 @@ class StockDashboard {
             const data = await response.json();
 
             if (data.status === 'success') {
-                this.showToast('Analysis triggered successfully', 'success');
-                // Refresh data after a short delay
-                setTimeout(() => {
-                    this.loadDashboardData();
-                    this.loadRecommendations();
-                }, 2000);
+                this.showToast(data.attached ? 'Analysis already in progress' : 'Analysis triggered successfully', 'success');
+                this.pollJob(data.jobId);
             } else {
                 this.showToast(data.message || 'Failed to trigger analysis', 'error');
             }
@@ -298,6 +294,32 @@ class StockDashboard {
         }
     }
 
+    pollJob(jobId) {
+        // Refresh once the run has finished; the trigger call itself returns immediately
+        const poll = async () => {
+            try {
+                const response = await fetch(`/api/automation/jobs/${encodeURIComponent(jobId)}`);
+                if (response.status >= 400 && response.status < 500) {
+                    // Unknown job: polling again will not change that
+                    this.showToast('Analysis job not found', 'error');
+                    return;
+                }
+                const job = await response.json();
+
+                if (job.status === 'COMPLETED') {
+                    this.showToast('Analysis completed', 'success');
+                    this.loadDashboardData();
+                    this.loadRecommendations();
+                    return;
+                }
+            } catch (error) {
+                console.error('Error polling analysis job:', error);
+            }
+            setTimeout(poll, 5000);
+        };
+        setTimeout(poll, 5000);
+    }
+
     filterRecommendations(filter) {
         const rows = document.querySelectorAll('#recommendationsTableBody tr');
 
@@ -0,0 +1,90 @@
+package com.example.stockanalyzer.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MarketCalendarTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    // Good Friday and Independence Day (observed) 2026; the day after Thanksgiving closes early
+    private final MarketCalendar calendar = new MarketCalendar("America/New_York", "09:30", "16:00",
+        " 2026-04-03, 2026-07-03 ,", "2026-11-27", "13:00");
+
+    @Test
+    void weekendsAndHolidaysAreNotTradingDays() {
+        assertTrue(calendar.isTradingDay(LocalDate.of(2026, 4, 2)));
+        assertFalse(calendar.isTradingDay(LocalDate.of(2026, 4, 3)));
+        assertFalse(calendar.isTradingDay(LocalDate.of(2026, 4, 4)));
+        assertFalse(calendar.isTradingDay(LocalDate.of(2026, 4, 5)));
+        assertTrue(calendar.isTradingDay(LocalDate.of(2026, 4, 6)));
+    }
+
+    @Test
+    void sessionIncludesTheOpenButNotTheClose() {
+        assertFalse(calendar.isOpen(at(2026, 4, 2, 9, 29)));
+        assertTrue(calendar.isOpen(at(2026, 4, 2, 9, 30)));
+        assertTrue(calendar.isOpen(at(2026, 4, 2, 15, 59)));
+        assertFalse(calendar.isOpen(at(2026, 4, 2, 16, 0)));
+        assertFalse(calendar.isOpen(at(2026, 4, 3, 12, 0)));
+    }
+
+    @Test
+    void timesInOtherZonesAreConverted() {
+        // 14:00 UTC is 10:00 in New York during daylight saving time
+        assertTrue(calendar.isOpen(ZonedDateTime.of(2026, 4, 2, 14, 0, 0, 0, ZoneId.of("UTC"))));
+        assertFalse(calendar.isOpen(ZonedDateTime.of(2026, 4, 2, 13, 0, 0, 0, ZoneId.of("UTC"))));
+    }
+
+    @Test
+    void nextOpenSkipsTheHolidayWeekend() {
+        assertEquals(at(2026, 4, 6, 9, 30), calendar.nextOpen(at(2026, 4, 2, 16, 0)));
+        assertEquals(at(2026, 4, 2, 9, 30), calendar.nextOpen(at(2026, 4, 2, 7, 0)));
+        assertEquals(at(2026, 4, 2, 11, 0), calendar.nextOpen(at(2026, 4, 2, 11, 0)));
+        assertEquals(at(2026, 7, 6, 9, 30), calendar.nextOpen(at(2026, 7, 3, 8, 0)));
+    }
+
+    @Test
+    void lastCloseSkipsBackOverTheHoliday() {
+        assertEquals(at(2026, 4, 2, 16, 0), calendar.lastClose(at(2026, 4, 6, 12, 0)));
+        assertEquals(at(2026, 4, 6, 16, 0), calendar.lastClose(at(2026, 4, 6, 16, 0)));
+        assertEquals(at(2026, 7, 2, 16, 0), calendar.lastClose(at(2026, 7, 4, 10, 0)));
+    }
+
+    @Test
+    void noHolidaysConfiguredLeavesOnlyWeekends() {
+        MarketCalendar weekdays = new MarketCalendar("America/New_York", "09:30", "16:00", "", "", "13:00");
+
+        assertTrue(weekdays.isTradingDay(LocalDate.of(2026, 4, 3)));
+        assertEquals(at(2026, 4, 3, 9, 30), weekdays.nextOpen(at(2026, 4, 2, 17, 0)));
+        assertEquals(List.of(2026, 2027), weekdays.yearsWithoutHolidays(2026));
+    }
+
+    @Test
+    void earlyCloseEndsTheSessionAtTheEarlyCloseTime() {
+        assertTrue(calendar.isOpen(at(2026, 11, 27, 12, 59)));
+        assertFalse(calendar.isOpen(at(2026, 11, 27, 13, 0)));
+        assertEquals(at(2026, 11, 26, 16, 0), calendar.lastClose(at(2026, 11, 27, 12, 0)));
+        assertEquals(at(2026, 11, 27, 13, 0), calendar.lastClose(at(2026, 11, 27, 15, 0)));
+        assertEquals(at(2026, 11, 27, 13, 0), calendar.lastClose(at(2026, 11, 28, 10, 0)));
+        assertEquals(at(2026, 11, 30, 9, 30), calendar.nextOpen(at(2026, 11, 27, 13, 0)));
+    }
+
+    @Test
+    void yearsWithoutHolidaysCoverThisYearAndNext() {
+        assertEquals(List.of(2027), calendar.yearsWithoutHolidays(2026));
+        assertEquals(List.of(2025), calendar.yearsWithoutHolidays(2025));
+    }
+
+    private static ZonedDateTime at(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, NEW_YORK);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.stockanalyzer.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ArticleBatchTest {
+
+    private static final LocalDateTime PUBLISHED = LocalDateTime.of(2026, 3, 2, 14, 30, 5);
+
+    @Test
+    void newsItemsRoundTripThroughTheBatch() {
+        List<NewsAnalysis.NewsItem> items = List.of(
+            item("Apple beats estimates", "Revenue rose 8% — ahead of forecasts", "Reuters", PUBLISHED, 0.9,
+                 NewsAnalysis.SentimentType.POSITIVE, 3),
+            item("Supplier warning", null, "CNBC", null, 0.4, NewsAnalysis.SentimentType.NEGATIVE, 1),
+            item("Café chain lists", "Ünïcödé body", "Reuters", PUBLISHED.minusDays(1), 0.1, null, 1));
+
+        List<NewsAnalysis.NewsItem> back = ArticleBatch.of(items).toNewsItems();
+
+        assertEquals(items.size(), back.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertSameItem(items.get(i), back.get(i));
+        }
+    }
+
+    @Test
+    void sourcesAreStoredOncePerBatch() {
+        ArticleBatch batch = new ArticleBatch(1);
+        batch.add("a", "body", new String("Reuters"), "u1", PUBLISHED);
+        batch.add("b", "body", "CNBC", "u2", PUBLISHED);
+        batch.add("c", "body", new String("Reuters"), "u3", PUBLISHED);
+
+        assertEquals(List.of("Reuters", "CNBC"), batch.getSources());
+        assertSame(batch.source(0), batch.source(2));
+        assertEquals(3, batch.size());
+    }
+
+    @Test
+    void textJoinsTitleAndBody() {
+        ArticleBatch batch = new ArticleBatch();
+        batch.add("Title", "Body text", "src", "u1", null);
+        batch.add("Only title", null, "src", "u2", null);
+
+        assertEquals("Title Body text", batch.text(0));
+        assertEquals(batch.text(0).length() - 1, batch.textLength(0));
+        assertEquals("Only title", batch.text(1));
+        assertEquals("Only title".length(), batch.textLength(1));
+        assertNull(batch.publishedAt(1));
+        assertNull(batch.sentiment(1));
+    }
+
+    @Test
+    void selectAndAddAllCarryScores() {
+        ArticleBatch batch = new ArticleBatch();
+        for (int i = 0; i < 5; i++) {
+            int index = batch.add("t" + i, "c" + i, "s" + (i % 2), "u" + i, PUBLISHED.plusHours(i));
+            batch.setScore(index, i / 10.0, NewsAnalysis.SentimentType.values()[i]);
+            batch.setSourceCount(index, i + 1);
+        }
+
+        ArticleBatch selected = batch.select(new int[] {4, 1});
+        assertEquals(2, selected.size());
+        assertEquals("t4", selected.title(0));
+        assertEquals(0.1, selected.relevance(1), 0.0);
+        assertEquals(NewsAnalysis.SentimentType.values()[4], selected.sentiment(0));
+        assertEquals(5, selected.sourceCount(0));
+        assertEquals("s1", selected.source(1));
+
+        ArticleBatch merged = new ArticleBatch(1);
+        merged.add("first", null, "other", "u", null);
+        merged.addAll(selected);
+        assertEquals(3, merged.size());
+        assertEquals("c1", merged.content(2));
+        assertEquals(PUBLISHED.plusHours(1), merged.publishedAt(2));
+        assertEquals(List.of("other", "s0", "s1"), merged.getSources());
+    }
+
+    @Test
+    void checkpointJsonKeepsTheNewsItemsShape() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        NewsAnalysis analysis = new NewsAnalysis("AAPL", "Apple Inc.",
+            List.of(item("Apple beats estimates", "Revenue rose", "Reuters", PUBLISHED, 0.9,
+                         NewsAnalysis.SentimentType.VERY_POSITIVE, 2)),
+            List.of("revenue"), new NewsAnalysis.SentimentScore(1.0, 0.0, 0.0, NewsAnalysis.SentimentType.POSITIVE),
+            PUBLISHED);
+
+        String json = mapper.writeValueAsString(analysis);
+        NewsAnalysis back = mapper.readValue(json, NewsAnalysis.class);
+
+        assertEquals(1, back.getArticles().size());
+        assertSameItem(analysis.getNewsItems().get(0), back.getNewsItems().get(0));
+        assertEquals(json, mapper.writeValueAsString(back));
+    }
+
+    private static NewsAnalysis.NewsItem item(String title, String content, String source, LocalDateTime published,
+                                              double relevance, NewsAnalysis.SentimentType sentiment, int sourceCount) {
+        NewsAnalysis.NewsItem item = new NewsAnalysis.NewsItem(title, content, source, "https://example.com/" + title.hashCode(),
+            published, relevance, sentiment);
+        item.setSourceCount(sourceCount);
+        return item;
+    }
+
+    private static void assertSameItem(NewsAnalysis.NewsItem expected, NewsAnalysis.NewsItem actual) {
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getContent(), actual.getContent());
+        assertEquals(expected.getSource(), actual.getSource());
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getPublishedAt(), actual.getPublishedAt());
+        assertEquals(expected.getRelevanceScore(), actual.getRelevanceScore());
+        assertEquals(expected.getSentiment(), actual.getSentiment());
+        assertEquals(expected.getSourceCount(), actual.getSourceCount());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+class AnalysisRunSymbolRepositoryTest {
+
+    private static final String RUN = "daily-2026-03-02";
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 18, 0);
+
+    @Autowired
+    private AnalysisRunSymbolRepository runSymbolRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void scoredCheckpointIsMarkedPersistedOnce() {
+        Long id = checkpoint("AAPL", AnalysisRunSymbol.SymbolStatus.SCORED);
+
+        assertEquals(1, runSymbolRepository.markPersisted(RUN, "AAPL", NOW));
+        assertEquals(0, runSymbolRepository.markPersisted(RUN, "AAPL", NOW));
+        assertEquals(1, runSymbolRepository.setRecommendationId(RUN, "AAPL", 42L));
+
+        AnalysisRunSymbol checkpoint = reload(id);
+        assertEquals(AnalysisRunSymbol.SymbolStatus.PERSISTED, checkpoint.getStatus());
+        assertEquals(42L, checkpoint.getRecommendationId());
+        assertNull(checkpoint.getRecommendationJson());
+        assertNull(checkpoint.getNewsAnalysisJson());
+    }
+
+    @Test
+    void onlyScoredCheckpointsAreMarkedPersisted() {
+        Long failed = checkpoint("AAPL", AnalysisRunSymbol.SymbolStatus.FAILED);
+        checkpoint("MSFT", AnalysisRunSymbol.SymbolStatus.SCRAPED);
+
+        assertEquals(0, runSymbolRepository.markPersisted(RUN, "AAPL", NOW));
+        assertEquals(0, runSymbolRepository.markPersisted(RUN, "MSFT", NOW));
+        assertEquals(0, runSymbolRepository.markPersisted("other-run", "AAPL", NOW));
+        assertEquals(AnalysisRunSymbol.SymbolStatus.FAILED, reload(failed).getStatus());
+    }
+
+    private Long checkpoint(String symbol, AnalysisRunSymbol.SymbolStatus status) {
+        AnalysisRunSymbol checkpoint = new AnalysisRunSymbol(RUN, symbol);
+        checkpoint.setStatus(status);
+        checkpoint.setNewsAnalysisJson("{}");
+        checkpoint.setRecommendationJson("{}");
+        return entityManager.persistAndFlush(checkpoint).getId();
+    }
+
+    // The status changes are bulk updates, which bypass the persistence context
+    private AnalysisRunSymbol reload(Long id) {
+        entityManager.clear();
+        return entityManager.find(AnalysisRunSymbol.class, id);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.AnalysisShard;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+class AnalysisShardRepositoryTest {
+
+    private static final String RUN = "daily-2026-03-02";
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 18, 0);
+    private static final LocalDateTime LEASE_UNTIL = NOW.plusMinutes(5);
+
+    @Autowired
+    private AnalysisShardRepository shardRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void pendingShardIsClaimedByOneNodeOnly() {
+        Long id = shard(0);
+
+        assertEquals(1, shardRepository.claim(id, "node-a", LEASE_UNTIL, NOW));
+        assertEquals(0, shardRepository.claim(id, "node-b", LEASE_UNTIL, NOW.plusMinutes(1)));
+
+        AnalysisShard shard = reload(id);
+        assertEquals(AnalysisShard.ShardStatus.RUNNING, shard.getStatus());
+        assertEquals("node-a", shard.getOwner());
+        assertEquals(LEASE_UNTIL, shard.getLeaseExpiresAt());
+        assertEquals(1, shard.getAttempts());
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndTheFormerOwnerLosesIt() {
+        Long id = shard(0);
+        shardRepository.claim(id, "node-a", LEASE_UNTIL, NOW);
+        LocalDateTime later = LEASE_UNTIL.plusSeconds(1);
+
+        assertEquals(1, shardRepository.claim(id, "node-b", later.plusMinutes(5), later));
+        assertEquals(0, shardRepository.renewLease(id, "node-a", later.plusMinutes(5)));
+        assertEquals(0, shardRepository.complete(id, "node-a", later));
+        assertEquals(1, shardRepository.renewLease(id, "node-b", later.plusMinutes(10)));
+        assertEquals(1, shardRepository.complete(id, "node-b", later));
+
+        AnalysisShard shard = reload(id);
+        assertEquals(AnalysisShard.ShardStatus.COMPLETED, shard.getStatus());
+        assertEquals("node-b", shard.getOwner());
+        assertEquals(2, shard.getAttempts());
+    }
+
+    @Test
+    void claimableShardsArePendingOrLeaseExpired() {
+        Long pending = shard(0);
+        Long live = shard(1);
+        Long expired = shard(2);
+        Long completed = shard(3);
+        shardRepository.claim(live, "node-a", LEASE_UNTIL, NOW);
+        shardRepository.claim(expired, "node-a", NOW.minusSeconds(1), NOW.minusMinutes(5));
+        shardRepository.claim(completed, "node-a", LEASE_UNTIL, NOW);
+        shardRepository.complete(completed, "node-a", NOW);
+        entityManager.clear();
+
+        List<Long> claimable = shardRepository.findClaimable(RUN, NOW).stream().map(AnalysisShard::getId).toList();
+
+        assertEquals(List.of(pending, expired), claimable);
+        assertEquals(3, shardRepository.countByRunIdAndStatusNot(RUN, AnalysisShard.ShardStatus.COMPLETED));
+    }
+
+    @Test
+    void releasedLeasesArePendingAgain() {
+        Long mine = shard(0);
+        Long theirs = shard(1);
+        shardRepository.claim(mine, "node-a", LEASE_UNTIL, NOW);
+        shardRepository.claim(theirs, "node-b", LEASE_UNTIL, NOW);
+
+        assertEquals(1, shardRepository.releaseLeases("node-a"));
+
+        AnalysisShard released = reload(mine);
+        assertEquals(AnalysisShard.ShardStatus.PENDING, released.getStatus());
+        assertNull(released.getOwner());
+        assertNull(released.getLeaseExpiresAt());
+        assertEquals("node-b", reload(theirs).getOwner());
+    }
+
+    private Long shard(int index) {
+        return entityManager.persistAndFlush(new AnalysisShard(RUN, index, List.of("S" + index))).getId();
+    }
+
+    // Lease changes are bulk updates, which bypass the persistence context
+    private AnalysisShard reload(Long id) {
+        entityManager.clear();
+        return entityManager.find(AnalysisShard.class, id);
+    }
+}
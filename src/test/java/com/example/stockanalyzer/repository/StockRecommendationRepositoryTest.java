@@ -0,0 +1,55 @@
+package com.example.stockanalyzer.repository;
+
+import com.example.stockanalyzer.model.StockRecommendation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class StockRecommendationRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 2, 18, 0);
+
+    @Autowired
+    private StockRecommendationRepository recommendationRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void latestPerSymbolIsTheNewestRow() {
+        recommendation("AAPL", NOW.minusDays(1));
+        Long aapl = recommendation("AAPL", NOW);
+        Long msft = recommendation("MSFT", NOW.minusDays(2));
+
+        assertEquals(List.of(aapl, msft), latestIds());
+    }
+
+    @Test
+    void rowsGeneratedAtTheSameInstantYieldOneLatest() {
+        recommendation("AAPL", NOW);
+        Long second = recommendation("AAPL", NOW);
+
+        assertEquals(List.of(second), latestIds());
+    }
+
+    private List<Long> latestIds() {
+        return recommendationRepository.findLatestPerSymbol().stream()
+            .sorted(Comparator.comparing(StockRecommendation::getSymbol))
+            .map(StockRecommendation::getId)
+            .toList();
+    }
+
+    private Long recommendation(String symbol, LocalDateTime generatedAt) {
+        StockRecommendation recommendation = new StockRecommendation(null, symbol, symbol + " Inc.", 100.0, 99.0,
+            StockRecommendation.RecommendationType.HOLD, "", 110.0, 90.0, 0.5, List.of(), List.of(), generatedAt, generatedAt);
+        return entityManager.persistAndFlush(recommendation).getId();
+    }
+}
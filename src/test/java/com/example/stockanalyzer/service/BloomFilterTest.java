@@ -0,0 +1,76 @@
+package com.example.stockanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void insertedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(SeenArticleFilter.urlKey("AAPL", "https://example.com/" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(SeenArticleFilter.urlKey("AAPL", "https://example.com/" + i)));
+        }
+        // A new key whose bits were all set already is a false positive and not counted
+        assertTrue(filter.getInserted() > 9_900, "inserted " + filter.getInserted());
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() {
+        BloomFilter filter = new BloomFilter(20_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("seen-" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("unseen-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.015, "false positive rate " + rate);
+    }
+
+    @Test
+    void puttingAKeyAgainChangesNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertTrue(filter.put("a"));
+        assertFalse(filter.put("a"));
+        assertEquals(1, filter.getInserted());
+        assertFalse(filter.isFull());
+    }
+
+    @Test
+    void filterSurvivesBeingWrittenAndRead() throws IOException {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 500; i++) {
+            filter.put("key-" + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+
+        BloomFilter back = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(500, back.getInserted());
+        for (int i = 0; i < 500; i++) {
+            assertTrue(back.mightContain("key-" + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(filter.mightContain("other-" + i), back.mightContain("other-" + i));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class NewsDeduplicatorTest {
+
+    private static final String EARNINGS = "Apple reported quarterly revenue of 94 billion dollars on Thursday, ahead of "
+        + "analyst estimates, as iPhone sales in China recovered and services revenue reached a record. The company "
+        + "also announced a 110 billion dollar share buyback, the largest in its history, and raised its dividend "
+        + "by four percent. Shares rose six percent in extended trading after the results were published.";
+
+    private static final String RECALL = "Ford is recalling nearly two hundred thousand pickup trucks because a faulty "
+        + "seat belt buckle may not latch in a crash, the National Highway Traffic Safety Administration said. Dealers "
+        + "will replace the buckle free of charge and owners will be notified by mail starting next month.";
+
+    @Test
+    void formattingDifferencesDoNotChangeTheFingerprint() {
+        assertEquals(NewsDeduplicator.simHash(EARNINGS),
+            NewsDeduplicator.simHash(EARNINGS.toUpperCase().replace(",", " ;").replace(". ", " -- ")));
+        assertNotEquals(NewsDeduplicator.simHash(EARNINGS), NewsDeduplicator.simHash(RECALL));
+    }
+
+    @Test
+    void syndicatedCopiesCollapseIntoTheLongest() {
+        ArticleBatch articles = new ArticleBatch();
+        articles.add("Apple beats estimates", EARNINGS, "Reuters", "u1", null);
+        articles.add("Ford recalls pickups", RECALL, "CNBC", "u2", null);
+        articles.add("Apple beats estimates", EARNINGS + " (Reuters)", "Yahoo Finance", "u3", null);
+        articles.add("Apple beats estimates", EARNINGS, "Reuters", "u4", null);
+
+        ArticleBatch unique = new NewsDeduplicator(3).collapse(articles);
+
+        assertEquals(2, unique.size());
+        // Clusters keep first-seen order; the representative is the longest copy
+        assertEquals("u3", unique.url(0));
+        assertEquals(2, unique.sourceCount(0));
+        assertEquals("u2", unique.url(1));
+        assertEquals(1, unique.sourceCount(1));
+    }
+
+    @Test
+    void unrelatedArticlesAreAllKept() {
+        ArticleBatch articles = new ArticleBatch();
+        for (int i = 0; i < 50; i++) {
+            articles.add("Story " + i, "Company number " + i + " filed its annual report, listing " + (i * 7919)
+                + " employees across " + (i % 13) + " countries and a backlog of " + (i * 31) + " orders.", "src", "u" + i, null);
+        }
+
+        ArticleBatch unique = new NewsDeduplicator(3).collapse(articles);
+
+        assertEquals(articles.size(), unique.size());
+        for (int i = 0; i < unique.size(); i++) {
+            assertEquals("u" + i, unique.url(i));
+        }
+    }
+
+    @Test
+    void singleArticleIsReturnedAsIs() {
+        ArticleBatch articles = new ArticleBatch();
+        articles.add("Only", RECALL, "CNBC", "u1", null);
+
+        assertSame(articles, new NewsDeduplicator(3).collapse(articles));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.stockanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PriceLevelBookTest {
+
+    @Test
+    void levelsFireOnceWhenThePriceReachesThem() {
+        PriceLevelBook book = new PriceLevelBook();
+        book.addRising(1, 110);
+        book.addRising(2, 105);
+        book.addFalling(3, 90);
+        book.addFalling(4, 95);
+
+        assertEquals(List.of(), fired(book, 100));
+        // Touching a level counts
+        assertEquals(List.of(2L), fired(book, 105));
+        assertEquals(List.of(3L, 4L), fired(book, 89.5));
+        assertEquals(List.of(1L), fired(book, 120));
+        assertEquals(List.of(), fired(book, 120));
+        assertEquals(0, book.size());
+    }
+
+    @Test
+    void levelsAddedAfterFiringAreKept() {
+        PriceLevelBook book = new PriceLevelBook();
+        for (int i = 0; i < 100; i++) {
+            book.addRising(i, 100 + i);
+        }
+        assertEquals(60, fired(book, 159.5).size());
+
+        // Adding reclaims the fired prefix; the rest must survive it in order
+        book.addRising(1000, 150);
+        book.addRising(1001, 300);
+        assertEquals(42, book.size());
+        assertEquals(List.of(1000L, 60L, 61L), fired(book, 161));
+        assertEquals(39, book.size());
+    }
+
+    @Test
+    void retainDropsRejectedLevels() {
+        PriceLevelBook book = new PriceLevelBook();
+        for (int i = 0; i < 10; i++) {
+            book.addRising(i, 100 + i);
+            book.addFalling(100 + i, 90 - i);
+        }
+        fired(book, 101);
+
+        assertEquals(9, book.retain(id -> id % 2 == 0));
+        assertEquals(9, book.size());
+        assertEquals(List.of(2L, 4L), fired(book, 104));
+        assertEquals(List.of(102L, 100L), fired(book, 88));
+    }
+
+    @Test
+    void matchesANaiveScanOfEveryLevel() {
+        Random random = new Random(7);
+        PriceLevelBook book = new PriceLevelBook();
+        Map<Long, Double> rising = new HashMap<>();
+        Map<Long, Double> falling = new HashMap<>();
+        double price = 100;
+        long nextId = 0;
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 4) {
+                double level = Math.round((price + random.nextGaussian() * 5) * 4) / 4.0;
+                if (random.nextBoolean()) {
+                    book.addRising(nextId, level);
+                    rising.put(nextId++, level);
+                } else {
+                    book.addFalling(nextId, level);
+                    falling.put(nextId++, level);
+                }
+            } else if (action < 9) {
+                price = Math.round((price + random.nextGaussian()) * 4) / 4.0;
+                Set<Long> expected = new TreeSet<>();
+                double at = price;
+                rising.entrySet().removeIf(level -> level.getValue() <= at && expected.add(level.getKey()));
+                falling.entrySet().removeIf(level -> level.getValue() >= at && expected.add(level.getKey()));
+                assertEquals(expected, new TreeSet<>(fired(book, price)));
+            } else {
+                long modulus = 2 + random.nextInt(5);
+                int dropped = book.retain(id -> id % modulus != 0);
+                int before = rising.size() + falling.size();
+                rising.keySet().removeIf(id -> id % modulus == 0);
+                falling.keySet().removeIf(id -> id % modulus == 0);
+                assertEquals(before - rising.size() - falling.size(), dropped);
+            }
+            assertEquals(rising.size() + falling.size(), book.size());
+        }
+    }
+
+    private static List<Long> fired(PriceLevelBook book, double price) {
+        List<Long> ids = new ArrayList<>();
+        int count = book.cross(price, (id, level) -> ids.add(id));
+        assertEquals(ids.size(), count);
+        return ids;
+    }
+}
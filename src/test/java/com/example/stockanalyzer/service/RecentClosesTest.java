@@ -0,0 +1,106 @@
+package com.example.stockanalyzer.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RecentClosesTest {
+
+    private static final String HEADER = "Date,Open,High,Low,Close,Adj Close,Volume\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsOnlyTheLastBars() throws IOException {
+        Path file = directory.resolve("AAA.csv");
+        Files.writeString(file, HEADER + rows(1, 10), StandardCharsets.US_ASCII);
+
+        RecentCloses closes = new RecentCloses(file, 4);
+        closes.refresh();
+
+        assertEquals(4, closes.size());
+        assertEquals(day(7), closes.day(0));
+        assertEquals(10.0, closes.close(3), 0.0);
+        assertEquals(-1, closes.indexOf(day(6)));
+    }
+
+    @Test
+    void readsOnlyAppendedRows() throws IOException {
+        Path file = directory.resolve("AAA.csv");
+        Files.writeString(file, HEADER + rows(1, 10), StandardCharsets.US_ASCII);
+        RecentCloses closes = new RecentCloses(file, 4);
+        closes.refresh();
+
+        String appended = rows(11, 12);
+        Files.writeString(file, appended, StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+
+        assertEquals(appended.length(), closes.refresh());
+        assertEquals(0, closes.refresh());
+        assertEquals(4, closes.size());
+        assertEquals(day(9), closes.day(0));
+        assertEquals(12.0, closes.close(closes.indexOf(day(12))), 0.0);
+    }
+
+    @Test
+    void readsAgainAfterTheFileIsRewritten() throws IOException {
+        Path file = directory.resolve("AAA.csv");
+        Files.writeString(file, HEADER + rows(1, 10), StandardCharsets.US_ASCII);
+        RecentCloses closes = new RecentCloses(file, 4);
+        closes.refresh();
+
+        Files.writeString(file, HEADER + rows(1, 3), StandardCharsets.US_ASCII);
+        closes.refresh();
+
+        assertEquals(3, closes.size());
+        assertEquals(day(3), closes.day(2));
+    }
+
+    @Test
+    void unterminatedLastRowIsReadAgainOnceComplete() throws IOException {
+        Path file = directory.resolve("AAA.csv");
+        String partial = LocalDate.ofEpochDay(day(4)) + ",4,4,4,4.5";
+        Files.writeString(file, HEADER + rows(1, 3) + partial, StandardCharsets.US_ASCII);
+        RecentCloses closes = new RecentCloses(file, 10);
+        closes.refresh();
+
+        assertEquals(4, closes.size());
+        assertEquals(4.5, closes.close(3), 0.0);
+
+        // The writer finishes the row with a different close
+        Files.writeString(file, "5,4.55,100\n", StandardCharsets.US_ASCII, StandardOpenOption.APPEND);
+        closes.refresh();
+
+        assertEquals(4, closes.size());
+        assertEquals(4.55, closes.close(closes.indexOf(day(4))), 0.0);
+    }
+
+    @Test
+    void missingFileHasNoBars() throws IOException {
+        RecentCloses closes = new RecentCloses(directory.resolve("NONE.csv"), 4);
+
+        assertEquals(0, closes.refresh());
+        assertEquals(0, closes.size());
+    }
+
+    private static String rows(int first, int last) {
+        StringBuilder rows = new StringBuilder();
+        for (int i = first; i <= last; i++) {
+            rows.append(LocalDate.ofEpochDay(day(i))).append(',').append(i).append(',').append(i).append(',')
+                .append(i).append(',').append(i).append(',').append(i).append(",100\n");
+        }
+        return rows.toString();
+    }
+
+    private static int day(int i) {
+        return (int) LocalDate.of(2024, 1, 1).toEpochDay() + i;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.AnalysisRunSymbol;
+import com.example.stockanalyzer.model.StockRecommendation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecommendationWriteBehindTest {
+
+    private static final String RUN = "daily-2026-03-02";
+
+    private final FakeRunService runService = new FakeRunService();
+    private final FakeAutomationService automationService = new FakeAutomationService();
+    private RecommendationWriteBehind writer;
+
+    @AfterEach
+    void stopWriter() throws InterruptedException {
+        runService.release.countDown();
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void rowsArrivingTogetherAreWrittenInOneBatch() throws InterruptedException {
+        writer = writer(50, 200);
+        long last = 0;
+        for (String symbol : List.of("A", "B", "C", "D", "E")) {
+            last = writer.enqueue(checkpoint(symbol), new StockRecommendation());
+        }
+
+        assertTrue(writer.awaitWritten(last, 5_000));
+        assertEquals(List.of(List.of("A", "B", "C", "D", "E")), runService.batches);
+        assertEquals(5L, writer.getStats().get("written"));
+        assertEquals(1L, writer.getStats().get("batches"));
+    }
+
+    @Test
+    void batchesAreCappedAtTheBatchSize() throws InterruptedException {
+        writer = writer(2, 200);
+        long last = 0;
+        for (String symbol : List.of("A", "B", "C", "D", "E")) {
+            last = writer.enqueue(checkpoint(symbol), new StockRecommendation());
+        }
+
+        assertTrue(writer.awaitWritten(last, 5_000));
+        assertEquals(List.of(List.of("A", "B"), List.of("C", "D"), List.of("E")), runService.batches);
+    }
+
+    @Test
+    void transientErrorsAreRetried() throws InterruptedException {
+        writer = writer(50, 10);
+        runService.transientFailures = 2;
+
+        assertTrue(writer.awaitWritten(writer.enqueue(checkpoint("A"), new StockRecommendation()), 5_000));
+        Map<String, Object> stats = writer.getStats();
+        assertEquals(1L, stats.get("written"));
+        assertEquals(2L, stats.get("retries"));
+        assertEquals(List.of(), automationService.failed);
+    }
+
+    @Test
+    void badRowFailsOnlyItsOwnSymbol() throws InterruptedException {
+        writer = writer(50, 200);
+        runService.bad = Set.of("BAD");
+        writer.enqueue(checkpoint("A"), new StockRecommendation());
+        writer.enqueue(checkpoint("BAD"), new StockRecommendation());
+        long last = writer.enqueue(checkpoint("C"), new StockRecommendation());
+
+        assertTrue(writer.awaitWritten(last, 5_000));
+        assertEquals(List.of(List.of("A"), List.of("C")), runService.batches);
+        assertEquals(List.of("BAD"), automationService.failed);
+        assertEquals(2L, writer.getStats().get("written"));
+        assertEquals(1L, writer.getStats().get("failed"));
+    }
+
+    @Test
+    void checkpointsNoLongerScoredAreSkipped() throws InterruptedException {
+        writer = writer(50, 200);
+        runService.persisted = Set.of("B");
+        writer.enqueue(checkpoint("A"), new StockRecommendation());
+        long last = writer.enqueue(checkpoint("B"), new StockRecommendation());
+
+        assertTrue(writer.awaitWritten(last, 5_000));
+        assertEquals(1L, writer.getStats().get("written"));
+        assertEquals(1L, writer.getStats().get("skipped"));
+        assertEquals(List.of(), automationService.failed);
+    }
+
+    @Test
+    void discardDropsOnlyQueuedRowsOfTheShard() throws InterruptedException {
+        writer = writer(1, 10);
+        runService.release = new CountDownLatch(1);
+        writer.enqueue(checkpoint("A"), new StockRecommendation());
+        assertTrue(runService.writing.await(5, TimeUnit.SECONDS));
+        // A is being written; B and C wait in the queue
+        writer.enqueue(checkpoint("B"), new StockRecommendation());
+        long last = writer.enqueue(new AnalysisRunSymbol("other-run", "C"), new StockRecommendation());
+
+        assertEquals(1, writer.discard(RUN, List.of("A", "B")));
+        runService.release.countDown();
+
+        assertTrue(writer.awaitWritten(last, 5_000));
+        assertEquals(List.of(List.of("A"), List.of("C")), runService.batches);
+    }
+
+    @Test
+    void enqueueAfterStopIsRejected() throws InterruptedException {
+        writer = writer(50, 10);
+        writer.stop();
+
+        assertThrows(RejectedExecutionException.class, () -> writer.enqueue(checkpoint("A"), new StockRecommendation()));
+    }
+
+    private RecommendationWriteBehind writer(int batchSize, long flushMs) {
+        RecommendationWriteBehind writer = new RecommendationWriteBehind();
+        ReflectionTestUtils.setField(writer, "analysisRunService", runService);
+        ReflectionTestUtils.setField(writer, "automationService", automationService);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 16);
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "flushMs", flushMs);
+        ReflectionTestUtils.setField(writer, "maxAttempts", 5);
+        ReflectionTestUtils.setField(writer, "retryBackoffMs", 1L);
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 5_000L);
+        writer.start();
+        return writer;
+    }
+
+    private static AnalysisRunSymbol checkpoint(String symbol) {
+        AnalysisRunSymbol checkpoint = new AnalysisRunSymbol(RUN, symbol);
+        checkpoint.setStatus(AnalysisRunSymbol.SymbolStatus.SCORED);
+        return checkpoint;
+    }
+
+    // Records each committed batch; a batch containing a bad symbol fails as a whole, like a rolled-back transaction
+    private static final class FakeRunService extends AnalysisRunService {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        final CountDownLatch writing = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(0);
+        volatile Set<String> bad = Set.of();
+        volatile Set<String> persisted = Set.of();
+        volatile int transientFailures;
+
+        @Override
+        public int persistRecommendations(List<AnalysisRunSymbol> checkpoints, List<StockRecommendation> recommendations) {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (transientFailures > 0) {
+                transientFailures--;
+                throw new QueryTimeoutException("lock wait timeout");
+            }
+            List<String> symbols = checkpoints.stream().map(AnalysisRunSymbol::getSymbol).toList();
+            if (symbols.stream().anyMatch(bad::contains)) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            batches.add(symbols);
+            return (int) symbols.stream().filter(symbol -> !persisted.contains(symbol)).count();
+        }
+
+        @Override
+        public AnalysisRunSymbol checkpoint(String runId, String symbol) {
+            return new AnalysisRunSymbol(runId, symbol);
+        }
+    }
+
+    private static final class FakeAutomationService extends AutomationService {
+        final List<String> failed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void recordFailure(AnalysisRunSymbol checkpoint, Exception e) {
+            failed.add(checkpoint.getSymbol());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.stockanalyzer.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingCovarianceTest {
+
+    // More symbols than one kernel tile, so off-diagonal tiles and the mirrored half are covered
+    private static final int SYMBOLS = CovarianceKernels.TILE * 2 + 7;
+    private static final int WINDOW = 60;
+
+    // Float storage of the cross-products; errors are compared on the correlation scale
+    private static final double REBUILT_TOLERANCE = 1e-6;
+    private static final double INCREMENTAL_TOLERANCE = 1e-5;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void rebuiltMatrixMatchesNaiveCovarianceOfTheWindow() {
+        double[][] sessions = returns(WINDOW + 25, 1);
+        RollingCovariance covariance = new RollingCovariance(symbols(), WINDOW);
+        for (int t = 0; t < sessions.length; t++) {
+            covariance.append(t, sessions[t]);
+        }
+        covariance.rebuild(pool);
+
+        assertEquals(WINDOW, covariance.getFilled());
+        assertEquals(sessions.length - 1, covariance.getLastDay());
+        assertMatchesNaive(covariance, sessions, REBUILT_TOLERANCE);
+    }
+
+    @Test
+    void incrementalUpdatesTrackTheRollingWindow() {
+        double[][] sessions = returns(WINDOW + 40, 2);
+        RollingCovariance covariance = new RollingCovariance(symbols(), WINDOW);
+        for (int t = 0; t < WINDOW; t++) {
+            covariance.append(t, sessions[t]);
+        }
+        covariance.rebuild(pool);
+        // Forty rank-one updates without a rebuild, twice the default risk.rebuildEvery
+        for (int t = WINDOW; t < sessions.length; t++) {
+            covariance.push(t, sessions[t], pool);
+        }
+
+        assertEquals(WINDOW, covariance.getFilled());
+        assertMatchesNaive(covariance, sessions, INCREMENTAL_TOLERANCE);
+
+        covariance.rebuild(pool);
+        assertMatchesNaive(covariance, sessions, REBUILT_TOLERANCE);
+    }
+
+    @Test
+    void clearedMatrixIsRefilledFromNewSessions() {
+        double[][] first = returns(WINDOW, 3);
+        double[][] second = returns(WINDOW / 2, 4);
+        RollingCovariance covariance = new RollingCovariance(symbols(), WINDOW);
+        for (int t = 0; t < first.length; t++) {
+            covariance.append(t, first[t]);
+        }
+        covariance.rebuild(pool);
+
+        covariance.clear();
+        for (int t = 0; t < second.length; t++) {
+            covariance.append(1000 + t, second[t]);
+        }
+        covariance.rebuild(pool);
+
+        assertEquals(second.length, covariance.getFilled());
+        assertMatchesNaive(covariance, second, REBUILT_TOLERANCE);
+    }
+
+    @Test
+    void identicalSeriesAreFullyCorrelated() {
+        double[][] sessions = returns(WINDOW, 5);
+        for (double[] session : sessions) {
+            session[1] = session[0];
+            session[2] = -session[0];
+        }
+        RollingCovariance covariance = new RollingCovariance(symbols(), WINDOW);
+        for (int t = 0; t < sessions.length; t++) {
+            covariance.append(t, sessions[t]);
+        }
+        covariance.rebuild(pool);
+
+        assertEquals(1.0, covariance.correlation(0, 1), REBUILT_TOLERANCE);
+        assertEquals(-1.0, covariance.correlation(0, 2), REBUILT_TOLERANCE);
+    }
+
+    @Test
+    void subsetIsSymmetricAndMatchesPairwiseValues() {
+        double[][] sessions = returns(WINDOW, 6);
+        RollingCovariance covariance = new RollingCovariance(symbols(), WINDOW);
+        for (int t = 0; t < sessions.length; t++) {
+            covariance.append(t, sessions[t]);
+        }
+        covariance.rebuild(pool);
+
+        int[] subset = {3, 70, SYMBOLS - 1};
+        double[] matrix = covariance.covariance(subset);
+        for (int a = 0; a < subset.length; a++) {
+            for (int b = 0; b < subset.length; b++) {
+                assertEquals(covariance.covariance(subset[a], subset[b]), matrix[a * subset.length + b], 0.0);
+                assertEquals(matrix[a * subset.length + b], matrix[b * subset.length + a], 0.0);
+            }
+        }
+    }
+
+    // Every covariance against the two-pass sample covariance of the last WINDOW sessions
+    private static void assertMatchesNaive(RollingCovariance covariance, double[][] sessions, double tolerance) {
+        int from = Math.max(0, sessions.length - WINDOW);
+        int count = sessions.length - from;
+        double[] mean = new double[SYMBOLS];
+        for (int t = from; t < sessions.length; t++) {
+            for (int i = 0; i < SYMBOLS; i++) {
+                mean[i] += sessions[t][i] / count;
+            }
+        }
+        double[][] expected = new double[SYMBOLS][SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            for (int j = 0; j < SYMBOLS; j++) {
+                double sum = 0;
+                for (int t = from; t < sessions.length; t++) {
+                    sum += (sessions[t][i] - mean[i]) * (sessions[t][j] - mean[j]);
+                }
+                expected[i][j] = sum / (count - 1);
+            }
+        }
+        double worst = 0;
+        for (int i = 0; i < SYMBOLS; i++) {
+            for (int j = 0; j < SYMBOLS; j++) {
+                double scale = Math.sqrt(expected[i][i] * expected[j][j]);
+                worst = Math.max(worst, Math.abs(covariance.covariance(i, j) - expected[i][j]) / scale);
+            }
+        }
+        assertTrue(worst <= tolerance, "worst error " + worst + " on the correlation scale");
+    }
+
+    // Daily returns driven by one market factor plus noise, so pairs are correlated as real stocks are
+    private static double[][] returns(int sessions, long seed) {
+        Random random = new Random(seed);
+        double[] beta = new double[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            beta[i] = 0.5 + random.nextDouble();
+        }
+        double[][] out = new double[sessions][SYMBOLS];
+        for (int t = 0; t < sessions; t++) {
+            double market = 0.0004 + random.nextGaussian() * 0.01;
+            for (int i = 0; i < SYMBOLS; i++) {
+                out[t][i] = beta[i] * market + random.nextGaussian() * 0.015;
+            }
+        }
+        return out;
+    }
+
+    private static String[] symbols() {
+        String[] symbols = new String[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbols[i] = "S" + i;
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.stockanalyzer.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeenArticleFilterTest {
+
+    private static final int CAPACITY = 1_000;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = directory.resolve("seen.bloom");
+    }
+
+    @Test
+    void markedKeysAreSeen() {
+        SeenArticleFilter filter = filter();
+        String url = SeenArticleFilter.urlKey("AAPL", "https://example.com/a");
+
+        assertFalse(filter.mightContain(url));
+        filter.markSeen(List.of(url));
+        assertTrue(filter.mightContain(url));
+        assertFalse(filter.mightContain(SeenArticleFilter.urlKey("MSFT", "https://example.com/a")));
+    }
+
+    @Test
+    void fullFilterIsKeptAsThePreviousGeneration() {
+        SeenArticleFilter filter = filter();
+        filter.markSeen(keys("first", CAPACITY));
+        filter.markSeen(keys("second", CAPACITY / 2));
+
+        assertTrue(filter.mightContain("first-0"));
+        assertTrue(filter.mightContain("second-0"));
+
+        // A second rotation drops the oldest generation
+        filter.markSeen(keys("third", CAPACITY));
+        assertTrue(filter.mightContain("second-0"));
+        assertTrue(filter.mightContain("third-0"));
+        assertTrue(countSeen(filter, keys("first", CAPACITY)) < CAPACITY / 20);
+    }
+
+    @Test
+    void flushedFilterIsLoadedAgain() {
+        SeenArticleFilter filter = filter();
+        filter.markSeen(keys("first", CAPACITY));
+        filter.markSeen(keys("second", 10));
+        filter.flush();
+
+        SeenArticleFilter reloaded = filter();
+
+        assertEquals(CAPACITY, countSeen(reloaded, keys("first", CAPACITY)));
+        assertEquals(10, countSeen(reloaded, keys("second", 10)));
+    }
+
+    @Test
+    void concurrentFlushesLeaveEveryKeyOnDisk() throws InterruptedException {
+        SeenArticleFilter filter = filter();
+        Thread[] flushers = new Thread[3];
+        for (int t = 0; t < flushers.length; t++) {
+            flushers[t] = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    filter.flush();
+                }
+            });
+            flushers[t].start();
+        }
+        for (int i = 0; i < 200; i++) {
+            filter.markSeen(List.of("key-" + i));
+        }
+        for (Thread flusher : flushers) {
+            flusher.join();
+        }
+        // The shutdown flush
+        filter.close();
+
+        assertEquals(200, countSeen(filter(), keys("key", 200)));
+    }
+
+    @Test
+    void unreadableFileStartsEmpty() throws IOException {
+        Files.writeString(file, "not a filter");
+
+        SeenArticleFilter filter = filter();
+
+        assertFalse(filter.mightContain("first-0"));
+        filter.markSeen(List.of("first-0"));
+        assertTrue(filter.mightContain("first-0"));
+    }
+
+    @Test
+    void contentKeyDependsOnSymbolAndText() {
+        String key = SeenArticleFilter.contentKey("AAPL", "Title", "Body");
+
+        assertEquals(key, SeenArticleFilter.contentKey("AAPL", "Title", "Body"));
+        assertNotEquals(key, SeenArticleFilter.contentKey("MSFT", "Title", "Body"));
+        assertNotEquals(key, SeenArticleFilter.contentKey("AAPL", "Title", "Body 2"));
+        assertNotEquals(key, SeenArticleFilter.contentKey("AAPL", "TitleBody", ""));
+    }
+
+    private SeenArticleFilter filter() {
+        SeenArticleFilter filter = new SeenArticleFilter();
+        ReflectionTestUtils.setField(filter, "filterPath", file.toString());
+        ReflectionTestUtils.setField(filter, "capacity", (long) CAPACITY);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.001);
+        filter.load();
+        return filter;
+    }
+
+    private static List<String> keys(String prefix, int count) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            keys.add(prefix + "-" + i);
+        }
+        return keys;
+    }
+
+    private static int countSeen(SeenArticleFilter filter, List<String> keys) {
+        int seen = 0;
+        for (String key : keys) {
+            if (filter.mightContain(key)) {
+                seen++;
+            }
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.stockanalyzer.service;
+
+import com.example.stockanalyzer.model.ArticleBatch;
+import com.example.stockanalyzer.model.NewsAnalysis;
+import com.example.stockanalyzer.model.SentimentPoint;
+import com.example.stockanalyzer.model.SymbolSentimentState;
+import com.example.stockanalyzer.repository.SentimentPointRepository;
+import com.example.stockanalyzer.repository.SymbolSentimentStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SymbolSentimentServiceTest {
+
+    private static final double HALF_LIFE_HOURS = 72;
+    // The service reads the clock itself; a minute of drift moves a weight by less than this
+    private static final double TOLERANCE = 1e-4;
+
+    private final Map<String, SymbolSentimentState> states = new HashMap<>();
+    private final Map<LocalDate, SentimentPoint> points = new HashMap<>();
+    private int failInserts;
+    private SymbolSentimentService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SymbolSentimentService();
+        ReflectionTestUtils.setField(service, "stateRepository", stateRepository());
+        ReflectionTestUtils.setField(service, "pointRepository", pointRepository());
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(null);
+            }
+        });
+        ReflectionTestUtils.setField(service, "halfLifeHours", HALF_LIFE_HOURS);
+        ReflectionTestUtils.setField(service, "minWeight", 0.5);
+    }
+
+    @Test
+    void articleWeightHalvesEveryHalfLife() {
+        LocalDateTime now = LocalDateTime.now();
+        service.record("AAPL", articles(
+            article(now.minusHours(72), NewsAnalysis.SentimentType.POSITIVE),
+            article(now.minusHours(144), NewsAnalysis.SentimentType.NEGATIVE),
+            article(now, NewsAnalysis.SentimentType.NEUTRAL)));
+
+        Map<String, Object> description = service.describe("AAPL");
+        assertEquals(0.5, (double) description.get("positiveWeight"), TOLERANCE);
+        assertEquals(0.25, (double) description.get("negativeWeight"), TOLERANCE);
+        assertEquals(1.0, (double) description.get("neutralWeight"), TOLERANCE);
+        assertEquals(1L, description.get("positiveCount"));
+    }
+
+    @Test
+    void storedWeightsDecayUntilTheyAreRead() {
+        SymbolSentimentState state = new SymbolSentimentState("AAPL");
+        state.setPositiveWeight(4);
+        state.setNegativeWeight(2);
+        state.setDecayedTo(LocalDateTime.now().minusHours(144));
+        states.put("AAPL", state);
+
+        NewsAnalysis.SentimentScore score = service.current("AAPL");
+
+        assertEquals(NewsAnalysis.SentimentType.POSITIVE, score.getOverall());
+        assertEquals(2.0 / 3, score.getPositive(), TOLERANCE);
+        assertEquals(1.0, (double) service.describe("AAPL").get("positiveWeight"), TOLERANCE);
+    }
+
+    @Test
+    void symbolWithLittleRecentNewsReadsNeutral() {
+        SymbolSentimentState state = new SymbolSentimentState("AAPL");
+        state.setNegativeWeight(1.9);
+        state.setDecayedTo(LocalDateTime.now().minusHours(144));
+        states.put("AAPL", state);
+
+        NewsAnalysis.SentimentScore score = service.current("AAPL");
+
+        assertEquals(NewsAnalysis.SentimentType.NEUTRAL, score.getOverall());
+        assertEquals(1.0, score.getNeutral(), 0.0);
+        assertNull(service.current("MSFT"));
+    }
+
+    @Test
+    void recordAddsToTheDecayedStateAndUpdatesTheDaysPoint() {
+        LocalDateTime now = LocalDateTime.now();
+        service.record("AAPL", articles(article(now, NewsAnalysis.SentimentType.POSITIVE)));
+        states.get("AAPL").setDecayedTo(now.minusHours(72));
+
+        NewsAnalysis.SentimentScore score = service.record("AAPL", articles(
+            article(now, NewsAnalysis.SentimentType.NEGATIVE),
+            article(now, NewsAnalysis.SentimentType.VERY_NEGATIVE)));
+
+        assertEquals(NewsAnalysis.SentimentType.NEGATIVE, score.getOverall());
+        assertEquals(0.5 / 2.5, score.getPositive(), TOLERANCE);
+        SentimentPoint point = points.get(LocalDate.now());
+        assertEquals(3, point.getArticles());
+        assertEquals((0.5 - 2) / 2.5, point.getNetScore(), TOLERANCE);
+        assertEquals(1, points.size());
+    }
+
+    @Test
+    void previewStoresNothing() {
+        NewsAnalysis.SentimentScore score = service.preview("AAPL",
+            articles(article(LocalDateTime.now(), NewsAnalysis.SentimentType.POSITIVE)));
+
+        assertEquals(NewsAnalysis.SentimentType.POSITIVE, score.getOverall());
+        assertEquals(0, states.size());
+        assertEquals(0, points.size());
+    }
+
+    @Test
+    void futureDatedArticlesCountInFull() {
+        service.record("AAPL", articles(article(LocalDateTime.now().plusHours(5), NewsAnalysis.SentimentType.POSITIVE)));
+
+        assertEquals(1.0, (double) service.describe("AAPL").get("positiveWeight"), TOLERANCE);
+    }
+
+    @Test
+    void undatedArticlesCountAsIngestedNow() {
+        LocalDateTime published = LocalDateTime.now().minusHours(72);
+        service.record("AAPL", articles(article(published, NewsAnalysis.SentimentType.POSITIVE)));
+
+        NewsAnalysis.SentimentScore preview = service.preview("AAPL", articles(article(null, NewsAnalysis.SentimentType.NEGATIVE)));
+        service.record("AAPL", articles(article(null, NewsAnalysis.SentimentType.NEGATIVE)));
+
+        assertEquals(1.0 / 1.5, preview.getNegative(), TOLERANCE);
+        Map<String, Object> description = service.describe("AAPL");
+        assertEquals(1.0, (double) description.get("negativeWeight"), TOLERANCE);
+        assertEquals(1L, description.get("negativeCount"));
+        assertEquals(published.withNano(0), description.get("lastArticleAt"));
+    }
+
+    @Test
+    void lostFirstInsertIsAppliedAgainOnce() {
+        failInserts = 1;
+
+        service.record("AAPL", articles(article(LocalDateTime.now(), NewsAnalysis.SentimentType.POSITIVE)));
+
+        assertEquals(1L, service.describe("AAPL").get("positiveCount"));
+        assertEquals(1, points.get(LocalDate.now()).getArticles());
+    }
+
+    private static ArticleBatch articles(Object[]... articles) {
+        ArticleBatch batch = new ArticleBatch();
+        for (Object[] article : articles) {
+            int i = batch.add("title", "body", "src", "u" + batch.size(), (LocalDateTime) article[0]);
+            batch.setScore(i, 1.0, (NewsAnalysis.SentimentType) article[1]);
+        }
+        return batch;
+    }
+
+    private static Object[] article(LocalDateTime publishedAt, NewsAnalysis.SentimentType sentiment) {
+        return new Object[] {publishedAt, sentiment};
+    }
+
+    // In-memory repositories; only the methods the service calls are implemented
+    private SymbolSentimentStateRepository stateRepository() {
+        return repository(SymbolSentimentStateRepository.class, (method, args) -> switch (method) {
+            case "findById", "findForUpdate" -> Optional.ofNullable(states.get((String) args[0]));
+            case "saveAndFlush" -> {
+                SymbolSentimentState state = (SymbolSentimentState) args[0];
+                if (!states.containsKey(state.getSymbol()) && failInserts > 0) {
+                    failInserts--;
+                    throw new DataIntegrityViolationException("duplicate key " + state.getSymbol());
+                }
+                states.put(state.getSymbol(), state);
+                yield state;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private SentimentPointRepository pointRepository() {
+        return repository(SentimentPointRepository.class, (method, args) -> switch (method) {
+            case "findBySymbolAndDay" -> Optional.ofNullable(points.get((LocalDate) args[1]));
+            case "saveAndFlush" -> {
+                SentimentPoint point = (SentimentPoint) args[0];
+                points.put(point.getDay(), point);
+                yield point;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T repository(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+            (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}